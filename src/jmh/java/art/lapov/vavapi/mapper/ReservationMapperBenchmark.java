@@ -0,0 +1,127 @@
+package art.lapov.vavapi.mapper;
+
+import art.lapov.vavapi.dto.ReservationDTO;
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.Payment;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Review;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mapping of fully populated reservations (station, owner, client, payment, review)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationMapperBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ReservationMapper mapper;
+    private Reservation reservation;
+    private List<Reservation> page;
+
+    @Setup
+    public void setUp() {
+        mapper = new ReservationMapperImpl();
+
+        User owner = user("owner");
+        Location location = new Location();
+        location.setId("location-1");
+        location.setName("Parking Centre");
+        location.setCity("Lyon");
+        location.setLatitude(45.76);
+        location.setLongitude(4.83);
+        location.setOwner(owner);
+
+        Station station = new Station();
+        station.setId("station-1");
+        station.setMaxPowerWatt(22000L);
+        station.setConnectorType(ConnectorType.values()[0]);
+        station.setEnabled(true);
+        station.setPhotoUrl("station-1_photo.jpg");
+        station.setLocation(location);
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(reservation("reservation-" + i, station, user("client-" + i)));
+        }
+        reservation = page.get(0);
+    }
+
+    @Benchmark
+    public ReservationDTO mapOne() {
+        return mapper.map(reservation);
+    }
+
+    @Benchmark
+    public List<ReservationDTO> mapPage() {
+        List<ReservationDTO> result = new ArrayList<>(page.size());
+        for (Reservation r : page) {
+            result.add(mapper.map(r));
+        }
+        return result;
+    }
+
+    private static Reservation reservation(String id, Station station, User client) {
+        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setStatus(ReservationStatus.COMPLETED);
+        r.setStartDate(start);
+        r.setEndDate(start.plusHours(3));
+        r.setTotalCostInCents(4500);
+        r.setCreatedAt(start.minusDays(2));
+        r.setAcceptedAt(start.minusDays(1));
+        r.setPaidAt(start.minusDays(1));
+        r.setStation(station);
+        r.setClient(client);
+
+        Payment payment = new Payment();
+        payment.setId("payment-" + id);
+        payment.setAmountInCents(4500);
+        payment.setPaidAt(start.minusDays(1));
+        payment.setTransactionId("tx-" + id);
+        r.setPayment(payment);
+
+        Review review = new Review();
+        review.setId("review-" + id);
+        review.setRating(4);
+        review.setComment("Fast charging");
+        review.setAuthor(client);
+        review.setReservation(r);
+        r.setReview(review);
+        return r;
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setFirstName("Jean");
+        user.setLastName("Dupont");
+        user.setPhotoUrl(id + "_avatar.jpg");
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.benchmark.Stubs;
+import art.lapov.vavapi.dto.CostCalculationDTO;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.repository.PricingIntervalRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost calculation and interval coverage for stations with many pricing intervals and multi-day ranges
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final String STATION_ID = "station-bench";
+
+    /**
+     * Intervals per day, contiguous from 00:00 to 23:59
+     */
+    @Param({"4", "24", "96"})
+    public int intervalCount;
+
+    /**
+     * Length of the reservation in days
+     */
+    @Param({"1", "7", "30"})
+    public int days;
+
+    private PricingIntervalService service;
+    private List<PricingInterval> intervals;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        Station station = new Station();
+        station.setId(STATION_ID);
+        intervals = buildIntervals(station, intervalCount);
+
+        PricingIntervalRepository intervalRepository = Stubs.of(PricingIntervalRepository.class, Map.of(
+                "findByStationIdOrderByStartHour", args -> intervals));
+        StationRepository stationRepository = Stubs.of(StationRepository.class, Map.of(
+                "findById", args -> Optional.of(station)));
+        // Signing is not part of the measured pricing: the quote is a constant
+        QuoteTokenService quotes = new QuoteTokenService(null, Duration.ZERO) {
+            @Override
+            public String issue(String stationId, LocalDateTime start, LocalDateTime end,
+                                int totalCostInCents, long pricingVersion) {
+                return "quote";
+            }
+        };
+        service = new PricingIntervalService(intervalRepository, stationRepository, null, null, null, quotes, null);
+
+        // Far enough in the future to pass the "not in the past" check during the whole run
+        LocalDate firstDay = LocalDate.now().plusYears(1);
+        start = firstDay.atTime(0, 30);
+        end = firstDay.plusDays(days - 1L).atTime(23, 30);
+    }
+
+    @Benchmark
+    public CostCalculationDTO calculateCost() {
+        return service.calculateCost(STATION_ID, start, end);
+    }
+
+    @Benchmark
+    public boolean isTimeCoveredByIntervals() {
+        return service.isTimeCoveredByIntervals(start.toLocalTime(), end.toLocalTime(), intervals);
+    }
+
+    static List<PricingInterval> buildIntervals(Station station, int count) {
+        List<PricingInterval> result = new ArrayList<>(count);
+        int minutes = 24 * 60 / count;
+        for (int i = 0; i < count; i++) {
+            PricingInterval interval = new PricingInterval();
+            interval.setId("interval-" + i);
+            interval.setStation(station);
+            interval.setHourlyPriceInCents(1000 + (i % 7) * 150);
+            interval.setStartHour(LocalTime.MIDNIGHT.plusMinutes((long) i * minutes));
+            interval.setEndHour(i == count - 1 ? LocalTime.of(23, 59) : LocalTime.MIDNIGHT.plusMinutes((long) (i + 1) * minutes));
+            result.add(interval);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,57 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.dto.RatingStatsDTO;
+import art.lapov.vavapi.model.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating statistics over the reviews of a station or an owner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int reviewCount;
+
+    private RatingService service;
+    private List<Review> reviews;
+
+    @Setup
+    public void setUp() {
+        service = new RatingService(null, null, null, null, null);
+
+        SplittableRandom random = new SplittableRandom(42);
+        reviews = new ArrayList<>(reviewCount);
+        for (int i = 0; i < reviewCount; i++) {
+            Review review = new Review();
+            review.setId("review-" + i);
+            review.setRating(1 + random.nextInt(5));
+            reviews.add(review);
+        }
+    }
+
+    @Benchmark
+    public RatingStatsDTO calculateRatingStats() {
+        return service.calculateRatingStats(reviews);
+    }
+}
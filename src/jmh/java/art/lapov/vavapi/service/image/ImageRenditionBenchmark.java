@@ -0,0 +1,108 @@
+package art.lapov.vavapi.service.image;
+
+import org.imgscalr.Scalr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload renditions (1600px + 300px) from camera-sized JPEGs.
+ * {@code fullDecode} reproduces the previous implementation: full decode, then crop and resize the
+ * original twice. Run with {@code -prof gc} to compare allocation per upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class ImageRenditionBenchmark {
+
+    private static final int MAX_SIZE = 1600;
+    private static final int MINI_SIZE = 300;
+
+    /**
+     * Source size, typical phone photos
+     */
+    @Param({"3024x4032", "4000x3000", "6000x4000"})
+    public String dimensions;
+
+    private ImageRenditionEngine engine;
+    private Path source;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = new ImageRenditionEngine();
+        String[] parts = dimensions.split("x");
+        source = Files.createTempFile("rendition-bench-", ".jpg");
+        ImageIO.write(samplePhoto(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])), "jpg", source.toFile());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+    }
+
+    @Benchmark
+    public void renditionEngine(Blackhole blackhole) throws IOException {
+        List<BufferedImage> renditions = engine.renderSquares(source, MAX_SIZE, MINI_SIZE);
+        blackhole.consume(renditions);
+    }
+
+    @Benchmark
+    public void fullDecode(Blackhole blackhole) throws IOException {
+        BufferedImage original = ImageIO.read(source.toFile());
+        blackhole.consume(resizeToSquare(original, MAX_SIZE));
+        blackhole.consume(resizeToSquare(original, MINI_SIZE));
+    }
+
+    private static BufferedImage resizeToSquare(BufferedImage original, int targetSize) {
+        int size = Math.min(original.getWidth(), original.getHeight());
+        BufferedImage cropped = Scalr.crop(original,
+                (original.getWidth() - size) / 2,
+                (original.getHeight() - size) / 2,
+                size, size);
+        return Scalr.resize(cropped, Scalr.Method.QUALITY, targetSize, targetSize);
+    }
+
+    /**
+     * Gradients and noise, so the JPEG is not trivially compressible
+     */
+    private static BufferedImage samplePhoto(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 50 + random.nextInt(600), 50 + random.nextInt(600));
+        }
+        g.dispose();
+        for (int i = 0; i < width * height / 8; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            image.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(0x202020));
+        }
+        return image;
+    }
+}
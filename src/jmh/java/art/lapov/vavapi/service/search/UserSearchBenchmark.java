@@ -0,0 +1,70 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked user search (first page of 20) over synthetic users
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class UserSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ma", "ri", "lo", "du", "pon", "ber", "nard", "cla", "re", "jean",
+            "lu", "cie", "mar", "tin", "ro", "bert", "an", "ne", "so", "phie"};
+
+    @Param({"100000", "1000000"})
+    public int userCount;
+
+    /**
+     * Selective name fragment, common fragment, exact email
+     */
+    @Param({"dupon", "ma", "user123@mail.test"})
+    public String query;
+
+    private UserSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new UserSearchIndex(null);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setId("user-" + i);
+            user.setEmail("user" + i + "@mail.test");
+            user.setFirstName(name(random));
+            user.setLastName(name(random));
+            index.index(user);
+        }
+    }
+
+    @Benchmark
+    public UserSearchIndex.Result search() {
+        return index.search(query, 0, 20);
+    }
+
+    private static String name(SplittableRandom random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+}
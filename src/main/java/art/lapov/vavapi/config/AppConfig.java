@@ -1,11 +1,15 @@
 package art.lapov.vavapi.config;
 
 import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class AppConfig {
 
@@ -14,9 +18,17 @@ public class AppConfig {
         return new Faker();
     }
 
+    /**
+     * Hashes are prefixed with the encoder id ({@code {bcrypt}...}); hashes stored before that are read as bcrypt.
+     * Raising the strength, like switching encoder, rehashes passwords at the next successful login
+     * (see {@code PasswordEncoderBenchmark} to size it).
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${app.security.password.bcrypt-strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
 }
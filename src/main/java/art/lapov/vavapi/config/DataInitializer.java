@@ -31,7 +31,7 @@ import java.util.List;
 import java.util.Random;
 
 @Component
-@Profile("!test")  // Don't run this initializer during tests
+@Profile("!test & !load-data")  // Don't run this initializer during tests or when generating load data
 @AllArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
@@ -91,10 +91,12 @@ public class DataInitializer implements CommandLineRunner {
         admin.setValidated(true);
         users.add(admin);
 
+        // bcrypt is slow by design: all users share the same password, hash it once
+        String userPassword = passwordEncoder.encode("11111111");
         for (int i = 0; i < 10; i++) {
             User user = new User();
             user.setEmail(faker.internet().emailAddress());
-            user.setPassword(passwordEncoder.encode("11111111"));
+            user.setPassword(userPassword);
             user.setRole("ROLE_USER");
             user.setFirstName(faker.name().firstName());
             user.setLastName(faker.name().lastName());
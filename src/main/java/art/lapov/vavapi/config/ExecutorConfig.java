@@ -0,0 +1,64 @@
+package art.lapov.vavapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Bounded pool for PDF receipt rendering (bulk exports).
+     * Rendering is CPU-bound, so the pool stays small and the queue short:
+     * when it is full, new exports are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor receiptRenderExecutor(
+            @Value("${app.receipts.export.threads:4}") int threads,
+            @Value("${app.receipts.export.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("receipt-render-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool generating upload renditions (decode, crop, resize, encode).
+     * Uploads are stored raw first, so a full queue only delays renditions;
+     * once the queue is full, new uploads are rejected.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${app.images.processing.threads:2}") int threads,
+            @Value("${app.images.processing.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-worker-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool verifying login passwords (bcrypt is CPU-bound by design).
+     * A login burst queues here instead of occupying every request thread;
+     * once the queue is full, logins are rejected with 503.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor loginExecutor(
+            @Value("${app.security.login.threads:2}") int threads,
+            @Value("${app.security.login.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,76 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.service.image.ImageFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the best image rendition accepted by the client for a {@code .jpg} URL.
+ * <p>
+ * Public URLs always point to the JPEG; when the {@code Accept} header explicitly lists
+ * a more compact format and its rendition exists, that file is returned instead.
+ */
+public class ImageFormatResourceResolver extends AbstractResourceResolver {
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        for (ImageFormat format : acceptedAlternatives(request, requestPath)) {
+            Resource variant = chain.resolveResource(request, format.variantOf(requestPath), locations);
+            if (variant != null) {
+                return variant;
+            }
+        }
+        return chain.resolveResource(request, requestPath, locations);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    /**
+     * Formats explicitly accepted for a JPEG path, most compact first (JPEG itself excluded)
+     */
+    static List<ImageFormat> acceptedAlternatives(@Nullable HttpServletRequest request, String requestPath) {
+        if (request == null || !requestPath.endsWith("." + ImageFormat.JPEG.getExtension())) {
+            return List.of();
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (!StringUtils.hasText(accept)) {
+            return List.of();
+        }
+
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
+        }
+        // Wildcards are ignored: only formats the client names are served
+        List<ImageFormat> formats = new ArrayList<>();
+        for (ImageFormat format : ImageFormat.values()) {
+            if (format == ImageFormat.JPEG) {
+                continue;
+            }
+            for (MediaType mediaType : accepted) {
+                if (mediaType.getQualityValue() > 0 && mediaType.equalsTypeAndSubtype(format.getMediaType())) {
+                    formats.add(format);
+                    break;
+                }
+            }
+        }
+        return formats;
+    }
+}
@@ -0,0 +1,552 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.utils.UuidUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generates a production-sized dataset (profile {@code load-data}) into an empty database.
+ * <p>
+ * Rows are written with JDBC batches, in chunks processed in parallel. Every chunk draws from its own
+ * random generator seeded from {@code app.load-data.seed} and the chunk index, so the same configuration
+ * always produces the same data, whatever the thread scheduling. Ratings are computed while reviews are
+ * generated instead of being recalculated entity by entity.
+ */
+@Slf4j
+@Component
+@Profile("load-data")
+@RequiredArgsConstructor
+public class LoadDataGenerator implements CommandLineRunner {
+
+    private static final String INSERT_USER = "INSERT INTO app_user (id, role, email, password, first_name, last_name, "
+            + "phone, address, city, country, postal_code, created_at, updated_at, validated, deleted, "
+            + "average_rating, total_reviews) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LOCATION = "INSERT INTO location (id, name, description, address, city, "
+            + "postal_code, country, created_at, updated_at, deleted, latitude, longitude, owner_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STATION = "INSERT INTO station (id, max_power_watt, connector_type, enabled, "
+            + "description, created_at, updated_at, deleted, average_rating, total_reviews, location_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PRICING_INTERVAL = "INSERT INTO pricing_interval (id, hourly_price_in_cents, "
+            + "start_hour, end_hour, station_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PAYMENT = "INSERT INTO payment (id, amount_in_cents, paid_at, transaction_id) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RESERVATION = "INSERT INTO reservation (id, status, start_date, end_date, "
+            + "total_cost_in_cents, created_at, accepted_at, paid_at, client_id, station_id, payment_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REVIEW = "INSERT INTO review (id, rating, comment, created_at, author_id, "
+            + "reservation_id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_OWNER_RATING = "UPDATE app_user SET average_rating = ?, total_reviews = ? "
+            + "WHERE id = ?";
+
+    private static final int USERS_PER_CHUNK = 10_000;
+    private static final int LOCATIONS_PER_CHUNK = 500;
+    private static final long USER_IDS = 0x5553_4552L;
+    private static final long LOCATION_IDS = 0x4c4f_4341L;
+
+    private static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Louis", "Camille", "Hugo",
+            "Léa", "Lucas", "Chloé", "Thomas", "Manon", "Nicolas", "Emma", "Julien", "Inès", "Antoine", "Sarah"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+            "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "Fournier"};
+    private static final String[] STREETS = {"rue de la République", "avenue Jean Jaurès", "boulevard Victor Hugo",
+            "rue Pasteur", "place de la Gare", "rue du Moulin", "avenue des Champs", "rue Nationale"};
+    private static final String[] LOCATION_KINDS = {"Parking", "Résidence", "Garage", "Domaine", "Centre", "Hôtel"};
+    private static final String[] COMMENTS = {"Borne rapide et facile d'accès", "Propriétaire très accueillant",
+            "Parfait pour une recharge de nuit", "Un peu difficile à trouver", "Rien à redire",
+            "Emplacement calme et sécurisé", "Câble un peu court"};
+    private static final long[] POWERS = {3_700, 7_400, 11_000, 22_000, 50_000, 150_000};
+    private static final double[] RATING_CUMULATIVE = {0.04, 0.09, 0.22, 0.52, 1.0};
+
+    /**
+     * City, latitude, longitude, postal code prefix and weight (share of locations)
+     */
+    private static final City[] CITIES = {
+            new City("Paris", 48.8566, 2.3522, 75, 30),
+            new City("Lyon", 45.7640, 4.8357, 69, 10),
+            new City("Marseille", 43.2965, 5.3698, 13, 9),
+            new City("Toulouse", 43.6047, 1.4442, 31, 7),
+            new City("Nice", 43.7102, 7.2620, 6, 5),
+            new City("Nantes", 47.2184, -1.5536, 44, 6),
+            new City("Strasbourg", 48.5734, 7.7521, 67, 5),
+            new City("Montpellier", 43.6108, 3.8767, 34, 5),
+            new City("Bordeaux", 44.8378, -0.5792, 33, 7),
+            new City("Lille", 50.6292, 3.0573, 59, 6),
+            new City("Rennes", 48.1173, -1.6778, 35, 5),
+            new City("Grenoble", 45.1885, 5.7245, 38, 5)
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.load-data.seed:42}")
+    private long seed;
+
+    @Value("${app.load-data.users:1000000}")
+    private int userCount;
+
+    @Value("${app.load-data.owner-ratio:0.05}")
+    private double ownerRatio;
+
+    @Value("${app.load-data.locations:100000}")
+    private int locationCount;
+
+    @Value("${app.load-data.max-stations-per-location:6}")
+    private int maxStationsPerLocation;
+
+    @Value("${app.load-data.reservations-per-station:20}")
+    private int reservationsPerStation;
+
+    @Value("${app.load-data.review-ratio:0.4}")
+    private double reviewRatio;
+
+    @Value("${app.load-data.history-days:365}")
+    private int historyDays;
+
+    @Value("${app.load-data.future-days:60}")
+    private int futureDays;
+
+    @Value("${app.load-data.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.load-data.threads:8}")
+    private int threads;
+
+    private final AtomicLong insertedRows = new AtomicLong();
+    private LocalDateTime reference;
+    private String userPasswordHash;
+    private int ownerCount;
+    private AtomicLongArray ownerRatings;
+    private double cityWeightTotal;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Long existingUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_user", Long.class);
+        if (existingUsers != null && existingUsers > 0) {
+            log.warn("Load data | Database already contains {} users, nothing generated", existingUsers);
+            return;
+        }
+
+        long started = System.nanoTime();
+        reference = LocalDate.now().atStartOfDay();
+        // Hashing is deliberately slow: hash once, share it between all generated users
+        userPasswordHash = passwordEncoder.encode("11111111");
+        ownerCount = Math.max(1, (int) (userCount * ownerRatio));
+        // [sum, count] per owner, accumulated by all location chunks
+        ownerRatings = new AtomicLongArray(ownerCount * 2);
+        for (City city : CITIES) {
+            cityWeightTotal += city.weight();
+        }
+
+        log.info("Load data | Generating {} users, {} locations with seed {} on {} threads",
+                userCount, locationCount, seed, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            runChunks(pool, 1, userCount, USERS_PER_CHUNK, this::generateUsers);
+            log.info("Load data | Users done, {} rows", insertedRows.get());
+
+            runChunks(pool, 2, locationCount, LOCATIONS_PER_CHUNK, this::generateLocations);
+            log.info("Load data | Locations, stations, reservations and reviews done, {} rows", insertedRows.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        updateOwnerRatings();
+
+        log.info("Load data | Completed in {} s, {} rows written",
+                (System.nanoTime() - started) / 1_000_000_000, insertedRows.get());
+    }
+
+    // ================ CHUNKS ================
+
+    @FunctionalInterface
+    private interface ChunkGenerator {
+        void generate(SplittableRandom random, int from, int to);
+    }
+
+    private void runChunks(ExecutorService pool, int phase, int total, int chunkSize, ChunkGenerator generator)
+            throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0, chunk = 0; from < total; from += chunkSize, chunk++) {
+            int start = from;
+            int end = Math.min(total, from + chunkSize);
+            SplittableRandom random = new SplittableRandom(mix(seed, phase, chunk));
+            futures.add(pool.submit(() ->
+                    transaction.executeWithoutResult(status -> generator.generate(random, start, end))));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Load data generation failed", e.getCause());
+            }
+        }
+    }
+
+    private void generateUsers(SplittableRandom random, int from, int to) {
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            boolean admin = i == 0;
+            City city = pickCity(random);
+            Timestamp createdAt = timestamp(userCreatedAt(i));
+            rows.add(new Object[]{
+                    userId(i),
+                    admin ? "ROLE_ADMIN" : "ROLE_USER",
+                    admin ? "admin@admin.com" : "user" + i + "@load.vavapi.test",
+                    admin ? passwordEncoder.encode("12345678") : userPasswordHash,
+                    pick(random, FIRST_NAMES),
+                    pick(random, LAST_NAMES),
+                    String.format("0%d%08d", 6 + random.nextInt(2), random.nextInt(100_000_000)),
+                    (1 + random.nextInt(120)) + " " + pick(random, STREETS),
+                    city.name(),
+                    "France",
+                    postalCode(random, city),
+                    createdAt,
+                    createdAt,
+                    true,
+                    false,
+                    0.0,
+                    0
+            });
+        }
+        insert(INSERT_USER, rows);
+    }
+
+    private void generateLocations(SplittableRandom random, int from, int to) {
+        ChunkRows rows = new ChunkRows();
+        for (int i = from; i < to; i++) {
+            // Skewed ownership: a few owners have many locations, most have one
+            int owner = (int) (ownerCount * Math.pow(random.nextDouble(), 2));
+            City city = pickCity(random);
+            byte[] locationId = locationId(i);
+            Timestamp createdAt = timestamp(locationCreatedAt(i));
+            rows.locations.add(new Object[]{
+                    locationId,
+                    pick(random, LOCATION_KINDS) + " " + pick(random, LAST_NAMES),
+                    "Bornes de recharge " + city.name(),
+                    (1 + random.nextInt(120)) + " " + pick(random, STREETS),
+                    city.name(),
+                    postalCode(random, city),
+                    "France",
+                    createdAt,
+                    createdAt,
+                    false,
+                    round(city.latitude() + random.nextGaussian() * 0.08, 6),
+                    round(city.longitude() + random.nextGaussian() * 0.12, 6),
+                    userId(owner)
+            });
+
+            int stations = 1;
+            while (stations < maxStationsPerLocation && random.nextDouble() < 0.45) {
+                stations++;
+            }
+            for (int s = 0; s < stations; s++) {
+                generateStation(random, rows, locationId, owner, createdAt);
+            }
+        }
+
+        insert(INSERT_LOCATION, rows.locations);
+        insert(INSERT_STATION, rows.stations);
+        insert(INSERT_PRICING_INTERVAL, rows.pricingIntervals);
+        insert(INSERT_PAYMENT, rows.payments);
+        insert(INSERT_RESERVATION, rows.reservations);
+        insert(INSERT_REVIEW, rows.reviews);
+    }
+
+    private void generateStation(SplittableRandom random, ChunkRows rows, byte[] locationId, int owner,
+                                 Timestamp createdAt) {
+        byte[] stationId = uuid(random, createdAt.getTime());
+        int basePrice = 200 + random.nextInt(41) * 10;
+        boolean peakPricing = random.nextDouble() < 0.6;
+        int offPeakPrice = (int) Math.round(basePrice * 0.7);
+
+        if (peakPricing) {
+            rows.pricingIntervals.add(interval(random, offPeakPrice, LocalTime.MIDNIGHT, LocalTime.of(7, 0),
+                    stationId, createdAt));
+            rows.pricingIntervals.add(interval(random, basePrice, LocalTime.of(7, 0), LocalTime.of(22, 0),
+                    stationId, createdAt));
+            rows.pricingIntervals.add(interval(random, offPeakPrice, LocalTime.of(22, 0), LocalTime.of(23, 59),
+                    stationId, createdAt));
+        } else {
+            rows.pricingIntervals.add(interval(random, basePrice, LocalTime.MIDNIGHT, LocalTime.of(23, 59),
+                    stationId, createdAt));
+        }
+
+        // Log-normal popularity with mean 1: most stations are quiet, a few are very busy
+        double popularity = Math.exp(random.nextGaussian() * 0.8 - 0.32);
+        int reservationCount = (int) Math.round(reservationsPerStation * popularity);
+
+        long ratingSum = 0;
+        int ratingCount = 0;
+        LocalDateTime windowStart = reference.minusDays(historyDays);
+        LocalDateTime windowEnd = reference.plusDays(futureDays);
+        double meanGapHours = ChronoUnit.HOURS.between(windowStart, windowEnd) / (double) Math.max(1, reservationCount);
+        LocalDateTime cursor = windowStart.plusHours(exponential(random, meanGapHours));
+
+        for (int r = 0; r < reservationCount && cursor.isBefore(windowEnd); r++) {
+            LocalDateTime start = cursor.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime end = start.plusHours(1 + random.nextInt(4));
+            int cost = cost(start, end, basePrice, offPeakPrice, peakPricing);
+            int rating = generateReservation(random, rows, stationId, start, end, cost);
+            if (rating > 0) {
+                ratingSum += rating;
+                ratingCount++;
+            }
+            cursor = end.plusHours(exponential(random, meanGapHours));
+        }
+
+        if (ratingCount > 0) {
+            ownerRatings.addAndGet(owner * 2, ratingSum);
+            ownerRatings.addAndGet(owner * 2 + 1, ratingCount);
+        }
+
+        rows.stations.add(new Object[]{
+                stationId,
+                POWERS[random.nextInt(POWERS.length)],
+                ConnectorType.values()[random.nextInt(ConnectorType.values().length)].name(),
+                random.nextDouble() < 0.95,
+                "Borne " + (peakPricing ? "heures creuses / pleines" : "tarif unique"),
+                createdAt,
+                createdAt,
+                false,
+                average(ratingSum, ratingCount),
+                ratingCount,
+                locationId
+        });
+    }
+
+    /**
+     * Add a reservation with its payment and review
+     *
+     * @return the review rating, 0 when the reservation has no review
+     */
+    private int generateReservation(SplittableRandom random, ChunkRows rows, byte[] stationId,
+                                    LocalDateTime start, LocalDateTime end, int cost) {
+        ReservationStatus status;
+        if (!end.isAfter(reference)) {
+            double r = random.nextDouble();
+            status = r < 0.85 ? ReservationStatus.COMPLETED : r < 0.93 ? ReservationStatus.CANCELLED : ReservationStatus.REJECTED;
+        } else if (!start.isAfter(reference)) {
+            status = ReservationStatus.PAID;
+        } else {
+            double r = random.nextDouble();
+            status = r < 0.4 ? ReservationStatus.CREATED : r < 0.7 ? ReservationStatus.ACCEPTED : ReservationStatus.PAID;
+        }
+
+        LocalDateTime createdAt = min(start.minusHours(1 + random.nextInt(14 * 24)), reference.minusHours(1));
+        LocalDateTime acceptedAt = null;
+        LocalDateTime paidAt = null;
+        if (status == ReservationStatus.ACCEPTED || status == ReservationStatus.PAID || status == ReservationStatus.COMPLETED) {
+            acceptedAt = min(createdAt.plusHours(1 + random.nextInt(24)), start);
+        }
+        if (status == ReservationStatus.PAID || status == ReservationStatus.COMPLETED) {
+            paidAt = min(acceptedAt.plusHours(random.nextInt(12)), start);
+        }
+
+        byte[] paymentId = null;
+        if (paidAt != null) {
+            paymentId = uuid(random, timestamp(paidAt).getTime());
+            rows.payments.add(new Object[]{paymentId, cost, timestamp(paidAt), "TX-" + Long.toHexString(random.nextLong())});
+        }
+
+        byte[] reservationId = uuid(random, timestamp(createdAt).getTime());
+        byte[] clientId = userId(random.nextInt(userCount));
+        rows.reservations.add(new Object[]{
+                reservationId,
+                status.name(),
+                timestamp(start),
+                timestamp(end),
+                cost,
+                timestamp(createdAt),
+                timestamp(acceptedAt),
+                timestamp(paidAt),
+                clientId,
+                stationId,
+                paymentId
+        });
+
+        if (status != ReservationStatus.COMPLETED || random.nextDouble() >= reviewRatio) {
+            return 0;
+        }
+        int rating = rating(random);
+        Timestamp reviewedAt = timestamp(min(end.plusHours(1 + random.nextInt(72)), reference));
+        rows.reviews.add(new Object[]{
+                uuid(random, reviewedAt.getTime()),
+                rating,
+                pick(random, COMMENTS),
+                reviewedAt,
+                clientId,
+                reservationId
+        });
+        return rating;
+    }
+
+    private void updateOwnerRatings() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int owner = 0; owner < ownerCount; owner++) {
+            long count = ownerRatings.get(owner * 2 + 1);
+            if (count > 0) {
+                rows.add(new Object[]{average(ownerRatings.get(owner * 2), count), count, userId(owner)});
+            }
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> insert(UPDATE_OWNER_RATING, rows));
+        log.info("Load data | Ratings set for {} owners", rows.size());
+    }
+
+    // ================ HELPERS ================
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+        insertedRows.addAndGet(rows.size());
+    }
+
+    private Object[] interval(SplittableRandom random, int price, LocalTime start, LocalTime end, byte[] stationId,
+                              Timestamp createdAt) {
+        return new Object[]{uuid(random, createdAt.getTime()), price, Time.valueOf(start), Time.valueOf(end),
+                stationId};
+    }
+
+    private static int cost(LocalDateTime start, LocalDateTime end, int basePrice, int offPeakPrice, boolean peakPricing) {
+        int cost = 0;
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            boolean offPeak = hour.getHour() < 7 || hour.getHour() >= 22;
+            cost += peakPricing && offPeak ? offPeakPrice : basePrice;
+        }
+        return cost;
+    }
+
+    private static int rating(SplittableRandom random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < RATING_CUMULATIVE.length; i++) {
+            if (r < RATING_CUMULATIVE[i]) {
+                return i + 1;
+            }
+        }
+        return 5;
+    }
+
+    private City pickCity(SplittableRandom random) {
+        double r = random.nextDouble() * cityWeightTotal;
+        for (City city : CITIES) {
+            r -= city.weight();
+            if (r < 0) {
+                return city;
+            }
+        }
+        return CITIES[CITIES.length - 1];
+    }
+
+    private static int postalCode(SplittableRandom random, City city) {
+        int code = city.department() * 1000 + random.nextInt(1000);
+        return Math.max(10000, code);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long exponential(SplittableRandom random, double mean) {
+        return (long) (-Math.log(1 - random.nextDouble()) * mean);
+    }
+
+    private static double average(long sum, long count) {
+        return count == 0 ? 0.0 : Math.round(sum * 100.0 / count) / 100.0;
+    }
+
+    private static double round(double value, int decimals) {
+        double factor = Math.pow(10, decimals);
+        return Math.round(value * factor) / factor;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    /**
+     * Users and locations are referenced from other chunks: their id is derived from their index,
+     * and so is their creation date, the timestamp of the id
+     */
+    private byte[] userId(int index) {
+        return uuid(timestamp(userCreatedAt(index)).getTime(),
+                mix(seed, USER_IDS, ~index), mix(seed, USER_IDS, index));
+    }
+
+    private byte[] locationId(int index) {
+        return uuid(timestamp(locationCreatedAt(index)).getTime(),
+                mix(seed, LOCATION_IDS, ~index), mix(seed, LOCATION_IDS, index));
+    }
+
+    private LocalDateTime userCreatedAt(int index) {
+        // Spread over the three years before the history, in index order
+        return reference.minusDays(historyDays).minusMinutes(3 * 365 * 24 * 60L * (userCount - index) / userCount);
+    }
+
+    private LocalDateTime locationCreatedAt(int index) {
+        // Spread over the year before the history, in index order
+        return reference.minusDays(historyDays).minusMinutes(365 * 24 * 60L * (locationCount - index) / locationCount);
+    }
+
+    private static byte[] uuid(SplittableRandom random, long createdAtMillis) {
+        return uuid(createdAtMillis, random.nextLong(), random.nextLong());
+    }
+
+    private static byte[] uuid(long createdAtMillis, long sequence, long random) {
+        // Time-ordered binary ids like the ones generated by Hibernate, stamped with the creation date of the row
+        return UuidUtil.toBytes(UuidUtil.timeOrdered(createdAtMillis, sequence, random));
+    }
+
+    private static long mix(long seed, long stream, long index) {
+        // SplitMix64 finalizer
+        long z = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record City(String name, double latitude, double longitude, int department, int weight) {
+    }
+
+    private static class ChunkRows {
+        private final List<Object[]> locations = new ArrayList<>();
+        private final List<Object[]> stations = new ArrayList<>();
+        private final List<Object[]> pricingIntervals = new ArrayList<>();
+        private final List<Object[]> payments = new ArrayList<>();
+        private final List<Object[]> reservations = new ArrayList<>();
+        private final List<Object[]> reviews = new ArrayList<>();
+    }
+}
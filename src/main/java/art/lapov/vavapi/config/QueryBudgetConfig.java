@@ -0,0 +1,51 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.metrics.QueryBudgetFilter;
+import art.lapov.vavapi.metrics.QueryBudgetInterceptor;
+import art.lapov.vavapi.metrics.QueryBudgetMode;
+import art.lapov.vavapi.metrics.QueryBudgetStatementInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Enforces the {@link art.lapov.vavapi.metrics.QueryBudget} of controller methods:
+ * the filter opens a per-request counter, the interceptor applies the handler's budget
+ * and the Hibernate statement inspector counts statements.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.sql.query-budget.mode:warn}'.equalsIgnoreCase('off')")
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetMode mode;
+
+    public QueryBudgetConfig(@Value("${app.sql.query-budget.mode:warn}") QueryBudgetMode mode) {
+        this.mode = mode;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryBudgetStatementInspector(mode));
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(mode, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor());
+    }
+}
@@ -0,0 +1,96 @@
+package art.lapov.vavapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Measures the replication lag of the replica with a heartbeat row: each node stamps it on the primary,
+ * then reads it back from the replica. Reads go to the replica only while the lag is within the maximum.
+ * <p>
+ * Owns the {@link ReplicaRoutingDataSource}, whose pools are closed with it.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String BEAT = "UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String FIRST_BEAT = "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)";
+    private static final String LAST_BEAT = "SELECT beat_at FROM replica_heartbeat WHERE id = 1";
+
+    private final ReplicaRoutingDataSource routing;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    // Unknown until the first heartbeat is read back
+    private volatile Duration lag;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routing, Duration maxLag, MeterRegistry meterRegistry) {
+        this.routing = routing;
+        this.primary = new JdbcTemplate(routing.getPrimary());
+        this.replica = new JdbcTemplate(routing.getReplica());
+        this.maxLag = maxLag;
+        Gauge.builder("vavapi.datasource.replica.lag", this, monitor -> monitor.lag == null ? Double.NaN : monitor.lag.toMillis())
+                .baseUnit("milliseconds")
+                .description("Replication lag measured by the last heartbeat")
+                .register(meterRegistry);
+        Gauge.builder("vavapi.datasource.replica.in-use", routing, ds -> ds.isReplicaUsable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    public ReplicaRoutingDataSource getRouting() {
+        return routing;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-interval:1s}")
+    public void check() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Timestamp beat = Timestamp.valueOf(now);
+            if (primary.update(BEAT, beat) == 0) {
+                try {
+                    primary.update(FIRST_BEAT, beat);
+                } catch (DuplicateKeyException e) {
+                    // Inserted by another node meanwhile
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+
+        Duration measured;
+        try {
+            List<Timestamp> lastBeat = replica.queryForList(LAST_BEAT, Timestamp.class);
+            measured = lastBeat.isEmpty() ? null : Duration.between(lastBeat.get(0).toLocalDateTime(), now);
+        } catch (DataAccessException e) {
+            log.debug("Could not read the replica heartbeat: {}", e.getMessage());
+            measured = null;
+        }
+        lag = measured;
+
+        boolean usable = measured != null && measured.compareTo(maxLag) <= 0;
+        if (usable != routing.isReplicaUsable()) {
+            if (usable) {
+                log.info("Replica within {} ms of the primary, read-only transactions routed to it", measured.toMillis());
+            } else {
+                log.warn("Replica {}, read-only transactions routed to the primary",
+                        measured == null ? "unreachable" : measured.toMillis() + " ms behind");
+            }
+            routing.setReplicaUsable(usable);
+        }
+    }
+
+    public void close() throws IOException {
+        routing.close();
+    }
+}
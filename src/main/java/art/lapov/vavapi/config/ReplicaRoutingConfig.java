@@ -0,0 +1,73 @@
+package art.lapov.vavapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica routing, enabled by {@code app.datasource.replica.url} (see {@link ReplicaRoutingDataSource}).
+ * <p>
+ * Replaces the auto-configured pool: the primary pool is configured by {@code spring.datasource.*},
+ * the replica pool by {@code app.datasource.replica.*}, with the credentials of the primary by default.
+ * The pools are not beans of their own, so the datasource wrappers apply once, around the routing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.datasource.replica.url}") String replicaUrl,
+                                               @Value("${app.datasource.replica.username:}") String replicaUsername,
+                                               @Value("${app.datasource.replica.password:}") String replicaPassword,
+                                               @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder(),
+                binder, "spring.datasource.hikari", "primary");
+        HikariDataSource replica = pool(DataSourceBuilder.create()
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(replicaUrl)
+                        .username(replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername)
+                        .password(replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword),
+                binder, "app.datasource.replica.hikari", "replica");
+        return new ReplicaLagMonitor(new ReplicaRoutingDataSource(primary, replica), maxLag, meterRegistry);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(replicaLagMonitor.getRouting());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReplicaStickinessFilter> replicaStickinessFilterRegistration(
+            @Value("${app.datasource.replica.sticky-window:10s}") Duration stickyWindow,
+            @Value("${app.secure-cookies}") boolean secureCookies) {
+        FilterRegistrationBean<ReplicaStickinessFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaStickinessFilter(stickyWindow, secureCookies));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    private static HikariDataSource pool(DataSourceBuilder<?> builder, Binder binder, String prefix, String name) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        binder.bind(prefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
@@ -0,0 +1,119 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.service.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends the statements of read-only transactions to the replica, everything else to the primary.
+ * <p>
+ * Used behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the connection of
+ * a transaction is then taken at its first statement, once its read-only flag is set. Read-only transactions
+ * still go to the primary while the replica lags behind ({@link ReplicaLagMonitor}), when a replica connection
+ * cannot be opened, and for a client that has just written ({@link ReplicaStickinessFilter}).
+ * Statements outside a transaction stay on the primary: the background jobs write through JdbcTemplate without one.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    // Not before the first heartbeat got through
+    private volatile boolean replicaUsable;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    DataSource getPrimary() {
+        return primary;
+    }
+
+    DataSource getReplica() {
+        return replica;
+    }
+
+    boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    void setReplicaUsable(boolean replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // The client reads its own writes from the primary, once they are committed
+            AfterCommit.run(ReplicaStickinessFilter::written);
+            return Target.PRIMARY;
+        }
+        return replicaUsable && !ReplicaStickinessFilter.isPinned() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == replica) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaFailed(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == replica) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                replicaFailed(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Close the pools on shutdown
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource pool : new DataSource[]{replica, primary}) {
+            if (pool instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void replicaFailed(SQLException e) {
+        // Back on the replica once a heartbeat reads it again
+        if (replicaUsable) {
+            log.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+        }
+        replicaUsable = false;
+    }
+}
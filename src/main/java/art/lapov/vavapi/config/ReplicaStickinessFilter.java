@@ -0,0 +1,107 @@
+package art.lapov.vavapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.tomcat.util.http.SameSiteCookies;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes for {@link ReplicaRoutingDataSource}: once a request commits a write, the reads of the same
+ * client go to the primary for the sticky window, in this request and the next ones.
+ * The deadline travels in a cookie, so it holds whichever node serves the next request.
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "primary-until";
+
+    private static final ThreadLocal<Stickiness> CURRENT = new ThreadLocal<>();
+
+    private final Duration window;
+    private final boolean secureCookies;
+
+    public ReplicaStickinessFilter(Duration window, boolean secureCookies) {
+        this.window = window;
+        this.secureCookies = secureCookies;
+    }
+
+    /**
+     * Whether the client of the current request reads from the primary
+     */
+    static boolean isPinned() {
+        Stickiness stickiness = CURRENT.get();
+        return stickiness != null && stickiness.pinnedUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * The current request committed a write
+     */
+    static void written() {
+        Stickiness stickiness = CURRENT.get();
+        if (stickiness != null) {
+            stickiness.written();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CURRENT.set(new Stickiness(response, pinnedUntil(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private final class Stickiness {
+        private final HttpServletResponse response;
+        private long pinnedUntil;
+        private boolean cookieSent;
+
+        private Stickiness(HttpServletResponse response, long pinnedUntil) {
+            this.response = response;
+            this.pinnedUntil = pinnedUntil;
+        }
+
+        void written() {
+            pinnedUntil = System.currentTimeMillis() + window.toMillis();
+            // Writes commit before the body is rendered; a response already sent keeps this request pinned only
+            if (cookieSent || response.isCommitted()) {
+                return;
+            }
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(pinnedUntil))
+                    .httpOnly(true)
+                    .path("/")
+                    .maxAge(window)
+                    .secure(secureCookies)
+                    .sameSite((secureCookies ? SameSiteCookies.NONE : SameSiteCookies.LAX).toString())
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            cookieSent = true;
+        }
+    }
+}
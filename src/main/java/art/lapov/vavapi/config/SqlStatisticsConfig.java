@@ -0,0 +1,79 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.metrics.SqlRequestStatisticsFilter;
+import art.lapov.vavapi.metrics.SqlStatementStatistics;
+import art.lapov.vavapi.metrics.SqlStatisticsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Per-statement SQL statistics through a datasource-proxy around the connection pool
+ * (see {@link SqlStatementStatistics}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.statistics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfig {
+
+    @Bean
+    public SqlStatementStatistics sqlStatementStatistics(
+            @Value("${app.sql.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+            @Value("${app.sql.statistics.max-statements:500}") int maxStatements,
+            MeterRegistry meterRegistry) {
+        return new SqlStatementStatistics(slowQueryThreshold, maxStatements, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor(
+            ObjectProvider<SqlStatementStatistics> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(statistics.getObject())
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public SqlRequestStatisticsFilter sqlRequestStatisticsFilter(
+            @Value("${app.sql.n-plus-one-threshold:10}") int nPlusOneThreshold,
+            MeterRegistry meterRegistry) {
+        return new SqlRequestStatisticsFilter(nPlusOneThreshold, meterRegistry);
+    }
+
+    /**
+     * Registered ahead of the security chain, so the statements of the JWT filter are counted too
+     */
+    @Bean
+    public FilterRegistrationBean<SqlRequestStatisticsFilter> sqlRequestStatisticsFilterRegistration(
+            SqlRequestStatisticsFilter filter) {
+        FilterRegistrationBean<SqlRequestStatisticsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatementStatistics statistics,
+                                                       SqlRequestStatisticsFilter requestFilter,
+                                                       EntityManagerFactory entityManagerFactory) {
+        return new SqlStatisticsEndpoint(statistics, requestFilter, entityManagerFactory);
+    }
+}
@@ -1,9 +1,21 @@
 package art.lapov.vavapi.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.time.Duration;
 
 @Configuration
 public class StaticResourceConfig implements WebMvcConfigurer {
@@ -11,10 +23,55 @@ public class StaticResourceConfig implements WebMvcConfigurer {
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.upload.cache-max-age:365d}")
+    private Duration uploadCacheMaxAge;
+
+    @Value("${app.upload.resolve-cache-size:10000}")
+    private long uploadResolveCacheSize;
+
+    /**
+     * Also a bean so the {@link art.lapov.vavapi.service.FileService} tells it about deleted images
+     */
+    @Bean
+    public UploadCachingResourceResolver uploadCachingResourceResolver() {
+        return new UploadCachingResourceResolver(uploadResolveCacheSize);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Upload file names contain a random UUID and are never rewritten: they can be cached forever,
+        // the ETag still follows the file so a rewrite is revalidated
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir + "/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                .setCacheControl(CacheControl.maxAge(uploadCacheMaxAge).cachePublic().immutable())
+                .setUseLastModified(true)
+                .setEtagGenerator(StaticResourceConfig::etag)
+                .resourceChain(false)
+                .addResolver(uploadCachingResourceResolver())
+                .addResolver(new ImageFormatResourceResolver())
+                .addResolver(new PathResourceResolver());
     }
-}
 
+    /**
+     * Changes when the file is rewritten, even under the same name
+     */
+    private static String etag(Resource resource) {
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The same URL returns JPEG or WebP depending on Accept, caches must key on it
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/uploads/**");
+    }
+}
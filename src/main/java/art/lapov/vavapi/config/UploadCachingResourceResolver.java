@@ -0,0 +1,53 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.service.image.ImageDeletionListener;
+import art.lapov.vavapi.service.image.ImageFormat;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+
+import java.util.List;
+
+/**
+ * Caches resolved uploads, keyed by path and by the image formats the client accepts,
+ * at most {@code maximumSize} of them.
+ * <p>
+ * Cache hits do not touch the disk: the entries of a path are dropped when the
+ * {@link art.lapov.vavapi.service.FileService} deletes the file, so a replaced image is resolved again.
+ */
+public class UploadCachingResourceResolver extends CachingResourceResolver implements ImageDeletionListener {
+
+    private final Cache<Object, Object> entries;
+
+    public UploadCachingResourceResolver(long maximumSize) {
+        this(Caffeine.newBuilder().maximumSize(maximumSize).build());
+    }
+
+    private UploadCachingResourceResolver(Cache<Object, Object> entries) {
+        super(new CaffeineCache("uploads", entries));
+        this.entries = entries;
+    }
+
+    @Override
+    public void deleted(FileType fileType, String fileName) {
+        // A rendition is also served under the name of its JPEG, when negotiated
+        evict(fileType.getFolderName() + "/" + fileName);
+        evict(fileType.getFolderName() + "/" + ImageFormat.JPEG.variantOf(fileName));
+    }
+
+    private void evict(String requestPath) {
+        String key = RESOLVED_RESOURCE_CACHE_KEY_PREFIX + requestPath;
+        entries.asMap().keySet().removeIf(k -> k.equals(key) || k.toString().startsWith(key + "+"));
+    }
+
+    @Override
+    protected String computeKey(@Nullable HttpServletRequest request, String requestPath) {
+        List<ImageFormat> formats = ImageFormatResourceResolver.acceptedAlternatives(request, requestPath);
+        String key = RESOLVED_RESOURCE_CACHE_KEY_PREFIX + requestPath;
+        return formats.isEmpty() ? key : key + "+formats=" + formats;
+    }
+}
@@ -2,10 +2,12 @@ package art.lapov.vavapi.controller;
 
 import art.lapov.vavapi.enums.FileType;
 import art.lapov.vavapi.model.User;
-import art.lapov.vavapi.service.AccountService;
 import art.lapov.vavapi.service.FileService;
 import art.lapov.vavapi.service.LocationService;
 import art.lapov.vavapi.service.StationService;
+import art.lapov.vavapi.service.image.ImageJob;
+import art.lapov.vavapi.service.image.ImageProcessingService;
+import art.lapov.vavapi.service.image.PendingImage;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,6 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -25,26 +28,25 @@ public class FileController {
 
     private FileService fileService;
 
-    private AccountService accountService;
-
     private LocationService locationService;
 
     private StationService stationService;
 
+    private ImageProcessingService imageProcessingService;
+
     @PostMapping(value = "/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, String>> uploadAvatar(@RequestParam("file") MultipartFile file,
                                           @AuthenticationPrincipal User user) {
         try {
-            String fileName = fileService.saveImage(file, FileType.AVATAR, user.getId());
+            PendingImage pending = fileService.storePendingUpload(file, FileType.AVATAR, user.getId(), user.getId());
 
-            accountService.updateAvatar(user.getId(), fileName);
+            ImageJob job = imageProcessingService.submit(pending);
 
-            return ResponseEntity.ok(Map.of(
-                    "message", "Photo téléchargée avec succès",
-                    "fileName", fileName
-            ));
+            return ResponseEntity.accepted().body(jobStatus(job));
         } catch (IOException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Erreur de téléchargement de fichier"));
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -60,15 +62,14 @@ public class FileController {
                 return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
             }
 
-            String fileName = fileService.saveImage(file, FileType.LOCATION, locationId);
-            locationService.updatePhoto(locationId, fileName);
+            PendingImage pending = fileService.storePendingUpload(file, FileType.LOCATION, locationId, user.getId());
+            ImageJob job = imageProcessingService.submit(pending);
 
-            return ResponseEntity.ok(Map.of(
-                    "message", "Photo téléchargée avec succès",
-                    "fileName", fileName
-            ));
+            return ResponseEntity.accepted().body(jobStatus(job));
         } catch (IOException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Erreur de téléchargement de fichier"));
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -84,13 +85,10 @@ public class FileController {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN);
             }
 
-            String fileName = fileService.saveImage(file, FileType.STATION, stationId);
-            stationService.updatePhoto(stationId, fileName);
+            PendingImage pending = fileService.storePendingUpload(file, FileType.STATION, stationId, user.getId());
+            ImageJob job = imageProcessingService.submit(pending);
 
-            return ResponseEntity.ok(Map.of(
-                    "message", "Photo téléchargée avec succès",
-                    "fileName", fileName
-            ));
+            return ResponseEntity.accepted().body(jobStatus(job));
         } catch (IOException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Erreur de téléchargement de fichier"));
         } catch (ResponseStatusException e) {
@@ -100,6 +98,31 @@ public class FileController {
         }
     }
 
+    /**
+     * Get the processing status of an uploaded photo
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, String>> getJobStatus(@PathVariable String jobId,
+                                                            @AuthenticationPrincipal User user) {
+        return imageProcessingService.findJob(jobId, user.getId())
+                .map(job -> ResponseEntity.ok(jobStatus(job)))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload job not found"));
+    }
+
+    private Map<String, String> jobStatus(ImageJob job) {
+        Map<String, String> body = new HashMap<>();
+        body.put("jobId", job.getId());
+        body.put("fileName", job.getFileName());
+        body.put("status", job.getStatus().name());
+        if (job.getStatus() == ImageJob.Status.PENDING) {
+            body.put("message", "Photo téléchargée, traitement en cours");
+        }
+        if (job.getError() != null) {
+            body.put("error", job.getError());
+        }
+        return body;
+    }
+
     // TODO Delete photos
 //    @DeleteMapping("/avatar")
 //    public ResponseEntity<?> deleteAvatar(@AuthenticationPrincipal User user) {
@@ -3,6 +3,7 @@ package art.lapov.vavapi.controller;
 import art.lapov.vavapi.dto.LocationCreateDTO;
 import art.lapov.vavapi.dto.LocationDTO;
 import art.lapov.vavapi.dto.LocationUpdateDTO;
+import art.lapov.vavapi.metrics.QueryBudget;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.service.LocationService;
 import jakarta.validation.Valid;
@@ -33,6 +34,7 @@ public class LocationController {
     private final LocationService locationService;
 
     @GetMapping("")
+    @QueryBudget(3)
     public Page<LocationDTO> showAll(@RequestParam(defaultValue = "1") Integer page,
                                      @RequestParam(defaultValue = "20") Integer size) {
         if (size > 45) {
@@ -78,6 +80,7 @@ public class LocationController {
     }
 
     @GetMapping("/search")
+    @QueryBudget(4)
     public List<LocationDTO> findNearby(@RequestParam double latitude,
                                         @RequestParam double longitude,
                                         @RequestParam(defaultValue = "10.0") double radius) {
@@ -85,6 +88,7 @@ public class LocationController {
     }
 
     @GetMapping("/my")
+    @QueryBudget(3)
     public List<LocationDTO> getMyLocations(@AuthenticationPrincipal User user) {
         return locationService.findByUserId(user.getId());
     }
@@ -4,6 +4,7 @@ import art.lapov.vavapi.dto.AvailabilityResponseDTO;
 import art.lapov.vavapi.dto.PaymentDetailsDTO;
 import art.lapov.vavapi.dto.ReservationCreateDTO;
 import art.lapov.vavapi.dto.ReservationDTO;
+import art.lapov.vavapi.metrics.QueryBudget;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.service.ReservationService;
 import art.lapov.vavapi.service.receipt.ReceiptFacade;
@@ -22,10 +23,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -43,6 +46,7 @@ public class ReservationController {
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @QueryBudget(2)
     public ReservationDTO createReservation(
             @RequestBody @Valid ReservationCreateDTO dto,
             @AuthenticationPrincipal User client) {
@@ -68,6 +72,7 @@ public class ReservationController {
      * Returns paginated list of all reservations for authenticated user
      */
     @GetMapping("/my")
+    @QueryBudget(3)
     public Page<ReservationDTO> getMyReservations(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "1") Integer page,
@@ -96,6 +101,7 @@ public class ReservationController {
      * Owner can see all reservations for their station
      */
     @GetMapping("/station/{stationId}")
+    @QueryBudget(4)
     public Page<ReservationDTO> getStationReservations(
             @PathVariable String stationId,
             @AuthenticationPrincipal User owner,
@@ -113,6 +119,7 @@ public class ReservationController {
      * Accept a reservation (station owner only)
      */
     @PutMapping("/{id}/accept")
+    @QueryBudget(4)
     public ReservationDTO acceptReservation(
             @PathVariable String id,
             @AuthenticationPrincipal User owner) {
@@ -123,6 +130,7 @@ public class ReservationController {
      * Reject a reservation (station owner only)
      */
     @PutMapping("/{id}/reject")
+    @QueryBudget(2)
     public ReservationDTO rejectReservation(
             @PathVariable String id,
             @AuthenticationPrincipal User owner) {
@@ -133,6 +141,7 @@ public class ReservationController {
      * Cancel a reservation (client only)
      */
     @DeleteMapping("/{id}")
+    @QueryBudget(3)
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void cancelReservation(
             @PathVariable String id,
@@ -145,6 +154,7 @@ public class ReservationController {
      * This could be triggered by a scheduled job or admin action
      */
     @PutMapping("/{id}/complete")
+    @QueryBudget(2)
     public Map<String, String> completeReservation(
             @PathVariable String id,
             @AuthenticationPrincipal User user) {
@@ -157,6 +167,7 @@ public class ReservationController {
      * Returns all reservations waiting for owner's decision
      */
     @GetMapping("/pending-approval")
+    @QueryBudget(3)
     public Page<ReservationDTO> getPendingApprovals(
             @AuthenticationPrincipal User owner,
             @RequestParam(defaultValue = "1") Integer page,
@@ -173,6 +184,7 @@ public class ReservationController {
      * Get upcoming reservations for user
      */
     @GetMapping("/upcoming")
+    @QueryBudget(3)
     public Page<ReservationDTO> getUpcomingReservations(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "1") Integer page,
@@ -189,6 +201,7 @@ public class ReservationController {
      * Get past reservations for user (history)
      */
     @GetMapping("/history")
+    @QueryBudget(3)
     public Page<ReservationDTO> getPastReservations(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "1") Integer page,
@@ -205,6 +218,7 @@ public class ReservationController {
      * Get all reservations for station owner (history with all statuses)
      */
     @GetMapping("/owner-history")
+    @QueryBudget(3)
     public Page<ReservationDTO> getOwnerReservationHistory(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "1") Integer page,
@@ -222,6 +236,7 @@ public class ReservationController {
      * Client pays after owner accepts the reservation
      */
     @PostMapping("/{id}/pay")
+    @QueryBudget(3)
     public ReservationDTO processPayment(
             @PathVariable String id,
             @AuthenticationPrincipal User client,
@@ -241,6 +256,29 @@ public class ReservationController {
                 .body(pdf);
     }
 
+    /**
+     * Export all receipts (as client or station owner) for a date range as a ZIP archive
+     * PDFs are rendered in parallel and streamed to the client as they complete
+     */
+    @GetMapping(path = "/export/receipts.zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> exportReceipts(
+            @AuthenticationPrincipal User user,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<ReservationDTO> reservations = receiptFacade.findReceiptsToExport(user, from, to);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("receipts-" + from + "-" + to + ".zip")
+                .build());
+
+        StreamingResponseBody body = out -> receiptFacade.writeReceiptsZip(reservations, out);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
     /**
      * Export completed reservations as CLIENT to Excel
      * Downloads all past reservations where the user was the client
@@ -3,6 +3,7 @@ package art.lapov.vavapi.controller;
 import art.lapov.vavapi.dto.ReviewCreateDTO;
 import art.lapov.vavapi.dto.ReviewDTO;
 import art.lapov.vavapi.dto.ReviewUpdateDTO;
+import art.lapov.vavapi.metrics.QueryBudget;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.service.ReviewService;
 import jakarta.validation.Valid;
@@ -52,6 +53,7 @@ public class ReviewController {
      * Get feedback on the station
      */
     @GetMapping("/station/{stationId}")
+    @QueryBudget(3)
     public Page<ReviewDTO> getStationReviews(
             @PathVariable String stationId,
             @RequestParam(defaultValue = "1") Integer page,
@@ -64,6 +66,7 @@ public class ReviewController {
      * Get feedback on the owner
      */
     @GetMapping("/owner/{ownerId}")
+    @QueryBudget(3)
     public Page<ReviewDTO> getOwnerReviews(@PathVariable String ownerId, @RequestParam(defaultValue = "1") Integer page,
                                            @RequestParam(defaultValue = "5") Integer size) {
         Pageable pageable = PageRequest.of(page - 1, size);
@@ -74,6 +77,7 @@ public class ReviewController {
      * Get my reviews
      */
     @GetMapping("/my")
+    @QueryBudget(3)
     public List<ReviewDTO> getMyReviews(@AuthenticationPrincipal User user) {
         return reviewService.findByAuthor(user);
     }
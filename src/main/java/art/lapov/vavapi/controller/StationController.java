@@ -1,12 +1,20 @@
 package art.lapov.vavapi.controller;
 
+import art.lapov.vavapi.dto.AvailableStationDTO;
 import art.lapov.vavapi.dto.CostCalculationDTO;
+import art.lapov.vavapi.dto.StationCalendarDTO;
 import art.lapov.vavapi.dto.StationCreateDTO;
 import art.lapov.vavapi.dto.StationDTO;
+import art.lapov.vavapi.dto.StationSearchResultDTO;
 import art.lapov.vavapi.dto.StationUpdateDTO;
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.metrics.QueryBudget;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.service.PricingIntervalService;
 import art.lapov.vavapi.service.StationService;
+import art.lapov.vavapi.service.calendar.StationCalendarService;
+import art.lapov.vavapi.service.search.AvailableNearbySearch;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 
 @RestController
@@ -28,8 +37,11 @@ public class StationController {
 
     private final StationService stationService;
     private final PricingIntervalService pricingIntervalService;
+    private final StationCalendarService stationCalendarService;
+    private final AvailableNearbySearch availableNearbySearch;
 
     @GetMapping
+    @QueryBudget(4)
     public Page<StationDTO> showAll(
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
@@ -39,6 +51,48 @@ public class StationController {
         return stationService.findAll(pageable);
     }
 
+    /**
+     * Faceted search: every filter is optional, connectorType may be repeated,
+     * prices are the cheapest hourly price of the station in cents
+     */
+    @GetMapping("/search")
+    @QueryBudget(3)
+    public StationSearchResultDTO search(
+            @RequestParam(required = false) List<ConnectorType> connectorType,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Long minPowerWatt,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        if (size > 45) size = 45;
+        if (size < 1) size = 1;
+        if (page < 1) page = 1;
+        StationSearchIndex.Query query = new StationSearchIndex.Query(
+                connectorType == null || connectorType.isEmpty() ? null : EnumSet.copyOf(connectorType),
+                city, minPowerWatt, minRating, minPrice, maxPrice);
+        return stationService.search(query, page, size);
+    }
+
+    /**
+     * Stations free for the period around a point, with their quote, nearest or cheapest first
+     */
+    @GetMapping("/available-nearby")
+    @QueryBudget(2)
+    public List<AvailableStationDTO> findAvailableNearby(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10.0") double radius,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "DISTANCE") AvailableNearbySearch.SortBy sort,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        if (limit > 45) limit = 45;
+        if (limit < 1) limit = 1;
+        return availableNearbySearch.search(latitude, longitude, radius, startDate, endDate, sort, limit);
+    }
+
     @GetMapping("/{id}")
     public StationDTO showOne(@PathVariable String id) {
         return stationService.findById(id);
@@ -71,6 +125,7 @@ public class StationController {
     }
 
     @GetMapping("/location/{locationId}")
+    @QueryBudget(4)
     public List<StationDTO> findByLocation(
             @PathVariable String locationId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -85,6 +140,18 @@ public class StationController {
         return stationService.findByLocationId(locationId);
     }
 
+    /**
+     * Free and booked quarter-hour slots of the station for the next days, instead of probing
+     * /api/reservations/check-availability window by window
+     */
+    @GetMapping("/{id}/calendar")
+    @QueryBudget(3)
+    public StationCalendarDTO calendar(@PathVariable String id, @RequestParam(defaultValue = "7") Integer days) {
+        if (days < 1) days = 1;
+        if (days > stationCalendarService.getHorizonDays()) days = stationCalendarService.getHorizonDays();
+        return stationCalendarService.getCalendar(id, days);
+    }
+
     @GetMapping("/{id}/calculate-price")
     public CostCalculationDTO calculatePrice(
             @PathVariable String id,
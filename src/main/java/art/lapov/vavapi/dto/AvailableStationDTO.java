@@ -0,0 +1,13 @@
+package art.lapov.vavapi.dto;
+
+import lombok.Value;
+
+/**
+ * A station free for the requested period, with its distance and the quote for the period
+ */
+@Value
+public class AvailableStationDTO {
+    StationShortDTO station;
+    Double distanceKm;
+    Integer totalCostInCents;
+}
@@ -21,4 +21,10 @@ public class CostCalculationDTO {
 
     @JsonProperty("duration_hours")
     Double durationHours;
+
+    /**
+     * Signed quote to send with the reservation request, which is then not priced again
+     */
+    @JsonProperty("quote_token")
+    String quoteToken;
 }
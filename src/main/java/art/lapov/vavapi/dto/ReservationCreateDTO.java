@@ -19,4 +19,9 @@ public class ReservationCreateDTO implements Serializable {
 
     @NotNull
     LocalDateTime endDate;
+
+    /**
+     * Optional quote token from calculate-price for the same station and period
+     */
+    String quoteToken;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package art.lapov.vavapi.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Free and booked quarter-hour slots of a station, day by day.
+ * Slots neither free nor booked are outside the pricing intervals or already started.
+ */
+@Value
+public class StationCalendarDTO {
+    String stationId;
+    int slotMinutes;
+    List<Day> days;
+
+    @Value
+    public static class Day {
+        LocalDate date;
+        List<TimeRange> free;
+        List<TimeRange> booked;
+    }
+
+    /**
+     * Consecutive slots, end exclusive
+     */
+    @Value
+    public static class TimeRange {
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
@@ -0,0 +1,34 @@
+package art.lapov.vavapi.dto;
+
+import art.lapov.vavapi.enums.ConnectorType;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of stations matching a faceted search, with the facet counts
+ */
+@Value
+public class StationSearchResultDTO {
+    List<StationDTO> content;
+    int page;
+    int size;
+    long totalElements;
+    int totalPages;
+
+    /**
+     * Matching stations per connector type, ignoring the connector type filter
+     */
+    Map<ConnectorType, Long> connectorTypes;
+
+    /**
+     * Matching stations per city, most represented first, ignoring the city filter
+     */
+    Map<String, Long> cities;
+
+    /**
+     * Matching stations per rating bucket (whole stars, 0 to 5), ignoring the rating filter
+     */
+    Map<Integer, Long> ratings;
+}
@@ -0,0 +1,7 @@
+package art.lapov.vavapi.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package art.lapov.vavapi.mapper;
 import art.lapov.vavapi.dto.StationCreateDTO;
 import art.lapov.vavapi.dto.StationDTO;
+import art.lapov.vavapi.dto.StationShortDTO;
 import art.lapov.vavapi.dto.StationUpdateDTO;
 import art.lapov.vavapi.model.Station;
 import org.mapstruct.Mapper;
@@ -18,5 +19,6 @@ import org.mapstruct.ReportingPolicy;
 public abstract class StationMapper {
     public abstract Station map(StationCreateDTO dto);
     public abstract StationDTO map(Station model);
+    public abstract StationShortDTO mapShort(Station model);
     public abstract void update(StationUpdateDTO dto, @MappingTarget Station model);
 }
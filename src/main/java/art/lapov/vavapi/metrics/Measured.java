@@ -0,0 +1,28 @@
+package art.lapov.vavapi.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the duration of a bean method in a timer tagged with its outcome
+ * (success, not_found, validation_error, conflict, forbidden, error).
+ * <p>
+ * When the method returns a collection, its size is recorded in {@code <name>.results}.
+ * Like {@code @Transactional}, it only applies to calls going through the Spring proxy.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Measured {
+
+    /**
+     * Metric name, e.g. {@code vavapi.reservations.create}
+     */
+    String value();
+
+    /**
+     * Additional key/value tag pairs
+     */
+    String[] tags() default {};
+}
@@ -0,0 +1,54 @@
+package art.lapov.vavapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Times {@link Measured} methods. Runs outside the transaction so commit time is included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MeasuredAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(art.lapov.vavapi.metrics.Measured)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Measured measured = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Measured.class);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = Outcome.SUCCESS;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Collection<?> collection) {
+                DistributionSummary.builder(measured.value() + ".results")
+                        .tags(measured.tags())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(collection.size());
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(measured.value())
+                    .tags(Tags.of(measured.tags()).and("outcome", outcome))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
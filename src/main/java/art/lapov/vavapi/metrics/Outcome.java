@@ -0,0 +1,65 @@
+package art.lapov.vavapi.metrics;
+
+import art.lapov.vavapi.exception.LocationHasActiveStationsException;
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.exception.UserAlreadyExistsException;
+import art.lapov.vavapi.exception.UserHasActiveReservationException;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Outcome tag values, derived from the exceptions the services throw
+ */
+public final class Outcome {
+
+    public static final String SUCCESS = "success";
+    public static final String NOT_FOUND = "not_found";
+    public static final String VALIDATION_ERROR = "validation_error";
+    public static final String CONFLICT = "conflict";
+    public static final String FORBIDDEN = "forbidden";
+    public static final String ERROR = "error";
+
+    private Outcome() {
+    }
+
+    public static String of(Throwable e) {
+        if (e instanceof ResponseStatusException rse) {
+            return of(rse.getStatusCode());
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (e instanceof UserAlreadyExistsException || e instanceof UserHasActiveReservationException
+                || e instanceof OptimisticLockingFailureException) {
+            return CONFLICT;
+        }
+        if (e instanceof IllegalArgumentException || e instanceof ConstraintViolationException
+                || e instanceof LocationHasActiveStationsException) {
+            return VALIDATION_ERROR;
+        }
+        if (e instanceof AccessDeniedException) {
+            return FORBIDDEN;
+        }
+        return ERROR;
+    }
+
+    private static String of(HttpStatusCode status) {
+        if (status.isSameCodeAs(HttpStatus.NOT_FOUND)) {
+            return NOT_FOUND;
+        }
+        if (status.isSameCodeAs(HttpStatus.CONFLICT)) {
+            return CONFLICT;
+        }
+        if (status.isSameCodeAs(HttpStatus.FORBIDDEN) || status.isSameCodeAs(HttpStatus.UNAUTHORIZED)) {
+            return FORBIDDEN;
+        }
+        if (status.is4xxClientError()) {
+            return VALIDATION_ERROR;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,24 @@
+package art.lapov.vavapi.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a controller method may execute per request.
+ * The budget must not depend on the page size: exceeding it usually means an N+1 query.
+ * <p>
+ * Statements run before the handler (authentication) are not counted.
+ * Enforced according to {@code app.sql.query-budget.mode}: a warning in {@code warn},
+ * a failed request in {@code fail} (tests).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * Maximum statements per request
+     */
+    int value();
+}
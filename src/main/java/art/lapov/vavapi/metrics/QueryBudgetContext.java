@@ -0,0 +1,66 @@
+package art.lapov.vavapi.metrics;
+
+/**
+ * Statement count of the current request against the {@link QueryBudget} of its handler.
+ * Opened by {@link QueryBudgetFilter}, the budget is applied by {@link QueryBudgetInterceptor}.
+ */
+public final class QueryBudgetContext {
+
+    private static final ThreadLocal<QueryBudgetContext> CURRENT = new ThreadLocal<>();
+
+    private String endpoint;
+    private int budget = -1;
+    private int count;
+
+    private QueryBudgetContext() {
+    }
+
+    static QueryBudgetContext open() {
+        QueryBudgetContext context = new QueryBudgetContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static QueryBudgetContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Apply a budget, counting from now on
+     */
+    void start(String endpoint, int budget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.count = 0;
+    }
+
+    /**
+     * Count a statement
+     *
+     * @return true when this statement exceeds the budget
+     */
+    boolean increment() {
+        count++;
+        return budget >= 0 && count > budget;
+    }
+
+    boolean isExceeded() {
+        return budget >= 0 && count > budget;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    int getBudget() {
+        return budget;
+    }
+
+    int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package art.lapov.vavapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens the {@link QueryBudgetContext} of each request and reports budget breaches once the request completes
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudgetMode mode;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryBudgetMode mode, MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryBudgetContext context = QueryBudgetContext.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryBudgetContext.close();
+            if (context.isExceeded()) {
+                report(context);
+            }
+        }
+    }
+
+    private void report(QueryBudgetContext context) {
+        Counter.builder("vavapi.sql.budget.exceeded")
+                .description("Requests exceeding the query budget of their endpoint")
+                .tag("endpoint", context.getEndpoint())
+                .register(meterRegistry)
+                .increment();
+        // In fail mode the statement over budget was refused, the count stops there
+        log.atWarn()
+                .addKeyValue("event", "query_budget_exceeded")
+                .addKeyValue("endpoint", context.getEndpoint())
+                .addKeyValue("budget", context.getBudget())
+                .addKeyValue("statements", context.getCount())
+                .log("Query budget exceeded by {}: {} statements, budget {}{}", context.getEndpoint(),
+                        context.getCount(), context.getBudget(), mode == QueryBudgetMode.FAIL ? " (request failed)" : "");
+    }
+}
@@ -0,0 +1,19 @@
+package art.lapov.vavapi.metrics;
+
+/**
+ * How {@link QueryBudget} breaches are handled
+ */
+public enum QueryBudgetMode {
+    /**
+     * Statements are not counted
+     */
+    OFF,
+    /**
+     * Breaches are logged and counted (staging, production)
+     */
+    WARN,
+    /**
+     * The statement exceeding the budget fails the request (tests, CI)
+     */
+    FAIL
+}
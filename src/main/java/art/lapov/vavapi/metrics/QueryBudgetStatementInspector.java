@@ -0,0 +1,27 @@
+package art.lapov.vavapi.metrics;
+
+import art.lapov.vavapi.exception.QueryBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares for the current request.
+ * In {@link QueryBudgetMode#FAIL} mode, the first statement over budget is not executed.
+ */
+public class QueryBudgetStatementInspector implements StatementInspector {
+
+    private final QueryBudgetMode mode;
+
+    public QueryBudgetStatementInspector(QueryBudgetMode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryBudgetContext context = QueryBudgetContext.current();
+        if (context != null && context.increment() && mode == QueryBudgetMode.FAIL) {
+            throw new QueryBudgetExceededException("Query budget of " + context.getBudget() + " statements exceeded by "
+                    + context.getEndpoint() + " at: " + sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,66 @@
+package art.lapov.vavapi.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements executed by the current HTTP request, counted per normalized SQL.
+ * Opened and closed by {@link SqlRequestStatisticsFilter}; statements outside a request are not tracked.
+ */
+public final class SqlRequestContext {
+
+    private static final ThreadLocal<SqlRequestContext> CURRENT = new ThreadLocal<>();
+
+    private final String request;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private int total;
+
+    private SqlRequestContext(String request) {
+        this.request = request;
+    }
+
+    static SqlRequestContext open(String request) {
+        SqlRequestContext context = new SqlRequestContext(request);
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static void record(String normalizedSql) {
+        SqlRequestContext context = CURRENT.get();
+        if (context != null) {
+            context.total++;
+            context.counts.merge(normalizedSql, 1, Integer::sum);
+        }
+    }
+
+    static String currentRequest() {
+        SqlRequestContext context = CURRENT.get();
+        return context != null ? context.request : "-";
+    }
+
+    /**
+     * The context of the current request, null outside a request
+     */
+    public static SqlRequestContext current() {
+        return CURRENT.get();
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Executions per normalized statement
+     */
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+}
@@ -0,0 +1,108 @@
+package art.lapov.vavapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the statements executed by each HTTP request and flags N+1 patterns:
+ * the same SELECT executed at least {@code nPlusOneThreshold} times by one request.
+ */
+@Slf4j
+public class SqlRequestStatisticsFilter extends OncePerRequestFilter {
+
+    private static final int RECENT_SUSPECTS = 50;
+
+    private final int nPlusOneThreshold;
+    private final MeterRegistry meterRegistry;
+    private final Deque<NPlusOneSuspect> recentSuspects = new ArrayDeque<>();
+
+    public SqlRequestStatisticsFilter(int nPlusOneThreshold, MeterRegistry meterRegistry) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestContext context = SqlRequestContext.open(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlRequestContext.close();
+            if (context.getTotal() > 0) {
+                report(request, context);
+            }
+        }
+    }
+
+    /**
+     * Most recent N+1 suspects, newest first
+     */
+    public List<NPlusOneSuspect> recentSuspects() {
+        synchronized (recentSuspects) {
+            return new ArrayList<>(recentSuspects);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlRequestContext context) {
+        // Route template, e.g. /api/reviews/station/{stationId}, keeps the tag cardinality bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("vavapi.sql.statements.per.request")
+                .description("JDBC statements executed by one HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(context.getTotal());
+
+        for (Map.Entry<String, Integer> entry : context.getCounts().entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold && entry.getKey().regionMatches(true, 0, "select", 0, 6)) {
+                Counter.builder("vavapi.sql.n-plus-one")
+                        .description("Requests repeating the same SELECT at least the N+1 threshold")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                log.atWarn()
+                        .addKeyValue("event", "n_plus_one")
+                        .addKeyValue("request", context.getRequest())
+                        .addKeyValue("executions", entry.getValue())
+                        .addKeyValue("statement", entry.getKey())
+                        .log("Possible N+1 in {}: executed {} times: {}", context.getRequest(), entry.getValue(),
+                                entry.getKey());
+                addSuspect(new NPlusOneSuspect(LocalDateTime.now(), request.getMethod() + " " + uri,
+                        entry.getKey(), entry.getValue(), context.getTotal()));
+            }
+        }
+    }
+
+    private void addSuspect(NPlusOneSuspect suspect) {
+        synchronized (recentSuspects) {
+            recentSuspects.addFirst(suspect);
+            if (recentSuspects.size() > RECENT_SUSPECTS) {
+                recentSuspects.removeLast();
+            }
+        }
+    }
+
+    public record NPlusOneSuspect(LocalDateTime at, String endpoint, String statement, int executions,
+                                  int requestTotal) {
+    }
+}
@@ -0,0 +1,182 @@
+package art.lapov.vavapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Aggregates every JDBC statement (datasource-proxy listener) by normalized SQL:
+ * count, total and max time. Statements slower than the threshold are logged as {@code slow_query} events,
+ * and every statement is logged at DEBUG (replaces {@code spring.jpa.show-sql}).
+ */
+@Slf4j
+public class SqlStatementStatistics implements QueryExecutionListener {
+
+    /**
+     * Aggregates new statements once {@code maxStatements} distinct normalized forms are tracked
+     */
+    static final String OTHER_STATEMENTS = "<other statements>";
+
+    private static final String STARTED_AT = "vavapi.startedAt";
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Duration slowThreshold;
+    private final int maxStatements;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    // Hibernate reuses the same SQL strings, so normalization is cached (bounded like the statistics)
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+
+    public SqlStatementStatistics(Duration slowThreshold, int maxStatements, MeterRegistry meterRegistry) {
+        this.slowThreshold = slowThreshold;
+        this.maxStatements = maxStatements;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        long nanos = startedAt != null ? System.nanoTime() - startedAt : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = normalize(queryInfo.getQuery());
+            statement(sql).record(nanos, execInfo.isSuccess());
+            SqlRequestContext.record(sql);
+            timer(type(sql), execInfo.isSuccess() ? Outcome.SUCCESS : Outcome.ERROR)
+                    .record(nanos / queryInfoList.size(), TimeUnit.NANOSECONDS);
+
+            if (log.isDebugEnabled()) {
+                log.debug("{} ms | {}", TimeUnit.NANOSECONDS.toMillis(nanos), queryInfo.getQuery());
+            }
+        }
+
+        if (nanos >= slowThreshold.toNanos()) {
+            String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+            log.atWarn()
+                    .addKeyValue("event", "slow_query")
+                    .addKeyValue("duration_ms", TimeUnit.NANOSECONDS.toMillis(nanos))
+                    .addKeyValue("batch_size", execInfo.isBatch() ? execInfo.getBatchSize() : 1)
+                    .addKeyValue("request", SqlRequestContext.currentRequest())
+                    .addKeyValue("statement", sql)
+                    .log("Slow query {} ms in {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                            SqlRequestContext.currentRequest(), sql);
+        }
+    }
+
+    /**
+     * Statistics sorted by total time, slowest first
+     */
+    public List<StatementSnapshot> top(int limit) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementSnapshot::totalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long totalCount() {
+        return statements.values().stream().mapToLong(stats -> stats.count.sum()).sum();
+    }
+
+    public int distinctCount() {
+        return statements.size();
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    /**
+     * Replace literals with {@code ?}, collapse IN lists and whitespace, so the same statement
+     * with different values is aggregated together
+     */
+    String normalize(String sql) {
+        String cached = normalized.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = IN_LIST.matcher(result).replaceAll("(?)");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        if (normalized.size() < maxStatements * 4) {
+            normalized.put(sql, result);
+        }
+        return result;
+    }
+
+    private Timer timer(String type, String outcome) {
+        return timers.computeIfAbsent(type + '|' + outcome, k -> Timer.builder("vavapi.sql.statements")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private StatementStats statement(String sql) {
+        StatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String key = statements.size() < maxStatements ? sql : OTHER_STATEMENTS;
+        return statements.computeIfAbsent(key, k -> new StatementStats());
+    }
+
+    private static String type(String sql) {
+        int space = sql.indexOf(' ');
+        String keyword = (space > 0 ? sql.substring(0, space) : sql).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+
+    public record StatementSnapshot(String statement, long count, long errors, double totalMs, double meanMs,
+                                    double maxMs) {
+    }
+
+    private static class StatementStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, boolean success) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        StatementSnapshot snapshot(String statement) {
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new StatementSnapshot(statement, n, errors.sum(), totalMs, n == 0 ? 0 : totalMs / n,
+                    maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package art.lapov.vavapi.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlstats}: hottest statements, recent N+1 suspects and Hibernate session statistics.
+ * {@code DELETE} resets the counters, e.g. before a load test.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SqlStatementStatistics statistics;
+    private final SqlRequestStatisticsFilter requestFilter;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SqlStatisticsEndpoint(SqlStatementStatistics statistics, SqlRequestStatisticsFilter requestFilter,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.statistics = statistics;
+        this.requestFilter = requestFilter;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sqlStats(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalStatements", statistics.totalCount());
+        result.put("distinctStatements", statistics.distinctCount());
+        result.put("statements", statistics.top(limit != null ? limit : DEFAULT_LIMIT));
+        result.put("nPlusOneSuspects", requestFilter.recentSuspects());
+        result.put("hibernate", hibernateStatistics());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+        hibernate().clear();
+    }
+
+    private Map<String, Object> hibernateStatistics() {
+        Statistics stats = hibernate();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", stats.isStatisticsEnabled());
+        if (stats.isStatisticsEnabled()) {
+            result.put("preparedStatements", stats.getPrepareStatementCount());
+            result.put("queryExecutions", stats.getQueryExecutionCount());
+            result.put("queryExecutionMaxTimeMs", stats.getQueryExecutionMaxTime());
+            result.put("slowestQuery", stats.getQueryExecutionMaxTimeQueryString());
+            result.put("entityLoads", stats.getEntityLoadCount());
+            result.put("entityFetches", stats.getEntityFetchCount());
+            result.put("collectionLoads", stats.getCollectionLoadCount());
+            result.put("collectionFetches", stats.getCollectionFetchCount());
+            result.put("flushes", stats.getFlushCount());
+            result.put("transactions", stats.getTransactionCount());
+        }
+        return result;
+    }
+
+    private Statistics hibernate() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
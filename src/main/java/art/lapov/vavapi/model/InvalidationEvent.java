@@ -0,0 +1,38 @@
+package art.lapov.vavapi.model;
+
+import art.lapov.vavapi.service.cache.InvalidationType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Written by {@link art.lapov.vavapi.service.cache.InvalidationBus}: an append-only log of the entities
+ * changed by a node, read in id order by the other nodes to evict their in-memory copies
+ */
+@Entity
+@Table(name = "invalidation_event", indexes = @Index(name = "idx_invalidation_event_created_at", columnList = "createdAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private InvalidationType entityType;
+    private String entityId;
+    private String origin;
+    private LocalDateTime createdAt;
+}
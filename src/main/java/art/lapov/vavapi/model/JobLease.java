@@ -0,0 +1,29 @@
+package art.lapov.vavapi.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Written by {@link art.lapov.vavapi.service.jobs.JobLeases}: the node running a background job (or one shard of it)
+ * until {@code expiresAt}. The fencing token grows each time the lease changes hands.
+ */
+@Entity
+@Table(name = "job_lease")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+    @Id
+    private String name;
+    private String owner;
+    private LocalDateTime expiresAt;
+    private Long fencingToken;
+}
@@ -1,11 +1,11 @@
 package art.lapov.vavapi.model;
 
+import art.lapov.vavapi.model.id.BinaryUuidType;
+import art.lapov.vavapi.model.id.TimeOrderedId;
 import art.lapov.vavapi.utils.UrlUtil;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
@@ -21,6 +21,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -38,7 +39,8 @@ import java.util.List;
 @Table(name = "location", indexes = @Index(name = "idx_location_lat_lng", columnList = "latitude, longitude"))
 public class Location implements BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @Type(BinaryUuidType.class)
     private String id;
     @NotBlank
     private String name;
@@ -1,8 +1,8 @@
 package art.lapov.vavapi.model;
 
+import art.lapov.vavapi.model.id.BinaryUuidType;
+import art.lapov.vavapi.model.id.TimeOrderedId;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +11,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 
@@ -22,7 +23,8 @@ import java.time.LocalDateTime;
 @Table(name = "payment")
 public class Payment implements BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @Type(BinaryUuidType.class)
     private String id;
     @Positive
     private Integer amountInCents;
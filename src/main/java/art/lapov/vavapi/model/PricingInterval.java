@@ -1,8 +1,8 @@
 package art.lapov.vavapi.model;
 
+import art.lapov.vavapi.model.id.BinaryUuidType;
+import art.lapov.vavapi.model.id.TimeOrderedId;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -12,6 +12,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalTime;
 
@@ -23,7 +24,8 @@ import java.time.LocalTime;
 @Table(name = "pricing_interval")
 public class PricingInterval implements BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @Type(BinaryUuidType.class)
     private String id;
     @Positive
     private Integer hourlyPriceInCents;
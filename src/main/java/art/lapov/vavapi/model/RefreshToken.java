@@ -1,10 +1,10 @@
 package art.lapov.vavapi.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,14 +12,18 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
+/**
+ * Written by {@link art.lapov.vavapi.service.RefreshTokenStore}: the id is the SHA-256 of the token
+ * (the raw token for rows created before hashing)
+ */
 @Entity
+@Table(indexes = @Index(name = "idx_refresh_token_expires_at", columnList = "expiresAt"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
     private LocalDateTime expiresAt;
 
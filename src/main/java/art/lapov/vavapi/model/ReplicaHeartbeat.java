@@ -0,0 +1,27 @@
+package art.lapov.vavapi.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single row stamped on the primary and read back from the replica by
+ * {@link art.lapov.vavapi.config.ReplicaLagMonitor} to measure the replication lag
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicaHeartbeat {
+    @Id
+    private Integer id;
+    private LocalDateTime beatAt;
+}
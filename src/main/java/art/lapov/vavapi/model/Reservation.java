@@ -1,12 +1,12 @@
 package art.lapov.vavapi.model;
 
 import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.model.id.BinaryUuidType;
+import art.lapov.vavapi.model.id.TimeOrderedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
@@ -17,6 +17,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -31,7 +32,8 @@ import java.time.LocalDateTime;
 @Table(name = "reservation")
 public class Reservation implements BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @Type(BinaryUuidType.class)
     private String id;
     @Enumerated(EnumType.STRING)
     @NotNull
@@ -0,0 +1,18 @@
+package art.lapov.vavapi.model.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id generated as a time-ordered UUID (see {@link art.lapov.vavapi.utils.UuidUtil#timeOrdered()}):
+ * rows are appended at the end of the primary key index instead of at random pages.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -1,6 +1,7 @@
 package art.lapov.vavapi.repository;
 
 import art.lapov.vavapi.model.Location;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,18 +25,33 @@ public interface LocationRepository extends JpaRepository<Location, String> {
         )
         ) AS distance_km
         FROM location l
-        WHERE l.latitude BETWEEN :lat0 - (:R / 110.574) AND :lat0 + (:R / 110.574)
-        AND l.longitude BETWEEN :lon0 - (:R / (111.320 * COS(RADIANS(:lat0))))
-            AND :lon0 + (:R / (111.320 * COS(RADIANS(:lat0))))
+        WHERE l.latitude BETWEEN :minLat AND :maxLat
+        AND l.longitude BETWEEN :minLon AND :maxLon
         AND (l.deleted IS NULL OR l.deleted = false)
         HAVING distance_km <= :R
         ORDER BY distance_km
         """, nativeQuery = true)
-    List<Location> findWithinRadius(
+    List<Location> findWithinBoundingBox(
             @Param("lat0") double lat0,
             @Param("lon0") double lon0,
-            @Param("R") double radiusKm);
+            @Param("R") double radiusKm,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon") double minLon,
+            @Param("maxLon") double maxLon);
 
+    /**
+     * Locations within {@code radiusKm} of a point, nearest first.
+     * The bounding box is computed here so the query only binds plain values (portable to H2).
+     */
+    default List<Location> findWithinRadius(double lat0, double lon0, double radiusKm) {
+        double latDelta = radiusKm / 110.574;
+        double lonDelta = radiusKm / (111.320 * Math.cos(Math.toRadians(lat0)));
+        return findWithinBoundingBox(lat0, lon0, radiusKm,
+                lat0 - latDelta, lat0 + latDelta, lon0 - lonDelta, lon0 + lonDelta);
+    }
+
+    @EntityGraph(attributePaths = "owner")
     Page<Location> findAll(Pageable pageable);
 
     @Query("SELECT l FROM Location l WHERE l.owner.id = :ownerId AND (l.deleted = false OR l.deleted IS NULL)")
@@ -2,8 +2,10 @@ package art.lapov.vavapi.repository;
 
 import art.lapov.vavapi.model.PricingInterval;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +19,15 @@ public interface PricingIntervalRepository extends JpaRepository<PricingInterval
      * Find all tariff intervals of the station
      */
     List<PricingInterval> findByStationId(String stationId);
+
+    /**
+     * Find pricing intervals of several stations at once, sorted by start time
+     */
+    List<PricingInterval> findByStationIdInOrderByStartHour(Collection<String> stationIds);
+
+    /**
+     * Lowest hourly price of the station, null without pricing intervals
+     */
+    @Query("SELECT MIN(p.hourlyPriceInCents) FROM PricingInterval p WHERE p.station.id = :stationId")
+    Integer findCheapestHourlyPriceByStationId(String stationId);
 }
\ No newline at end of file
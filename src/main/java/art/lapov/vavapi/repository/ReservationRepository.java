@@ -1,15 +1,20 @@
 package art.lapov.vavapi.repository;
 
+import art.lapov.vavapi.model.Payment;
 import art.lapov.vavapi.model.Reservation;
 import art.lapov.vavapi.enums.ReservationStatus;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -47,12 +52,20 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     /**
      * Find user's reservations ordered by date
      */
-    Page<Reservation> findByClientOrderByStartDateDesc(User client, Pageable pageable);
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE r.client = :client ORDER BY r.startDate DESC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.client = :client")
+    Page<Reservation> findByClientOrderByStartDateDesc(@Param("client") User client, Pageable pageable);
 
     /**
      * Find station's reservations ordered by date
      */
-    Page<Reservation> findByStationOrderByStartDateDesc(Station station, Pageable pageable);
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE r.station = :station ORDER BY r.startDate DESC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.station = :station")
+    Page<Reservation> findByStationOrderByStartDateDesc(@Param("station") Station station, Pageable pageable);
 
     /**
      * Find upcoming reservations for a user
@@ -68,9 +81,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     /**
      * Find past reservations for a user
      */
-    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.review WHERE r.client = :client " +
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE r.client = :client " +
             "AND r.endDate < :now " +
-            "ORDER BY r.endDate DESC")
+            "ORDER BY r.endDate DESC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.client = :client AND r.endDate < :now")
     Page<Reservation> findPastReservations(
             @Param("client") User client,
             @Param("now") LocalDateTime now,
@@ -79,18 +95,27 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     /**
      * Find all reservations for station owner (past and current, all statuses)
      */
-    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.review WHERE r.station.location.owner = :owner " +
-            "ORDER BY r.createdAt DESC")
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE l.owner = :owner " +
+            "ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.station.location.owner = :owner")
     Page<Reservation> findOwnerReservationHistory(
             @Param("owner") User owner,
             Pageable pageable);
 
     /**
-     * Find reservations that should be automatically completed
+     * Find reservations that should be automatically completed, in one shard of the stations: last two bytes of the binary
+     * station id in {@code [from, to)}, no upper bound when {@code to} is null (see {@link art.lapov.vavapi.service.jobs.Shard})
      */
-    @Query("SELECT r FROM Reservation r WHERE r.endDate < :now " +
-            "AND r.status IN ('ACCEPTED', 'PAID')")
-    List<Reservation> findReservationsToComplete(@Param("now") LocalDateTime now);
+    @Query(value = "SELECT * FROM reservation r WHERE r.end_date < :now " +
+            "AND r.status IN ('ACCEPTED', 'PAID') " +
+            "AND SUBSTRING(r.station_id, 15, 2) >= :from " +
+            "AND (:to IS NULL OR SUBSTRING(r.station_id, 15, 2) < :to)", nativeQuery = true)
+    List<Reservation> findReservationsToCompleteInShard(
+            @Param("now") LocalDateTime now,
+            @Param("from") byte[] from,
+            @Param("to") byte[] to);
 
     /**
      * Find reservations pending owner approval
@@ -103,18 +128,27 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     /**
      * Find reservations pending owner approval with pagination
      */
-    @Query("SELECT r FROM Reservation r WHERE r.station.location.owner = :owner " +
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE l.owner = :owner " +
             "AND r.status = 'CREATED' " +
-            "ORDER BY r.createdAt DESC")
+            "ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.station.location.owner = :owner " +
+                    "AND r.status = 'CREATED'")
     Page<Reservation> findPendingApprovalForOwner(@Param("owner") User owner, Pageable pageable);
 
     /**
      * Find upcoming reservations for a user with pagination
      */
-    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.review WHERE r.client = :client " +
+    @Query(value = "SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review " +
+            "WHERE r.client = :client " +
             "AND r.startDate > :now " +
             "AND r.status IN ('CREATED', 'ACCEPTED', 'PAID') " +
-            "ORDER BY r.startDate ASC")
+            "ORDER BY r.startDate ASC",
+            countQuery = "SELECT COUNT(r) FROM Reservation r WHERE r.client = :client " +
+                    "AND r.startDate > :now " +
+                    "AND r.status IN ('CREATED', 'ACCEPTED', 'PAID')")
     Page<Reservation> findUpcomingReservations(
             @Param("client") User client,
             @Param("now") LocalDateTime now,
@@ -139,6 +173,20 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
             "ORDER BY r.endDate DESC")
     List<Reservation> findCompletedReservationsForClient(@Param("client") User client);
 
+    /**
+     * Find paid or completed reservations visible to the user (as client or station owner)
+     * whose start date falls within [from, to)
+     */
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.review " +
+            "WHERE (r.client = :user OR r.station.location.owner = :user) " +
+            "AND r.status IN ('PAID', 'COMPLETED') " +
+            "AND r.startDate >= :from AND r.startDate < :to " +
+            "ORDER BY r.startDate ASC")
+    List<Reservation> findReceiptsForUserInPeriod(
+            @Param("user") User user,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
     /**
      * Check if location has any active reservations
      */
@@ -146,4 +194,87 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
             "AND r.status IN ('CREATED', 'ACCEPTED', 'PAID')")
     boolean existsActiveReservationsByLocationId(@Param("locationId") String locationId);
 
-}
\ No newline at end of file
+    /**
+     * The reservation with everything its DTO and notifications read, in one query
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "JOIN FETCH r.client LEFT JOIN FETCH r.payment LEFT JOIN FETCH r.review WHERE r.id = :id")
+    Optional<Reservation> findGraphById(@Param("id") String id);
+
+    // ============= STATUS TRANSITIONS (compare-and-set, 1 row updated or 0) =============
+
+    /**
+     * Move a reservation to {@code next} if it is still in the {@code expected} status
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :next WHERE r.id = :id AND r.status = :expected")
+    int compareAndSetStatus(@Param("id") String id,
+                            @Param("expected") ReservationStatus expected,
+                            @Param("next") ReservationStatus next);
+
+    /**
+     * Compare-and-set of a background job, only while the job lease still has the fencing token it was taken with
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :next WHERE r.id = :id AND r.status = :expected " +
+            "AND EXISTS (SELECT l FROM JobLease l WHERE l.name = :lease AND l.fencingToken = :fencingToken)")
+    int compareAndSetStatusFenced(@Param("id") String id,
+                                  @Param("expected") ReservationStatus expected,
+                                  @Param("next") ReservationStatus next,
+                                  @Param("lease") String lease,
+                                  @Param("fencingToken") long fencingToken);
+
+    /**
+     * Lock the station of the reservation until the end of the transaction, so the acceptances of its
+     * reservations run one after the other
+     *
+     * @return the station id, empty if the reservation does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s.id FROM Station s WHERE s.id = (SELECT r.station.id FROM Reservation r WHERE r.id = :id)")
+    Optional<String> lockStation(@Param("id") String id);
+
+    /**
+     * CREATED to ACCEPTED, by the owner of the station
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'ACCEPTED', r.acceptedAt = :now " +
+            "WHERE r.id = :id AND r.status = 'CREATED' " +
+            "AND r.station.id IN (SELECT s.id FROM Station s WHERE s.location.owner.id = :ownerId)")
+    int accept(@Param("id") String id, @Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+
+    /**
+     * CREATED to REJECTED, by the owner of the station
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'REJECTED' " +
+            "WHERE r.id = :id AND r.status = 'CREATED' " +
+            "AND r.station.id IN (SELECT s.id FROM Station s WHERE s.location.owner.id = :ownerId)")
+    int reject(@Param("id") String id, @Param("ownerId") String ownerId);
+
+    /**
+     * ACCEPTED to PAID, with its payment
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = 'PAID', r.paidAt = :now, r.payment = :payment " +
+            "WHERE r.id = :id AND r.status = 'ACCEPTED'")
+    int markPaid(@Param("id") String id, @Param("payment") Payment payment, @Param("now") LocalDateTime now);
+
+    /**
+     * PAID to COMPLETED, once the reservation has ended
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'COMPLETED' " +
+            "WHERE r.id = :id AND r.status = 'PAID' AND r.endDate <= :now")
+    int complete(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Other blocking reservations of the same station overlapping the reservation
+     */
+    @Query("SELECT COUNT(o) FROM Reservation o, Reservation r " +
+            "WHERE r.id = :id AND o.station = r.station AND o.id <> r.id " +
+            "AND o.startDate < r.endDate AND o.endDate > r.startDate " +
+            "AND o.status IN ('ACCEPTED', 'PAID', 'COMPLETED')")
+    long countBlockingOverlaps(@Param("id") String id);
+}
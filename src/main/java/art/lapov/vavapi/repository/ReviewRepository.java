@@ -34,7 +34,8 @@ public interface ReviewRepository extends JpaRepository<Review, String> {
     /**
      * Find all reviews for a specific station + PAGEABLE
      */
-    @Query("SELECT r FROM Review r WHERE r.reservation.station.id = :stationId")
+    @Query(value = "SELECT r FROM Review r JOIN FETCH r.author WHERE r.reservation.station.id = :stationId",
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE r.reservation.station.id = :stationId")
     Page<Review> findByReservationStationId(@Param("stationId") String stationId, Pageable pageable);
 
     /**
@@ -46,7 +47,8 @@ public interface ReviewRepository extends JpaRepository<Review, String> {
     /**
      * Find all station reviews for a specific owner + PAGEABLE
      */
-    @Query("SELECT r FROM Review r WHERE r.reservation.station.location.owner.id = :ownerId")
+    @Query(value = "SELECT r FROM Review r JOIN FETCH r.author WHERE r.reservation.station.location.owner.id = :ownerId",
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE r.reservation.station.location.owner.id = :ownerId")
     Page<Review> findByStationOwner(@Param("ownerId") String ownerId, Pageable pageable);
 
     boolean existsByReservationId(String reservationId);
@@ -4,6 +4,7 @@ import art.lapov.vavapi.model.Station;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -56,4 +57,53 @@ public interface StationRepository extends JpaRepository<Station, String> {
             @Param("startDate") java.time.LocalDateTime startDate,
             @Param("endDate") java.time.LocalDateTime endDate);
 
+    /**
+     * Everything a booking is admitted on, in one query: the station with its location, owner and
+     * pricing intervals, and the number of blocking reservations overlapping the period.
+     * One row per pricing interval (at least one), all holding the same station and count.
+     */
+    @Query("SELECT s, (" +
+            "  SELECT COUNT(r) FROM Reservation r " +
+            "  WHERE r.station.id = s.id " +
+            "  AND r.startDate < :endDate " +
+            "  AND r.endDate > :startDate " +
+            "  AND r.status IN ('ACCEPTED', 'PAID', 'COMPLETED')" +
+            ") FROM Station s JOIN FETCH s.location l JOIN FETCH l.owner LEFT JOIN FETCH s.pricingIntervals " +
+            "WHERE s.id = :stationId")
+    List<Object[]> findAdmissionSnapshot(
+            @Param("stationId") String stationId,
+            @Param("startDate") java.time.LocalDateTime startDate,
+            @Param("endDate") java.time.LocalDateTime endDate);
+
+    /**
+     * Stations free for a period on the live locations of a bounding box, with their location and owner
+     */
+    @Query("SELECT s FROM Station s JOIN FETCH s.location l JOIN FETCH l.owner " +
+            "WHERE l.latitude BETWEEN :minLat AND :maxLat " +
+            "AND l.longitude BETWEEN :minLon AND :maxLon " +
+            "AND (l.deleted = false OR l.deleted IS NULL) " +
+            "AND s.enabled = true " +
+            "AND (s.deleted = false OR s.deleted IS NULL) " +
+            "AND NOT EXISTS (" +
+            "  SELECT r FROM Reservation r " +
+            "  WHERE r.station.id = s.id " +
+            "  AND r.startDate < :endDate " +
+            "  AND r.endDate > :startDate " +
+            "  AND r.status IN ('ACCEPTED', 'PAID', 'COMPLETED')" +
+            ")")
+    List<Station> findAvailableInBoundingBox(
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon") double minLon,
+            @Param("maxLon") double maxLon,
+            @Param("startDate") java.time.LocalDateTime startDate,
+            @Param("endDate") java.time.LocalDateTime endDate);
+
+    /**
+     * Move the station to a new pricing version, in the database so concurrent interval writes all count
+     */
+    @Modifying
+    @Query("UPDATE Station s SET s.pricingVersion = COALESCE(s.pricingVersion, 0) + 1 WHERE s.id = :stationId")
+    int incrementPricingVersion(@Param("stationId") String stationId);
+
 }
\ No newline at end of file
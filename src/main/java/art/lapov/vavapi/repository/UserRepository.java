@@ -4,6 +4,7 @@ import art.lapov.vavapi.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,16 +24,6 @@ public interface UserRepository extends JpaRepository<User, String> {
      */
     Page<User> findByRole(String role, Pageable pageable);
 
-    /**
-     * Search users by email, first name or last name
-     * Case-insensitive search
-     */
-    @Query("SELECT u FROM User u WHERE " +
-            "LOWER(u.email) LIKE %:query% OR " +
-            "LOWER(u.firstName) LIKE %:query% OR " +
-            "LOWER(u.lastName) LIKE %:query%")
-    Page<User> searchUsers(@Param("query") String query, Pageable pageable);
-
     /**
      * Find all non-deleted users
      */
@@ -55,6 +46,13 @@ public interface UserRepository extends JpaRepository<User, String> {
     boolean hasActiveReservationsAsOwner(@Param("userId") String userId);
 
 
+    /**
+     * Replace the password hash of a user
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
     /**
      * Count users by role
      */
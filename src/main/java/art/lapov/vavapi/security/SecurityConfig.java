@@ -13,6 +13,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -29,6 +30,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationConfiguration authenticationConfiguration;
     private final JwtUtil jwtUtil;
@@ -126,6 +128,7 @@ public class SecurityConfig {
 
                 // ============= FILE UPLOADS =============
                 .requestMatchers(HttpMethod.POST, "/api/files/**").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/files/jobs/**").authenticated()
 
                 // ============= STATIC RESOURCES =============
                 .requestMatchers("/uploads/**").permitAll()  // Public access to uploaded images
@@ -142,6 +145,8 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/actuator/health/**").permitAll()  // Includes /liveness, /readiness
                 .requestMatchers("/actuator/info").permitAll()
+                .requestMatchers("/actuator/prometheus").hasRole("ADMIN")  // Scraped by Prometheus with an admin token
+                .requestMatchers("/actuator/sqlstats").hasRole("ADMIN")
 
                 .anyRequest().denyAll());
         
@@ -173,6 +178,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return new ProviderManager(authProvider);
     }
 
@@ -6,6 +6,9 @@ import art.lapov.vavapi.exception.UserHasActiveReservationException;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.StationRepository;
 import art.lapov.vavapi.repository.UserRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.search.UserSearchIndex;
 import art.lapov.vavapi.utils.JwtUtil;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
@@ -24,6 +27,8 @@ public class AccountService {
     private MailService mailService;
     private PasswordEncoder passwordEncoder;
     private JwtUtil jwtUtil;
+    private UserSearchIndex userSearchIndex;
+    private InvalidationBus invalidationBus;
     private static final Logger auditLogger = LoggerFactory.getLogger("audit");
 
     public User register(User user) {
@@ -35,6 +40,8 @@ public class AccountService {
         user.setRole("ROLE_USER");
         user.setValidated(false);
         userRepository.save(user);
+        userSearchIndex.index(user);
+        invalidationBus.publish(InvalidationType.USER, user.getId());
 
         String token = jwtUtil.generateToken(user, Instant.now().plus(7, ChronoUnit.DAYS));
         mailService.sendEmailValidation(user, token);
@@ -104,6 +111,8 @@ public class AccountService {
         user.setAddress(userDto.getAddress());
         user.setPostalCode(userDto.getPostalCode());
         User updatedUser = userRepository.save(user);
+        userSearchIndex.index(updatedUser);
+        invalidationBus.publish(InvalidationType.USER, updatedUser.getId());
         auditLogger.info("User profile updated: email={}, userId={}", updatedUser.getEmail(), updatedUser.getId());
         return updatedUser;
     }
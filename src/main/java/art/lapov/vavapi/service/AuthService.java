@@ -3,23 +3,24 @@ package art.lapov.vavapi.service;
 import art.lapov.vavapi.dto.LoginCredentialsDTO;
 import art.lapov.vavapi.dto.LoginResponseDTO;
 import art.lapov.vavapi.mapper.UserMapper;
-import art.lapov.vavapi.model.RefreshToken;
 import art.lapov.vavapi.model.User;
-import art.lapov.vavapi.repository.RefreshTokenRepository;
 import art.lapov.vavapi.repository.UserRepository;
 import art.lapov.vavapi.utils.JwtUtil;
 import art.lapov.vavapi.security.TokenPair;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @AllArgsConstructor
@@ -27,14 +28,14 @@ public class AuthService {
     private AuthenticationManager authManager;
     private JwtUtil jwtUtil;
     private UserMapper mapper;
-    private RefreshTokenRepository tokenRepository;
+    private RefreshTokenStore tokenStore;
     private UserRepository userRepo;
+    private ThreadPoolTaskExecutor loginExecutor;
 
     public LoginResponseDTO login(LoginCredentialsDTO credentials) {
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        credentials.getEmail(),
-                        credentials.getPassword()));
+        Authentication authentication = authenticate(new UsernamePasswordAuthenticationToken(
+                credentials.getEmail(),
+                credentials.getPassword()));
         User user = (User) authentication.getPrincipal();
 
         String token = jwtUtil.generateToken(user);
@@ -42,30 +43,44 @@ public class AuthService {
     }
 
     public String generateRefreshToken(String idUser) {
-        RefreshToken refreshToken = new RefreshToken();
         User user = userRepo.findById(idUser).orElseThrow();
-        refreshToken.setUser(user);
-        refreshToken.setExpiresAt(LocalDateTime.now().plus(30, ChronoUnit.DAYS));
-        tokenRepository.save(refreshToken);
-        return refreshToken.getId();
+        return tokenStore.issue(user.getId(), user.getUsername());
     }
 
+    /**
+     * Rotate a refresh token: the token is consumed in the database and a new one issued, in memory
+     */
     public TokenPair validateRefreshToken(String token) {
-        RefreshToken refreshToken = tokenRepository.findById(token).orElseThrow();
-        if (refreshToken.isExpired()) {
-            throw new RuntimeException("Refresh token expired");
-        }
-        User user = refreshToken.getUser();
-        tokenRepository.delete(refreshToken);
-        String newToken = generateRefreshToken(user.getId());
-        String jwt = jwtUtil.generateToken(user);
+        RefreshTokenStore.Entry entry = tokenStore.consume(token)
+                .orElseThrow(() -> new BadCredentialsException("Invalid or expired refresh token"));
+        String newToken = tokenStore.issue(entry.userId(), entry.username());
+        String jwt = jwtUtil.generateToken(entry.username());
         return new TokenPair(jwt, newToken);
     }
 
-    @Transactional
-    @Scheduled(fixedDelay = 24, timeUnit = TimeUnit.HOURS)
-    void cleanExpiredTokens() {
-        tokenRepository.deleteExpired();
+    /**
+     * Verify the password on the bounded login pool, the request thread only waits
+     */
+    private Authentication authenticate(UsernamePasswordAuthenticationToken credentials) {
+        Future<Authentication> verification;
+        try {
+            verification = loginExecutor.submit(() -> authManager.authenticate(credentials));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many login attempts, please retry later", e);
+        }
+        try {
+            return verification.get();
+        } catch (InterruptedException e) {
+            verification.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Login interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new AuthenticationServiceException("Login failed", e.getCause());
+        }
     }
 
 }
@@ -1,72 +1,181 @@
 package art.lapov.vavapi.service;
 
 import art.lapov.vavapi.enums.FileType;
-import org.imgscalr.Scalr;
+import art.lapov.vavapi.service.image.ImageDeletionListener;
+import art.lapov.vavapi.service.image.ImageFormat;
+import art.lapov.vavapi.service.image.ImageRenditionEngine;
+import art.lapov.vavapi.service.image.PendingImage;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
+@RequiredArgsConstructor
 public class FileService {
 
+    private final ImageRenditionEngine renditionEngine;
+    private final List<ImageDeletionListener> deletionListeners;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.upload.pending-dir:uploads-pending}")
+    private String pendingDir;
+
     private static final int MAX_SIZE = 1600;
     private static final int MINI_SIZE = 300;
+    private static final float MAX_QUALITY = 0.85f;
+    private static final float MINI_QUALITY = 0.80f;
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
-
-    public String saveImage(MultipartFile file, FileType fileType, String entityId) throws IOException {
+    private static final String PENDING_SEPARATOR = "__";
+    private static final String PENDING_SUFFIX = ".upload";
+
+    /**
+     * Validate an upload and store it untouched until the renditions are generated.
+     * No decoding happens here, so the request thread is released immediately.
+     */
+    public PendingImage storePendingUpload(MultipartFile file, FileType fileType, String entityId, String userId)
+            throws IOException {
         validateFile(file);
 
-        // Create directory if it does not exist
-        Path dirPath = Paths.get(uploadDir, fileType.getFolderName());
+        Path dirPath = Paths.get(pendingDir);
         Files.createDirectories(dirPath);
 
-        // Delete the old photo if it exists
-        deleteExistingImage(entityId, fileType);
-
         // Generate file name
         String fileName = entityId + "_" + UUID.randomUUID().toString() + ".jpg";
 
-        // Processing the image
-        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(file.getBytes()));
+        // The file type and the uploader are kept in the name so pending uploads can be resumed after a restart
+        Path rawFile = dirPath.resolve(fileType.name() + PENDING_SEPARATOR + userId + PENDING_SEPARATOR
+                + fileName + PENDING_SUFFIX);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, rawFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return new PendingImage(fileType, entityId, userId, fileName, rawFile);
+    }
+
+    /**
+     * Generate the main image and the thumbnail of a pending upload, then remove the raw file.
+     * The previous images of the entity are kept until {@link #deletePreviousImages} is called.
+     */
+    public void processPendingUpload(PendingImage pending) throws IOException {
+        try {
+            // Create directory if it does not exist
+            Path dirPath = Paths.get(uploadDir, pending.fileType().getFolderName());
+            Files.createDirectories(dirPath);
+
+            // Decode once, then derive the thumbnail from the main image
+            List<BufferedImage> renditions = renditionEngine.renderSquares(pending.rawFile(), MAX_SIZE, MINI_SIZE);
+
+            // JPEG is the reference file name, other formats are written next to it
+            for (ImageFormat format : ImageFormat.values()) {
+                if (format != ImageFormat.JPEG && !renditionEngine.canWrite(format)) {
+                    continue;
+                }
+                String fileName = format.variantOf(pending.fileName());
+                writeRendition(renditions.get(0), format, MAX_QUALITY, dirPath.resolve(fileName));
+                writeRendition(renditions.get(1), format, MINI_QUALITY, dirPath.resolve("mini_" + fileName));
+            }
+        } finally {
+            Files.deleteIfExists(pending.rawFile());
+        }
+    }
 
-        // Resize and save the main image
-        BufferedImage resizedImage = resizeToSquare(originalImage, MAX_SIZE);
-        File mainFile = dirPath.resolve(fileName).toFile();
-        ImageIO.write(resizedImage, "jpg", mainFile);
+    /**
+     * Discard a pending upload that will not be processed
+     */
+    public void discardPendingUpload(PendingImage pending) {
+        try {
+            Files.deleteIfExists(pending.rawFile());
+        } catch (IOException ignored) {}
+    }
 
-        // Creating and saving a thumbnail
-        BufferedImage miniImage = resizeToSquare(originalImage, MINI_SIZE);
-        File miniFile = dirPath.resolve("mini_" + fileName).toFile();
-        ImageIO.write(miniImage, "jpg", miniFile);
+    /**
+     * Delete the images of the entity other than the ones of this upload, once the entity points at it.
+     * Uploads of the same entity must not be processed concurrently, or each may delete the other's images.
+     */
+    public void deletePreviousImages(PendingImage pending) {
+        deleteExistingImage(pending.entityId(), pending.fileType(), pending.fileName());
+    }
 
-        return fileName;
+    /**
+     * List the uploads left unprocessed, e.g. by a shutdown while the queue was not empty, in upload order
+     */
+    public List<PendingImage> findPendingUploads() throws IOException {
+        Path dirPath = Paths.get(pendingDir);
+        List<PendingImage> pending = new ArrayList<>();
+        if (!Files.isDirectory(dirPath)) {
+            return pending;
+        }
+        try (Stream<Path> files = Files.list(dirPath)) {
+            files.sorted(Comparator.comparing(FileService::lastModified)).forEach(path -> {
+                PendingImage image = parsePendingFile(path);
+                if (image != null) {
+                    pending.add(image);
+                }
+            });
+        }
+        return pending;
     }
 
-    private BufferedImage resizeToSquare(BufferedImage original, int targetSize) {
-        // Determining the size for a square crop
-        int size = Math.min(original.getWidth(), original.getHeight());
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
 
-        // Cropped to square (centering)
-        BufferedImage cropped = Scalr.crop(original,
-                (original.getWidth() - size) / 2,
-                (original.getHeight() - size) / 2,
-                size, size);
+    private PendingImage parsePendingFile(Path path) {
+        String name = path.getFileName().toString();
+        int separator = name.indexOf(PENDING_SEPARATOR);
+        if (separator < 0 || !name.endsWith(PENDING_SUFFIX)) {
+            return null;
+        }
+        String fileName = name.substring(separator + PENDING_SEPARATOR.length(), name.length() - PENDING_SUFFIX.length());
+        // Uploads stored before the uploader was recorded have no owner
+        String userId = null;
+        int ownerEnd = fileName.indexOf(PENDING_SEPARATOR);
+        if (ownerEnd >= 0) {
+            userId = fileName.substring(0, ownerEnd);
+            fileName = fileName.substring(ownerEnd + PENDING_SEPARATOR.length());
+        }
+        int idEnd = fileName.indexOf('_');
+        if (idEnd <= 0) {
+            return null;
+        }
+        try {
+            FileType fileType = FileType.valueOf(name.substring(0, separator));
+            return new PendingImage(fileType, fileName.substring(0, idEnd), userId, fileName, path);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
-        // Resize to size
-        return Scalr.resize(cropped, Scalr.Method.QUALITY, targetSize, targetSize);
+    private void writeRendition(BufferedImage image, ImageFormat format, float quality, Path target) throws IOException {
+        // Write next to the target then rename, so a half-written file is never served
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", "." + format.getExtension());
+        try {
+            renditionEngine.write(image, format, quality, tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
     }
 
     private void validateFile(MultipartFile file) {
@@ -84,19 +193,26 @@ public class FileService {
         }
     }
 
-    //TODO
-    private void deleteExistingImage(String entityId, FileType fileType) {
-        try {
-            Path dirPath = Paths.get(uploadDir, fileType.getFolderName());
-            if (Files.exists(dirPath)) {
-                Files.list(dirPath)
-                        .filter(path -> path.getFileName().toString().startsWith(entityId + "_"))
-                        .forEach(path -> {
-                            try {
-                                Files.delete(path);
-                            } catch (IOException ignored) {}
-                        });
-            }
+    private void deleteExistingImage(String entityId, FileType fileType, String keepFileName) {
+        Path dirPath = Paths.get(uploadDir, fileType.getFolderName());
+        if (!Files.exists(dirPath)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dirPath)) {
+            files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        if (name.startsWith("mini_")) {
+                            name = name.substring("mini_".length());
+                        }
+                        return name.startsWith(entityId + "_")
+                                && !ImageFormat.JPEG.variantOf(name).equals(keepFileName);
+                    })
+                    .forEach(path -> {
+                        try {
+                            Files.delete(path);
+                            deleted(fileType, path.getFileName().toString());
+                        } catch (IOException ignored) {}
+                    });
         } catch (IOException ignored) {}
     }
 
@@ -104,11 +220,23 @@ public class FileService {
     public void deleteImage(String fileName, FileType fileType) {
         try {
             Path dirPath = Paths.get(uploadDir, fileType.getFolderName());
-            Files.deleteIfExists(dirPath.resolve(fileName));
-            Files.deleteIfExists(dirPath.resolve("mini_" + fileName));
+            for (ImageFormat format : ImageFormat.values()) {
+                String variant = format.variantOf(fileName);
+                for (String name : List.of(variant, "mini_" + variant)) {
+                    if (Files.deleteIfExists(dirPath.resolve(name))) {
+                        deleted(fileType, name);
+                    }
+                }
+            }
         } catch (IOException ignored) {}
     }
 
+    private void deleted(FileType fileType, String fileName) {
+        for (ImageDeletionListener listener : deletionListeners) {
+            listener.deleted(fileType, fileName);
+        }
+    }
+
     public String getImagePath(String fileName, FileType fileType, boolean isMini) {
         String prefix = isMini ? "mini_" : "";
         return String.format("/%s/%s/%s%s", uploadDir, fileType.getFolderName(), prefix, fileName);
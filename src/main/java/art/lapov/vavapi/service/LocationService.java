@@ -8,13 +8,18 @@ import art.lapov.vavapi.exception.LocationHasActiveStationsException;
 import art.lapov.vavapi.exception.ResourceNotFoundException;
 import art.lapov.vavapi.mapper.LocationMapper;
 import art.lapov.vavapi.mapper.StationMapper;
+import art.lapov.vavapi.metrics.Measured;
 import art.lapov.vavapi.model.Location;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.LocationRepository;
 import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -27,11 +32,15 @@ public class LocationService {
     private LocationMapper locationMapper;
     private StationRepository stationRepository;
     private StationMapper stationMapper;
+    private StationSearchIndex stationSearchIndex;
+    private InvalidationBus invalidationBus;
 
+    @Transactional(readOnly = true)
     public Page<LocationDTO> findAll(Pageable pageable) {
         return locationRepository.findAll(pageable).map(item -> locationMapper.map(item));
     }
 
+    @Transactional(readOnly = true)
     public LocationDTO findById(String id) {
         Location location = locationRepository.findById(id).orElseThrow();
         return locationMapper.map(location);
@@ -51,6 +60,7 @@ public class LocationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found with id: " + id));
         locationMapper.update(dto, location);
         Location updatedLocation = locationRepository.save(location);
+        locationChanged(id);
         return locationMapper.map(updatedLocation);
     }
 
@@ -64,8 +74,11 @@ public class LocationService {
 
         location.setDeleted(true);
         locationRepository.save(location);
+        locationChanged(id);
     }
 
+    @Measured("vavapi.locations.radius")
+    @Transactional(readOnly = true)
     public List<LocationDTO> findWithinRadius(double latitude, double longitude, double radiusKm) {
         if (radiusKm > 30 || radiusKm < 0.01) {
             radiusKm = 30;
@@ -76,6 +89,7 @@ public class LocationService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<StationDTO> findStationsByLocation(String locationId) {
         List<Station> stations = stationRepository.findByLocationIdAndEnabledTrue(locationId);
         return stations.stream()
@@ -90,12 +104,14 @@ public class LocationService {
         locationRepository.save(location);
     }
 
+    @Transactional(readOnly = true)
     public boolean isOwner(String locationId, String userId) {
         return locationRepository.findById(locationId)
                 .map(location -> location.getOwner().getId().equals(userId))
                 .orElse(false);
     }
 
+    @Transactional(readOnly = true)
     public List<LocationDTO> findByUserId(String userId) {
         List<Location> locations = locationRepository.findByOwnerIdAndDeletedIsFalse(userId);
         return locations.stream()
@@ -103,4 +119,12 @@ public class LocationService {
                 .toList();
     }
 
+
+    /**
+     * City or deletion of the location changed: its stations are reindexed here and on the other nodes
+     */
+    private void locationChanged(String id) {
+        stationSearchIndex.reindexLocation(id);
+        invalidationBus.publish(InvalidationType.LOCATION, id);
+    }
 }
@@ -6,11 +6,16 @@ import art.lapov.vavapi.dto.PricingIntervalDTO;
 import art.lapov.vavapi.dto.PricingIntervalUpdateDTO;
 import art.lapov.vavapi.exception.ResourceNotFoundException;
 import art.lapov.vavapi.mapper.PricingIntervalMapper;
+import art.lapov.vavapi.metrics.Measured;
 import art.lapov.vavapi.model.PricingInterval;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.PricingIntervalRepository;
 import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.calendar.StationCalendarService;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -24,6 +29,8 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -32,6 +39,10 @@ public class PricingIntervalService {
     private final PricingIntervalRepository pricingIntervalRepository;
     private final StationRepository stationRepository;
     private final PricingIntervalMapper pricingIntervalMapper;
+    private final StationSearchIndex stationSearchIndex;
+    private final StationCalendarService stationCalendarService;
+    private final QuoteTokenService quoteTokenService;
+    private final InvalidationBus invalidationBus;
 
     /**
      * Get all pricing intervals for a station
@@ -72,6 +83,7 @@ public class PricingIntervalService {
         pricingInterval.setStation(station);
 
         PricingInterval saved = pricingIntervalRepository.save(pricingInterval);
+        reindexPrice(station.getId());
         return pricingIntervalMapper.map(saved);
     }
 
@@ -102,6 +114,7 @@ public class PricingIntervalService {
 
         pricingIntervalMapper.update(dto, pricingInterval);
         PricingInterval updated = pricingIntervalRepository.save(pricingInterval);
+        reindexPrice(pricingInterval.getStation().getId());
         return pricingIntervalMapper.map(updated);
     }
 
@@ -120,14 +133,30 @@ public class PricingIntervalService {
         }
 
         pricingIntervalRepository.deleteById(id);
+        reindexPrice(pricingInterval.getStation().getId());
+    }
+
+    /**
+     * Lowest hourly price of the station, null without pricing intervals
+     */
+    public Integer findCheapestHourlyPrice(String stationId) {
+        return pricingIntervalRepository.findCheapestHourlyPriceByStationId(stationId);
+    }
+
+    private void reindexPrice(String stationId) {
+        stationRepository.incrementPricingVersion(stationId);
+        stationSearchIndex.updatePrice(stationId, findCheapestHourlyPrice(stationId));
+        stationCalendarService.evict(stationId);
+        invalidationBus.publish(InvalidationType.STATION, stationId);
     }
 
     /**
      * Calculate total cost for a reservation
      */
+    @Measured("vavapi.pricing.cost")
     public CostCalculationDTO calculateCost(String stationId, LocalDateTime startTime, LocalDateTime endTime) {
         // Verify station exists
-        stationRepository.findById(stationId)
+        Station station = stationRepository.findById(stationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found with id: " + stationId));
 
         // Validate reservation times
@@ -163,7 +192,9 @@ public class PricingIntervalService {
                 startTime,
                 endTime,
                 totalCostInCents,
-                durationHours
+                durationHours,
+                quoteTokenService.issue(stationId, startTime, endTime, totalCostInCents,
+                        QuoteTokenService.pricingVersion(station))
         );
     }
 
@@ -186,6 +217,39 @@ public class PricingIntervalService {
         return isTimeCoveredByIntervals(startTimeOfDay, endTimeOfDay, intervals);
     }
 
+    /**
+     * Keep the stations available during the specified time period, loading their intervals in one query
+     */
+    public List<Station> filterAvailable(List<Station> stations, LocalDateTime startTime, LocalDateTime endTime) {
+        if (stations.isEmpty()) {
+            return stations;
+        }
+        Map<String, List<PricingInterval>> intervalsByStation = pricingIntervalRepository
+                .findByStationIdInOrderByStartHour(stations.stream().map(Station::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(interval -> interval.getStation().getId()));
+
+        LocalTime startTimeOfDay = startTime.toLocalTime();
+        LocalTime endTimeOfDay = endTime.toLocalTime();
+        return stations.stream()
+                .filter(station -> {
+                    List<PricingInterval> intervals = intervalsByStation.get(station.getId());
+                    return intervals != null && isTimeCoveredByIntervals(startTimeOfDay, endTimeOfDay, intervals);
+                })
+                .toList();
+    }
+
+    /**
+     * Quote a period from intervals already loaded, null when they do not cover the period
+     */
+    public Integer quote(List<PricingInterval> intervals, LocalDateTime startTime, LocalDateTime endTime) {
+        if (intervals == null || intervals.isEmpty()
+                || !isTimeCoveredByIntervals(startTime.toLocalTime(), endTime.toLocalTime(), intervals)) {
+            return null;
+        }
+        return calculateTotalCost(intervals, startTime, endTime);
+    }
+
     // ================ PRIVATE HELPER METHODS ================
 
     private void validateTimeInterval(LocalTime startHour, LocalTime endHour) {
@@ -276,7 +340,8 @@ public class PricingIntervalService {
         return costInCents;
     }
 
-    private boolean isTimeCoveredByIntervals(LocalTime startTime, LocalTime endTime,
+    // Package-private for the pricing benchmark
+    boolean isTimeCoveredByIntervals(LocalTime startTime, LocalTime endTime,
                                              List<PricingInterval> intervals) {
         // Sort intervals by start time
         List<PricingInterval> sortedIntervals = new ArrayList<>(intervals);
@@ -0,0 +1,80 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.security.KeyManager;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Signed price quotes: {@code calculate-price} hands out a short-lived token binding the station, the period,
+ * the amount and the pricing version of the station, so a booking made with it is not priced again.
+ * Tokens are JWTs signed with the application keys, with their own audience so they are never access tokens.
+ */
+@Service
+public class QuoteTokenService {
+
+    private static final String AUDIENCE = "price-quote";
+
+    private final KeyManager keyManager;
+    private final Duration validity;
+
+    public QuoteTokenService(KeyManager keyManager,
+                             @Value("${app.quotes.validity:10m}") Duration validity) {
+        this.keyManager = keyManager;
+        this.validity = validity;
+    }
+
+    /**
+     * Sign a quote of the station for the period, at the given pricing version
+     */
+    public String issue(String stationId, LocalDateTime start, LocalDateTime end,
+                        int totalCostInCents, long pricingVersion) {
+        return JWT.create()
+                .withAudience(AUDIENCE)
+                .withSubject(stationId)
+                .withClaim("start", start.toString())
+                .withClaim("end", end.toString())
+                .withClaim("amount", totalCostInCents)
+                .withClaim("pricingVersion", pricingVersion)
+                .withExpiresAt(Instant.now().plus(validity))
+                .sign(keyManager.getAlgorithm());
+    }
+
+    /**
+     * Amount of a quote still valid for exactly this station, period and pricing version,
+     * null when the token is missing, expired, tampered with or quotes anything else
+     */
+    public Integer verify(String token, String stationId, LocalDateTime start, LocalDateTime end,
+                          long pricingVersion) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return JWT.require(keyManager.getAlgorithm())
+                    .withAudience(AUDIENCE)
+                    .withSubject(stationId)
+                    .withClaim("start", start.toString())
+                    .withClaim("end", end.toString())
+                    .withClaim("pricingVersion", pricingVersion)
+                    .build()
+                    .verify(token)
+                    .getClaim("amount")
+                    .asInt();
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pricing version of a station, stations created before versioning are at 0
+     */
+    public static long pricingVersion(Station station) {
+        return station.getPricingVersion() != null ? station.getPricingVersion() : 0L;
+    }
+}
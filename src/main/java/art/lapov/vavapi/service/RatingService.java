@@ -2,15 +2,19 @@ package art.lapov.vavapi.service;
 
 import art.lapov.vavapi.dto.RatingStatsDTO;
 import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.metrics.Measured;
 import art.lapov.vavapi.model.Review;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.ReviewRepository;
 import art.lapov.vavapi.repository.StationRepository;
 import art.lapov.vavapi.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -22,10 +26,13 @@ public class RatingService {
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final StationRepository stationRepository;
+    private final StationSearchIndex stationSearchIndex;
+    private final InvalidationBus invalidationBus;
 
     /**
      * Recalculate station rating based on reservation reviews
      */
+    @Measured(value = "vavapi.ratings.recalculate", tags = {"scope", "station"})
     public void recalculateStationRating(String stationId) {
         Station station = stationRepository.findById(stationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found"));
@@ -48,11 +55,14 @@ public class RatingService {
         }
 
         stationRepository.save(station);
+        stationSearchIndex.updateRating(stationId, station.getAverageRating());
+        invalidationBus.publish(InvalidationType.STATION, stationId);
     }
 
     /**
      * Recalculate the owner's rating based on all of their station reviews
      */
+    @Measured(value = "vavapi.ratings.recalculate", tags = {"scope", "owner"})
     public void recalculateOwnerRating(String ownerId) {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -77,23 +87,10 @@ public class RatingService {
         userRepository.save(owner);
     }
 
-    /**
-     * Recalculate ratings after changing a review
-     */
-    public void recalculateRatingsForReview(Review review) {
-        if (review.getStation() != null) {
-            recalculateStationRating(review.getStation().getId());
-
-            User stationOwner = review.getStationOwner();
-            if (stationOwner != null) {
-                recalculateOwnerRating(stationOwner.getId());
-            }
-        }
-    }
-
     /**
      * Get station rating statistics
      */
+    @Transactional(readOnly = true)
     public RatingStatsDTO getStationRatingStats(String stationId) {
         List<Review> reviews = reviewRepository.findByReservationStationId(stationId);
         return calculateRatingStats(reviews);
@@ -102,12 +99,14 @@ public class RatingService {
     /**
      * Get the owner's rating statistics (for all his stations)
      */
+    @Transactional(readOnly = true)
     public RatingStatsDTO getOwnerRatingStats(String ownerId) {
         List<Review> reviews = reviewRepository.findByStationOwner(ownerId);
         return calculateRatingStats(reviews);
     }
 
-    private RatingStatsDTO calculateRatingStats(List<Review> reviews) {
+    // Package-private for the rating benchmark
+    RatingStatsDTO calculateRatingStats(List<Review> reviews) {
         if (reviews.isEmpty()) {
             return new RatingStatsDTO(0.0, 0, new int[]{0, 0, 0, 0, 0});
         }
@@ -0,0 +1,238 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.model.RefreshToken;
+import art.lapov.vavapi.repository.RefreshTokenRepository;
+import art.lapov.vavapi.service.jobs.JobLeases;
+import art.lapov.vavapi.utils.UuidUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Refresh tokens held in memory, keyed by the SHA-256 of the token: issuing a token is a map operation,
+ * the {@code refresh_token} inserts are written behind in batches.
+ * <p>
+ * Only the hash is stored. Tokens missing from memory (issued before a restart or by another instance)
+ * are looked up in the table, including legacy rows whose id is the raw token.
+ * <p>
+ * Consuming a token deletes its row right away and the node deleting it wins: the table, not the memory
+ * of one node, decides that a token is used once. A token of this node whose insert is not flushed yet
+ * is flushed first. A token issued by another node is unknown here until that node flushes it,
+ * at most the flush interval later: it is rejected meanwhile, like any unknown token.
+ */
+@Slf4j
+@Service
+public class RefreshTokenStore {
+
+    private static final String INSERT = "INSERT INTO refresh_token (id, expires_at, user_id) VALUES (?, ?, ?)";
+    private static final String DELETE = "DELETE FROM refresh_token WHERE id = ?";
+    private static final String PURGE_JOB = "refresh-token-purge";
+    private static final String DELETE_EXPIRED = "DELETE FROM refresh_token WHERE expires_at < ? LIMIT ?";
+
+    private final RefreshTokenRepository tokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeases jobLeases;
+    private final Duration validity;
+    private final Duration cleanupInterval;
+    private final int batchSize;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final Queue<Write> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    public RefreshTokenStore(RefreshTokenRepository tokenRepository,
+                             JdbcTemplate jdbcTemplate,
+                             JobLeases jobLeases,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.refresh-tokens.validity:30d}") Duration validity,
+                             @Value("${app.refresh-tokens.cleanup-interval:1h}") Duration cleanupInterval,
+                             @Value("${app.refresh-tokens.batch-size:500}") int batchSize) {
+        this.tokenRepository = tokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLeases = jobLeases;
+        this.validity = validity;
+        this.cleanupInterval = cleanupInterval;
+        this.batchSize = batchSize;
+        Gauge.builder("vavapi.auth.refresh-tokens.cached", tokens, Map::size)
+                .description("Refresh tokens held in memory")
+                .register(meterRegistry);
+        Gauge.builder("vavapi.auth.refresh-tokens.pending-writes", pendingWrites, Queue::size)
+                .description("Refresh token inserts not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Issue a new token for the user
+     *
+     * @return the token to hand to the client, never stored as is
+     */
+    public String issue(String userId, String username) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String hash = hash(token);
+
+        Entry entry = new Entry(userId, username, LocalDateTime.now().plus(validity));
+        tokens.put(hash, entry);
+        pendingWrites.add(new Write(hash, entry));
+        return token;
+    }
+
+    /**
+     * Consume a token: it is valid once
+     *
+     * @return the owner of the token, empty if unknown, already used or expired
+     */
+    public Optional<Entry> consume(String token) {
+        String hash = hash(token);
+        Entry entry = tokens.remove(hash);
+        String id = hash;
+        boolean issuedHere = entry != null;
+
+        if (entry == null) {
+            Optional<RefreshToken> stored = tokenRepository.findById(hash)
+                    .or(() -> tokenRepository.findById(token));
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            id = stored.get().getId();
+            entry = new Entry(stored.get().getUser().getId(), stored.get().getUser().getUsername(),
+                    stored.get().getExpiresAt());
+        }
+
+        // Whoever deletes the row consumes the token, on any node
+        if (!delete(id)) {
+            if (!issuedHere) {
+                return Optional.empty();
+            }
+            // The insert may still be pending or in flight
+            flush();
+            if (!delete(id)) {
+                return Optional.empty();
+            }
+        }
+        return entry.isExpired() ? Optional.empty() : Optional.of(entry);
+    }
+
+    /**
+     * Write pending inserts, in issue order. Also called before consuming a token not flushed yet,
+     * synchronized so that call returns once the inserts in flight are written.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.flush-interval:1s}")
+    public synchronized void flush() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        Write write;
+        while ((write = pendingWrites.poll()) != null) {
+            batch.add(write);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Delete expired tokens from memory and, by chunks, from the table (indexed on {@code expires_at}).
+     * The table is purged by one node per interval, the one taking the job lease.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.cleanup-interval:1h}")
+    public void purgeExpired() {
+        tokens.values().removeIf(Entry::isExpired);
+        if (jobLeases.tryAcquire(PURGE_JOB, cleanupInterval).isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_EXPIRED, now, batchSize);
+            deleted += chunk;
+        } while (chunk == batchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+    }
+
+    private void write(List<Write> batch) {
+        List<Object[]> inserts = batch.stream()
+                .map(write -> new Object[]{write.id(), Timestamp.valueOf(write.entry().expiresAt()),
+                        UuidUtil.toBytes(write.entry().userId())})
+                .toList();
+        try {
+            jdbcTemplate.batchUpdate(INSERT, inserts);
+        } catch (DataAccessException e) {
+            // A user deleted meanwhile fails its inserts: retry one by one, dropping the failing inserts
+            log.warn("Refresh token batch failed, writing {} rows one by one: {}", batch.size(), e.getMessage());
+            for (Object[] insert : inserts) {
+                try {
+                    jdbcTemplate.update(INSERT, insert);
+                } catch (DataAccessException failed) {
+                    log.warn("Refresh token insert {} failed: {}", insert[0], failed.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether this call deleted the row
+     */
+    private boolean delete(String id) {
+        return jdbcTemplate.update(DELETE, id) == 1;
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Owner and expiry of a token
+     */
+    public record Entry(String userId, String username, LocalDateTime expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Pending insert of the row {@code id}
+     */
+    private record Write(String id, Entry entry) {
+    }
+}
@@ -0,0 +1,117 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.dto.ReservationCreateDTO;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.StationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admission of a booking request on one snapshot of the station, read in a single query:
+ * station, location, owner, pricing intervals and the number of blocking reservations over the period.
+ * Validation, availability, coverage and pricing then run in memory, in the order of the former checks;
+ * a valid quote token from calculate-price replaces coverage and pricing.
+ */
+@Component
+@AllArgsConstructor
+public class ReservationAdmission {
+
+    private final StationRepository stationRepository;
+    private final PricingIntervalService pricingIntervalService;
+    private final QuoteTokenService quoteTokenService;
+
+    /**
+     * Check a booking request and build the reservation to insert
+     */
+    public Reservation admit(ReservationCreateDTO dto, User client) {
+        List<Object[]> rows = stationRepository.findAdmissionSnapshot(dto.getStationId(), dto.getStartDate(), dto.getEndDate());
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Station not found");
+        }
+        Snapshot snapshot = new Snapshot((Station) rows.get(0)[0], ((Number) rows.get(0)[1]).longValue());
+        return admit(snapshot, dto, client, LocalDateTime.now());
+    }
+
+    Reservation admit(Snapshot snapshot, ReservationCreateDTO dto, User client, LocalDateTime now) {
+        Station station = snapshot.station();
+
+        if (Boolean.FALSE.equals(station.getEnabled())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Station is not available for reservations");
+        }
+
+        validateReservationDates(dto.getStartDate(), dto.getEndDate(), now);
+
+        if (snapshot.blockingReservations() > 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Station is already booked for this time period");
+        }
+
+        // A quote signed at the current pricing version was already checked for coverage and priced,
+        // otherwise coverage and cost on the intervals of the snapshot
+        Integer totalCostInCents = quoteTokenService.verify(dto.getQuoteToken(), station.getId(),
+                dto.getStartDate(), dto.getEndDate(), QuoteTokenService.pricingVersion(station));
+        if (totalCostInCents == null) {
+            totalCostInCents = pricingIntervalService.quote(station.getPricingIntervals(),
+                    dto.getStartDate(), dto.getEndDate());
+        }
+        if (totalCostInCents == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "No pricing defined for selected time period");
+        }
+
+        Reservation reservation = new Reservation();
+        reservation.setStation(station);
+        reservation.setClient(client);
+        reservation.setStartDate(dto.getStartDate());
+        reservation.setEndDate(dto.getEndDate());
+        reservation.setTotalCostInCents(totalCostInCents);
+        reservation.setStatus(ReservationStatus.CREATED);
+        // NO PAYMENT YET - payment will be created after owner approval
+        return reservation;
+    }
+
+    private void validateReservationDates(LocalDateTime startDate, LocalDateTime endDate, LocalDateTime now) {
+        if (startDate == null || endDate == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Start and end dates are required");
+        }
+
+        if (startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Start date must be before end date");
+        }
+
+        if (startDate.isBefore(now)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot make reservations in the past");
+        }
+
+        // Minimum reservation duration (59 minutes)
+        if (startDate.plusMinutes(59).isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Minimum reservation duration is 59 minutes");
+        }
+
+        // For MVP: reservations cannot cross midnight (must be within same day)
+        if (!startDate.toLocalDate().equals(endDate.toLocalDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Reservations cannot span multiple days. Please create separate reservations for each day.");
+        }
+    }
+
+    /**
+     * The station with its location, owner and pricing intervals, and the blocking reservations over the period
+     */
+    record Snapshot(Station station, long blockingReservations) {
+    }
+}
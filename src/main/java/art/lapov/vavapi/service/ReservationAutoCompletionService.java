@@ -3,26 +3,51 @@ package art.lapov.vavapi.service;
 import art.lapov.vavapi.enums.ReservationStatus;
 import art.lapov.vavapi.model.Reservation;
 import art.lapov.vavapi.repository.ReservationRepository;
-import lombok.RequiredArgsConstructor;
+import art.lapov.vavapi.service.jobs.JobLeases;
+import art.lapov.vavapi.service.jobs.Shard;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
  * Service responsible for automatic reservation status management
  * Runs periodically to check and update reservation statuses
+ * <p>
+ * The backlog is split into shards by station id, held through job leases: with several nodes,
+ * each one completes the reservations of its own shards only, and a completion is written
+ * only while the node still holds the shard (fencing token).
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ReservationAutoCompletionService {
 
+    static final String JOB = "reservation-completion";
+    // Shard suffixes are hex digits, matched against the last bytes of the binary station id
+    private static final HexFormat HEX = HexFormat.of();
+
     private final ReservationRepository reservationRepository;
     private final MailService mailService;
+    private final JobLeases jobLeases;
+    private final int shards;
+    private final Duration lease;
+
+    public ReservationAutoCompletionService(ReservationRepository reservationRepository,
+                                            MailService mailService,
+                                            JobLeases jobLeases,
+                                            @Value("${app.jobs.reservation-completion.shards:8}") int shards,
+                                            @Value("${app.jobs.reservation-completion.lease:45m}") Duration lease) {
+        this.reservationRepository = reservationRepository;
+        this.mailService = mailService;
+        this.jobLeases = jobLeases;
+        this.shards = shards;
+        this.lease = lease;
+    }
 
     /**
      * Main scheduled task - runs every 15 minutes
@@ -30,25 +55,42 @@ public class ReservationAutoCompletionService {
      * This is the PRIMARY mechanism for automatic completion
      */
     @Scheduled(fixedDelay = 900000) // Every 15 minutes (900,000 ms)
-    @Transactional
     public void completeEndedReservations() {
         log.debug("Running automatic reservation completion check...");
 
+        List<Shard> held = jobLeases.acquireShards(JOB, shards, lease);
+        if (held.isEmpty()) {
+            log.debug("No completion shard held by node {}", jobLeases.getNodeId());
+            return;
+        }
+
         LocalDateTime now = LocalDateTime.now();
+        for (Shard shard : held) {
+            completeShard(shard, now);
+        }
+    }
 
-        // Find all PAID reservations where end time has passed
+    private void completeShard(Shard shard, LocalDateTime now) {
+        // Find all PAID reservations of the shard where end time has passed
         List<Reservation> reservationsToComplete = reservationRepository
-                .findReservationsToComplete(now);
+                .findReservationsToCompleteInShard(now, HEX.parseHex(shard.from()),
+                        shard.to() == null ? null : HEX.parseHex(shard.to()));
 
         if (!reservationsToComplete.isEmpty()) {
-            log.info("Found {} reservations to automatically complete", reservationsToComplete.size());
+            log.info("Found {} reservations to automatically complete in shard {}/{}",
+                    reservationsToComplete.size(), shard.index(), shard.count());
 
             int successCount = 0;
             for (Reservation reservation : reservationsToComplete) {
                 try {
-                    // Change status from PAID to COMPLETED
-                    reservation.setStatus(ReservationStatus.COMPLETED);
-                    reservationRepository.save(reservation);
+                    // Change status from PAID to COMPLETED, unless it changed since it was read
+                    // or the shard was taken over by another node
+                    if (reservationRepository.compareAndSetStatusFenced(reservation.getId(),
+                            reservation.getStatus(), ReservationStatus.COMPLETED,
+                            shard.lease().name(), shard.lease().fencingToken()) == 0) {
+                        log.info("Reservation {} changed concurrently or shard lost, not completed", reservation.getId());
+                        continue;
+                    }
 
                     successCount++;
                     log.info("Automatically completed reservation: {} (Client: {}, Station: {}, End: {})",
@@ -70,4 +112,4 @@ public class ReservationAutoCompletionService {
         }
     }
 
-}
\ No newline at end of file
+}
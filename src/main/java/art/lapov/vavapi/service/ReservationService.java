@@ -1,30 +1,37 @@
 package art.lapov.vavapi.service;
 
-import art.lapov.vavapi.dto.CostCalculationDTO;
 import art.lapov.vavapi.dto.PaymentDetailsDTO;
 import art.lapov.vavapi.dto.ReservationCreateDTO;
 import art.lapov.vavapi.dto.ReservationDTO;
 import art.lapov.vavapi.enums.ReservationStatus;
 import art.lapov.vavapi.exception.ResourceNotFoundException;
 import art.lapov.vavapi.mapper.ReservationMapper;
+import art.lapov.vavapi.metrics.Measured;
 import art.lapov.vavapi.model.*;
 import art.lapov.vavapi.repository.PaymentRepository;
 import art.lapov.vavapi.repository.ReservationRepository;
 import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.calendar.StationCalendarService;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class ReservationService {
@@ -32,62 +39,32 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final StationRepository stationRepository;
     private final PaymentRepository paymentRepository;
-    private final PricingIntervalService pricingIntervalService;
     private final ReservationMapper reservationMapper;
     private final MailService mailService;
+    private final StationCalendarService stationCalendarService;
+    private final ReservationAdmission reservationAdmission;
+    private final ReservationTransitions reservationTransitions;
+    private final InvalidationBus invalidationBus;
 
     /**
      * Create a new reservation request (NOT PAID YET)
      */
     @Transactional
+    @Measured("vavapi.reservations.create")
     public ReservationDTO createReservation(ReservationCreateDTO dto, User client) {
-        // 1. Validate station exists
-        Station station = stationRepository.findById(dto.getStationId())
-                .orElseThrow(() -> new ResourceNotFoundException("Station not found"));
-
-        // 2. Validate station is enabled
-        if (Boolean.FALSE.equals(station.getEnabled())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Station is not available for reservations");
-        }
-
-        // 3. Validate dates
-        validateReservationDates(dto.getStartDate(), dto.getEndDate());
-
-        // 4. Check station availability (NO OTHER RESERVATIONS)
-        if (!isStationAvailable(dto.getStationId(), dto.getStartDate(), dto.getEndDate())) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "Station is already booked for this time period");
-        }
-
-        // 5. Check pricing intervals exist for this time
-        if (!pricingIntervalService.isStationAvailable(dto.getStationId(),
-                dto.getStartDate(), dto.getEndDate())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "No pricing defined for selected time period");
-        }
-
-        // 6. Calculate cost (for information only, payment will be after approval)
-        CostCalculationDTO costCalculation = pricingIntervalService.calculateCost(
-                dto.getStationId(), dto.getStartDate(), dto.getEndDate());
-
-        // 7. Create reservation WITHOUT payment
-        Reservation reservation = new Reservation();
-        reservation.setStation(station);
-        reservation.setClient(client);
-        reservation.setStartDate(dto.getStartDate());
-        reservation.setEndDate(dto.getEndDate());
-        reservation.setTotalCostInCents(costCalculation.getTotalCostInCents());
-        reservation.setStatus(ReservationStatus.CREATED);
-        // NO PAYMENT YET - payment will be created after owner approval
-
-        Reservation saved = reservationRepository.save(reservation);
-
-        // 8. Notify owner about new reservation request
-        mailService.sendNewReservationRequest(station.getLocation().getOwner(), saved);
-
-        // 9. Send confirmation to client that request was received
-        mailService.sendReservationRequestReceived(client, saved);
+        // Station, pricing intervals and conflicts read once, checked and priced in memory
+        Reservation saved = reservationRepository.save(reservationAdmission.admit(dto, client));
+
+        // Notifications go out once the booking is committed, outside the transaction
+        Station station = saved.getStation();
+        AfterCommit.run(() -> {
+            try {
+                mailService.sendNewReservationRequest(station.getLocation().getOwner(), saved);
+                mailService.sendReservationRequestReceived(client, saved);
+            } catch (MailException e) {
+                log.warn("Reservation {} created, notification failed: {}", saved.getId(), e.getMessage());
+            }
+        });
 
         return reservationMapper.map(saved);
     }
@@ -97,36 +74,17 @@ public class ReservationService {
      * After acceptance, client needs to pay
      */
     @Transactional
+    @Measured("vavapi.reservations.accept")
     public ReservationDTO acceptReservation(String reservationId, User owner) {
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+        // Owner, status and availability are checked by the conditional update itself
+        reservationTransitions.accept(reservationId, owner, LocalDateTime.now());
 
-        // Verify owner
-        if (!reservation.getStation().getLocation().getOwner().getId().equals(owner.getId())) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Only station owner can accept reservations");
-        }
-
-        // Check status
-        if (reservation.getStatus() != ReservationStatus.CREATED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Reservation cannot be accepted in current status: " + reservation.getStatus());
-        }
-
-        // Double-check availability (in case of concurrent reservations)
-        if (!isStationAvailableExcluding(reservation.getStation().getId(),
-                reservation.getStartDate(), reservation.getEndDate(), reservationId)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "Station is no longer available for this time period");
-        }
-
-        reservation.setStatus(ReservationStatus.ACCEPTED);
-        reservation.setAcceptedAt(LocalDateTime.now());
-
-        Reservation updated = reservationRepository.save(reservation);
+        Reservation updated = findGraph(reservationId);
+        stationCalendarService.update(updated);
+        bookingsChanged(updated);
 
         // Notify client to proceed with payment
-        mailService.sendReservationAcceptedPleasePayRequest(reservation.getClient(), updated);
+        notifyAfterCommit(updated, () -> mailService.sendReservationAcceptedPleasePayRequest(updated.getClient(), updated));
 
         return reservationMapper.map(updated);
     }
@@ -135,9 +93,9 @@ public class ReservationService {
      * Process payment for accepted reservation (by client)
      */
     @Transactional
+    @Measured("vavapi.reservations.payment")
     public ReservationDTO processPayment(String reservationId, User client, PaymentDetailsDTO paymentDetails) {
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+        Reservation reservation = findGraph(reservationId);
 
         // Verify client
         if (!reservation.getClient().getId().equals(client.getId())) {
@@ -152,7 +110,8 @@ public class ReservationService {
         }
 
         // Check if not too late (e.g., reservation start time hasn't passed)
-        if (LocalDateTime.now().isAfter(reservation.getStartDate())) {
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isAfter(reservation.getStartDate())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Cannot pay for reservation that has already started");
         }
@@ -160,14 +119,11 @@ public class ReservationService {
         // Process payment
         Payment payment = processPaymentGateway(paymentDetails, reservation.getTotalCostInCents());
 
-        // Update reservation
-        reservation.setPayment(payment);
-        reservation.setStatus(ReservationStatus.PAID);
-        reservation.setPaidAt(LocalDateTime.now());
-
-        Reservation updated = reservationRepository.save(reservation);
+        // Still ACCEPTED when the payment is attached, otherwise the payment is rolled back
+        reservationTransitions.pay(reservation, payment, now);
+        stationCalendarService.update(reservation);
 
-        return reservationMapper.map(updated);
+        return reservationMapper.map(reservation);
     }
 
     /**
@@ -211,28 +167,15 @@ public class ReservationService {
      */
     @Transactional
     public ReservationDTO rejectReservation(String reservationId, User owner) {
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
-
-        // Verify owner
-        if (!reservation.getStation().getLocation().getOwner().getId().equals(owner.getId())) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Only station owner can reject reservations");
-        }
-
-        // Check status - can only reject CREATED (not yet accepted)
-        if (reservation.getStatus() != ReservationStatus.CREATED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Can only reject reservations with CREATED status. Current: " + reservation.getStatus());
-        }
-
-        reservation.setStatus(ReservationStatus.REJECTED);
+        // Can only reject CREATED (not yet accepted), checked with the owner by the conditional update
+        reservationTransitions.reject(reservationId, owner);
         // No payment to refund as it wasn't paid yet
 
-        Reservation updated = reservationRepository.save(reservation);
+        Reservation updated = findGraph(reservationId);
+        stationCalendarService.update(updated);
 
         // Notify client
-        mailService.sendReservationRejected(reservation.getClient(), updated);
+        notifyAfterCommit(updated, () -> mailService.sendReservationRejected(updated.getClient(), updated));
 
         return reservationMapper.map(updated);
     }
@@ -243,8 +186,7 @@ public class ReservationService {
      */
     @Transactional
     public void cancelReservation(String reservationId, User client) {
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+        Reservation reservation = findGraph(reservationId);
 
         // Verify client
         if (!reservation.getClient().getId().equals(client.getId())) {
@@ -256,12 +198,16 @@ public class ReservationService {
         switch (reservation.getStatus()) {
             case CREATED, ACCEPTED:
                 // Not paid yet, simple cancellation
-                reservation.setStatus(ReservationStatus.CANCELLED);
-                reservationRepository.save(reservation);
+                boolean wasBlocking = reservation.getStatus() == ReservationStatus.ACCEPTED;
+                reservationTransitions.move(reservation, ReservationStatus.CANCELLED);
+                stationCalendarService.update(reservation);
+                if (wasBlocking) {
+                    bookingsChanged(reservation);
+                }
 
                 // Notify owner
-                mailService.sendReservationCancelled(
-                        reservation.getStation().getLocation().getOwner(), reservation);
+                notifyAfterCommit(reservation, () -> mailService.sendReservationCancelled(
+                        reservation.getStation().getLocation().getOwner(), reservation));
                 break;
 
             case PAID:
@@ -269,7 +215,8 @@ public class ReservationService {
                 LocalDateTime cancellationDeadline = reservation.getStartDate().minusHours(24);
                 boolean fullRefund = LocalDateTime.now().isBefore(cancellationDeadline);
 
-                reservation.setStatus(ReservationStatus.CANCELLED);
+                // Cancelled first: a concurrent transition wins before anything is refunded
+                reservationTransitions.move(reservation, ReservationStatus.CANCELLED);
 
                 if (fullRefund) {
                     processRefund(reservation.getPayment(), "Full refund - cancelled 24h+ before start");
@@ -278,7 +225,8 @@ public class ReservationService {
                     processPartialRefund(reservation.getPayment(), 50, "Late cancellation - 50% refund");
                 }
 
-                reservationRepository.save(reservation);
+                stationCalendarService.update(reservation);
+                bookingsChanged(reservation);
 
                 break;
 
@@ -293,22 +241,8 @@ public class ReservationService {
      */
     @Transactional
     public void completeReservation(String reservationId) {
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
-
-        if (reservation.getStatus() != ReservationStatus.PAID) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Cannot complete reservation with status: " + reservation.getStatus());
-        }
-
-        // Check if end time has passed
-        if (LocalDateTime.now().isBefore(reservation.getEndDate())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Cannot complete reservation before end time");
-        }
-
-        reservation.setStatus(ReservationStatus.COMPLETED);
-        reservationRepository.save(reservation);
+        // PAID and ended, in a single update; the station calendar is unchanged (both statuses block it)
+        reservationTransitions.complete(reservationId, LocalDateTime.now());
     }
 
     /**
@@ -335,33 +269,30 @@ public class ReservationService {
 
     // ============= PRIVATE HELPER METHODS =============
 
-    private void validateReservationDates(LocalDateTime startDate, LocalDateTime endDate) {
-        if (startDate == null || endDate == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Start and end dates are required");
-        }
-
-        if (startDate.isAfter(endDate)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Start date must be before end date");
-        }
-
-        if (startDate.isBefore(LocalDateTime.now())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Cannot make reservations in the past");
-        }
+    private Reservation findGraph(String reservationId) {
+        return reservationRepository.findGraphById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+    }
 
-        // Minimum reservation duration (59 minutes)
-        if (startDate.plusMinutes(59).isAfter(endDate)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Minimum reservation duration is 59 minutes");
-        }
+    /**
+     * The reservation started or stopped blocking its station: the other nodes drop their calendar of it
+     */
+    private void bookingsChanged(Reservation reservation) {
+        invalidationBus.publish(InvalidationType.STATION_BOOKINGS, reservation.getStation().getId());
+    }
 
-        // For MVP: reservations cannot cross midnight (must be within same day)
-        if (!startDate.toLocalDate().equals(endDate.toLocalDate())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Reservations cannot span multiple days. Please create separate reservations for each day.");
-        }
+    /**
+     * Send a notification once the transition is committed, so the updated row is not locked meanwhile
+     */
+    private void notifyAfterCommit(Reservation reservation, Runnable notification) {
+        AfterCommit.run(() -> {
+            try {
+                notification.run();
+            } catch (MailException e) {
+                log.warn("Reservation {} is {}, notification failed: {}",
+                        reservation.getId(), reservation.getStatus(), e.getMessage());
+            }
+        });
     }
 
     private Payment processPaymentGateway(PaymentDetailsDTO paymentDetails, Integer amountInCents) {
@@ -415,6 +346,18 @@ public class ReservationService {
                 .map(reservationMapper::map);
     }
 
+    /**
+     * Get paid/completed reservations (as client or owner) for a receipt export.
+     * Mapped to DTOs inside the transaction so they can be rendered off the request thread.
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationDTO> getReceiptReservations(User me, LocalDate from, LocalDate to) {
+        return reservationRepository.findReceiptsForUserInPeriod(me, from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                .stream()
+                .map(reservationMapper::map)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public Reservation getOwnedOrClientReservation(String reservationId, User me) {
         return reservationRepository.findVisibleToUser(reservationId, me.getId())
@@ -0,0 +1,128 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.model.Payment;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reservation status machine, each transition a single conditional UPDATE:
+ * the row moves only if it is still in the expected status (and owned by the caller), so concurrent
+ * transitions cannot both win. When no row moves, the reservation is read to report why,
+ * with the errors of the former load-check-save transitions.
+ * <p>
+ * Transitions applied to a reservation already loaded detach it and copy the new state onto it,
+ * so the entity is never written back as a whole.
+ */
+@Component
+@AllArgsConstructor
+public class ReservationTransitions {
+
+    private final ReservationRepository reservationRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * CREATED to ACCEPTED by the owner of the station, refused when a blocking reservation overlaps it.
+     * The station row is locked first: a concurrent acceptance on the same station waits for this
+     * transaction, then its overlap check sees this reservation accepted.
+     */
+    public void accept(String reservationId, User owner, LocalDateTime now) {
+        reservationRepository.lockStation(reservationId);
+        if (reservationRepository.accept(reservationId, owner.getId(), now) == 0) {
+            Reservation reservation = find(reservationId);
+            checkOwner(reservation, owner, "Only station owner can accept reservations");
+            if (reservation.getStatus() != ReservationStatus.CREATED) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Reservation cannot be accepted in current status: " + reservation.getStatus());
+            }
+            throw concurrentChange();
+        }
+        // Checked under the station lock, after the update which the exception rolls back
+        if (reservationRepository.countBlockingOverlaps(reservationId) > 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Station is no longer available for this time period");
+        }
+    }
+
+    /**
+     * CREATED to REJECTED by the owner of the station
+     */
+    public void reject(String reservationId, User owner) {
+        if (reservationRepository.reject(reservationId, owner.getId()) == 0) {
+            Reservation reservation = find(reservationId);
+            checkOwner(reservation, owner, "Only station owner can reject reservations");
+            if (reservation.getStatus() != ReservationStatus.CREATED) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Can only reject reservations with CREATED status. Current: " + reservation.getStatus());
+            }
+            throw concurrentChange();
+        }
+    }
+
+    /**
+     * PAID to COMPLETED once the reservation has ended, without loading it
+     */
+    public void complete(String reservationId, LocalDateTime now) {
+        if (reservationRepository.complete(reservationId, now) == 0) {
+            Reservation reservation = find(reservationId);
+            if (reservation.getStatus() != ReservationStatus.PAID) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cannot complete reservation with status: " + reservation.getStatus());
+            }
+            if (now.isBefore(reservation.getEndDate())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cannot complete reservation before end time");
+            }
+            throw concurrentChange();
+        }
+    }
+
+    /**
+     * ACCEPTED to PAID with its payment, for a reservation loaded and checked by the caller
+     */
+    public void pay(Reservation reservation, Payment payment, LocalDateTime now) {
+        if (reservationRepository.markPaid(reservation.getId(), payment, now) == 0) {
+            throw concurrentChange();
+        }
+        entityManager.detach(reservation);
+        reservation.setStatus(ReservationStatus.PAID);
+        reservation.setPaidAt(now);
+        reservation.setPayment(payment);
+    }
+
+    /**
+     * Move a loaded reservation from the status it was read in to {@code next}
+     */
+    public void move(Reservation reservation, ReservationStatus next) {
+        if (reservationRepository.compareAndSetStatus(reservation.getId(), reservation.getStatus(), next) == 0) {
+            throw concurrentChange();
+        }
+        entityManager.detach(reservation);
+        reservation.setStatus(next);
+    }
+
+    private Reservation find(String reservationId) {
+        return reservationRepository.findGraphById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+    }
+
+    private static void checkOwner(Reservation reservation, User owner, String message) {
+        if (!reservation.getStation().getLocation().getOwner().getId().equals(owner.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, message);
+        }
+    }
+
+    private static ResponseStatusException concurrentChange() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Reservation was modified concurrently, please retry");
+    }
+}
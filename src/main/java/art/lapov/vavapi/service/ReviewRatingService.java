@@ -0,0 +1,36 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.metrics.Measured;
+import art.lapov.vavapi.model.Review;
+import art.lapov.vavapi.model.User;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the station and owner ratings in line with their reviews.
+ * A separate bean so the station and owner recalculations go through the {@link RatingService} proxy
+ * and are measured on their own.
+ */
+@Service
+@AllArgsConstructor
+@Transactional
+public class ReviewRatingService {
+
+    private final RatingService ratingService;
+
+    /**
+     * Recalculate ratings after changing a review
+     */
+    @Measured(value = "vavapi.ratings.recalculate", tags = {"scope", "review"})
+    public void recalculateRatingsForReview(Review review) {
+        if (review.getStation() != null) {
+            ratingService.recalculateStationRating(review.getStation().getId());
+
+            User stationOwner = review.getStationOwner();
+            if (stationOwner != null) {
+                ratingService.recalculateOwnerRating(stationOwner.getId());
+            }
+        }
+    }
+}
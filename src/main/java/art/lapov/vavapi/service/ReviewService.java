@@ -16,6 +16,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -27,7 +28,7 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ReservationRepository reservationRepository;
     private final ReviewMapper reviewMapper;
-    private final RatingService ratingService;
+    private final ReviewRatingService reviewRatingService;
 
     /**
      * Create a review of the reservation
@@ -62,7 +63,7 @@ public class ReviewService {
         Review savedReview = reviewRepository.save(review);
 
         // Recalculate station and owner ratings
-        ratingService.recalculateRatingsForReview(savedReview);
+        reviewRatingService.recalculateRatingsForReview(savedReview);
 
         return reviewMapper.map(savedReview);
     }
@@ -84,7 +85,7 @@ public class ReviewService {
         Review updatedReview = reviewRepository.save(review);
 
         // Recalculate station and owner ratings
-        ratingService.recalculateRatingsForReview(updatedReview);
+        reviewRatingService.recalculateRatingsForReview(updatedReview);
 
         return reviewMapper.map(updatedReview);
     }
@@ -105,12 +106,13 @@ public class ReviewService {
         reviewRepository.deleteById(id);
 
         // Пересчитать рейтинги после удаления
-        ratingService.recalculateRatingsForReview(review);
+        reviewRatingService.recalculateRatingsForReview(review);
     }
 
     /**
      * Get all user reviews
      */
+    @Transactional(readOnly = true)
     public List<ReviewDTO> findByAuthor(User author) {
         return reviewRepository.findByAuthor(author)
                 .stream()
@@ -121,6 +123,7 @@ public class ReviewService {
     /**
      * Get feedback on the station
      */
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> findByStationId(String stationId, Pageable pageable) {
         return reviewRepository.findByReservationStationId(stationId, pageable)
                 .map(reviewMapper::map);
@@ -129,6 +132,7 @@ public class ReviewService {
     /**
      * Get owner reviews (for all its stations) with pagination
      */
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> findByOwnerId(String ownerId, Pageable pageable) {
         return reviewRepository.findByStationOwner(ownerId, pageable)
                 .map(reviewMapper::map);
@@ -137,6 +141,7 @@ public class ReviewService {
     /**
      * Get feedback on the reservation
      */
+    @Transactional(readOnly = true)
     public ReviewDTO findByReservationId(String reservationId) {
         return reviewRepository.findByReservationId(reservationId)
                 .map(reviewMapper::map)
@@ -2,21 +2,31 @@ package art.lapov.vavapi.service;
 
 import art.lapov.vavapi.dto.StationCreateDTO;
 import art.lapov.vavapi.dto.StationDTO;
+import art.lapov.vavapi.dto.StationSearchResultDTO;
 import art.lapov.vavapi.dto.StationUpdateDTO;
 import art.lapov.vavapi.exception.ResourceNotFoundException;
 import art.lapov.vavapi.mapper.StationMapper;
+import art.lapov.vavapi.metrics.Measured;
 import art.lapov.vavapi.model.Location;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.LocationRepository;
 import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -26,12 +36,16 @@ public class StationService {
     private final LocationRepository locationRepository;
     private final StationMapper stationMapper;
     private final PricingIntervalService pricingIntervalService;
+    private final StationSearchIndex stationSearchIndex;
+    private final InvalidationBus invalidationBus;
 
+    @Transactional(readOnly = true)
     public Page<StationDTO> findAll(Pageable pageable) {
         return stationRepository.findAll(pageable)
                 .map(stationMapper::map);
     }
 
+    @Transactional(readOnly = true)
     public StationDTO findById(String id) {
         Station station = stationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found with id: " + id));
@@ -53,6 +67,8 @@ public class StationService {
         station.setDeleted(false);
 
         Station savedStation = stationRepository.save(station);
+        stationSearchIndex.index(savedStation, null);
+        invalidationBus.publish(InvalidationType.STATION, savedStation.getId());
         return stationMapper.map(savedStation);
     }
 
@@ -61,6 +77,8 @@ public class StationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found with id: " + id));
         stationMapper.update(dto, station);
         Station updatedStation = stationRepository.save(station);
+        stationSearchIndex.index(updatedStation, pricingIntervalService.findCheapestHourlyPrice(id));
+        invalidationBus.publish(InvalidationType.STATION, id);
         return stationMapper.map(updatedStation);
     }
 
@@ -72,8 +90,11 @@ public class StationService {
         station.setDeleted(true);
         station.setEnabled(false);
         stationRepository.save(station);
+        stationSearchIndex.index(station, null);
+        invalidationBus.publish(InvalidationType.STATION, id);
     }
 
+    @Transactional(readOnly = true)
     public List<StationDTO> findByLocationId(String locationId) {
         return stationRepository.findByLocationIdAndEnabledTrue(locationId)
                 .stream()
@@ -81,6 +102,7 @@ public class StationService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public boolean isOwner(String stationId, String userId) {
         return stationRepository.findById(stationId)
                 .map(station -> station.getLocation().getOwner().getId().equals(userId))
@@ -94,12 +116,36 @@ public class StationService {
         stationRepository.save(station);
     }
 
+    @Measured("vavapi.stations.available")
+    @Transactional(readOnly = true)
     public List<StationDTO> findAvailableByLocationAndPeriod(String locationId, LocalDateTime startDate, LocalDateTime endDate) {
-        return stationRepository.findAvailableStationsByLocationAndPeriod(locationId, startDate, endDate)
+        List<Station> stations = stationRepository.findAvailableStationsByLocationAndPeriod(locationId, startDate, endDate);
+        return pricingIntervalService.filterAvailable(stations, startDate, endDate)
                 .stream()
-                .filter(station -> pricingIntervalService.isStationAvailable(station.getId(), startDate, endDate))
                 .map(stationMapper::map)
                 .toList();
     }
 
+    /**
+     * Faceted search over the in-memory station index, stations loaded for the requested page only
+     */
+    @Measured("vavapi.stations.search")
+    @Transactional(readOnly = true)
+    public StationSearchResultDTO search(StationSearchIndex.Query query, int page, int size) {
+        StationSearchIndex.Result result = stationSearchIndex.search(query, (page - 1) * size, size);
+
+        Map<String, Station> stations = stationRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Station::getId, Function.identity()));
+        // Keep the index order, skipping stations deleted since the last refresh
+        List<StationDTO> content = result.ids().stream()
+                .map(stations::get)
+                .filter(Objects::nonNull)
+                .map(stationMapper::map)
+                .toList();
+
+        int totalPages = (int) ((result.total() + size - 1) / size);
+        return new StationSearchResultDTO(content, page, size, result.total(), totalPages,
+                result.connectorTypes(), result.cities(), result.ratings());
+    }
+
 }
@@ -8,14 +8,23 @@ import art.lapov.vavapi.mapper.UserMapper;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.repository.StationRepository;
 import art.lapov.vavapi.repository.UserRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.service.search.UserSearchIndex;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -26,6 +35,8 @@ public class UserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
+    private final UserSearchIndex userSearchIndex;
+    private final InvalidationBus invalidationBus;
 
     /**
      * Get all users with pagination
@@ -54,6 +65,8 @@ public class UserService {
 
         userMapper.update(dto, user);
         User updatedUser = userRepository.save(user);
+        userSearchIndex.index(updatedUser);
+        invalidationBus.publish(InvalidationType.USER, id);
         return userMapper.map(updatedUser);
     }
 
@@ -128,11 +141,18 @@ public class UserService {
     }
 
     /**
-     * Search users by email, first name, or last name
+     * Search users by email, first name, or last name, ranked by the in-memory {@link UserSearchIndex}
      */
     public Page<UserDTO> searchUsers(String query, Pageable pageable) {
-        return userRepository.searchUsers(query.toLowerCase(), pageable)
-                .map(userMapper::map);
+        UserSearchIndex.Result result = userSearchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<String, User> users = userRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDTO> content = result.ids().stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::map)
+                .toList();
+        return new PageImpl<>(content, pageable, result.total());
     }
 
     /**
@@ -0,0 +1,154 @@
+package art.lapov.vavapi.service.cache;
+
+import art.lapov.vavapi.service.jobs.JobLeases;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Cross-node invalidation of the in-memory caches through the append-only {@code invalidation_event} table.
+ * <p>
+ * A write publishes the type and id of the changed entity within its transaction, so an event exists
+ * if and only if the change committed. Every node tails the table in id order and passes the events of
+ * the other nodes to the {@link InvalidationListener} beans; its own writes already updated its caches.
+ * <p>
+ * Ids are allocated at insert but become visible at commit, so a missing id may still appear:
+ * the cursor stops at it while the events after it are dispatched, and moves past it after the gap timeout
+ * (rolled back transaction); until then each poll reads from the cursor, at most a batch of events.
+ * Events are kept for the retention, purged by one node per interval.
+ */
+@Slf4j
+@Service
+public class InvalidationBus {
+
+    private static final String INSERT = "INSERT INTO invalidation_event (entity_type, entity_id, origin, created_at) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String LAST = "SELECT MAX(id) FROM invalidation_event";
+    private static final String TAIL = "SELECT id, entity_type, entity_id, origin FROM invalidation_event " +
+            "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String PURGE_JOB = "invalidation-event-purge";
+    private static final String DELETE_EXPIRED = "DELETE FROM invalidation_event WHERE created_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeases jobLeases;
+    private final List<InvalidationListener> listeners;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+
+    // Poller state, guarded by this: every event up to the cursor was seen or given up,
+    // events above it already dispatched, and when each missing id above it was first noticed
+    private long cursor = -1;
+    private final NavigableSet<Long> dispatched = new TreeSet<>();
+    private final Map<Long, Long> gapsSince = new HashMap<>();
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           JobLeases jobLeases,
+                           List<InvalidationListener> listeners,
+                           @Value("${app.cache.invalidation.batch-size:500}") int batchSize,
+                           @Value("${app.cache.invalidation.gap-timeout:10s}") Duration gapTimeout,
+                           @Value("${app.cache.invalidation.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLeases = jobLeases;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+    }
+
+    /**
+     * Record that the entity changed, within the current transaction
+     */
+    public void publish(InvalidationType type, String id) {
+        jdbcTemplate.update(INSERT, type.name(), id, jobLeases.getNodeId(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Dispatch the events published by other nodes since the last poll.
+     * The first poll only positions the cursor: the caches are loaded after startup anyway.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:250ms}")
+    public synchronized void poll() {
+        if (cursor < 0) {
+            Long last = jdbcTemplate.queryForObject(LAST, Long.class);
+            cursor = last == null ? 0 : last;
+            return;
+        }
+        jdbcTemplate.query(TAIL, rs -> {
+            long id = rs.getLong(1);
+            if (dispatched.add(id) && !jobLeases.getNodeId().equals(rs.getString(4))) {
+                dispatch(rs.getString(2), rs.getString(3));
+            }
+        }, cursor, batchSize);
+        advance(System.nanoTime());
+    }
+
+    /**
+     * Delete the events older than the retention, by chunks (indexed on {@code created_at})
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.retention:1h}")
+    public void purgeExpired() {
+        if (jobLeases.tryAcquire(PURGE_JOB, retention).isEmpty()) {
+            return;
+        }
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_EXPIRED, before, batchSize);
+            deleted += chunk;
+        } while (chunk == batchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} expired invalidation events", deleted);
+        }
+    }
+
+    private void dispatch(String type, String id) {
+        InvalidationType invalidationType;
+        try {
+            invalidationType = InvalidationType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            // Published by a newer version of the application
+            log.debug("Ignored invalidation event of unknown type {}", type);
+            return;
+        }
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidated(invalidationType, id);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation of {} {} failed in {}: {}", type, id,
+                        listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void advance(long now) {
+        if (dispatched.isEmpty()) {
+            return;
+        }
+        long highest = dispatched.last();
+        while (cursor < highest) {
+            long next = cursor + 1;
+            if (!dispatched.remove(next)) {
+                long since = gapsSince.computeIfAbsent(next, id -> now);
+                if (now - since < gapTimeoutNanos) {
+                    return;
+                }
+                log.debug("Invalidation event {} not committed after the gap timeout, skipped", next);
+            }
+            gapsSince.remove(next);
+            cursor = next;
+        }
+    }
+}
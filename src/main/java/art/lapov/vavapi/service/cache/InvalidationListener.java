@@ -0,0 +1,12 @@
+package art.lapov.vavapi.service.cache;
+
+/**
+ * An in-memory cache kept in step with the writes of the other nodes through the {@link InvalidationBus}
+ */
+public interface InvalidationListener {
+
+    /**
+     * The entity was changed by another node: drop or reload what is held about it
+     */
+    void invalidated(InvalidationType type, String id);
+}
@@ -0,0 +1,26 @@
+package art.lapov.vavapi.service.cache;
+
+/**
+ * What an invalidation event is about; the id is the id of that entity
+ */
+public enum InvalidationType {
+    /**
+     * Station fields, pricing intervals or rating
+     */
+    STATION,
+
+    /**
+     * Blocking reservations of a station (the id is the station id)
+     */
+    STATION_BOOKINGS,
+
+    /**
+     * Location fields, for the stations on it
+     */
+    LOCATION,
+
+    /**
+     * User fields
+     */
+    USER
+}
@@ -0,0 +1,84 @@
+package art.lapov.vavapi.service.calendar;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quarter-hour slots of a day as a fixed-size bitmap: 96 slots in two {@code long} words, slot 0 starts at 00:00
+ */
+final class SlotBitmap {
+
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+
+    private SlotBitmap() {
+    }
+
+    static long[] empty() {
+        return new long[WORDS];
+    }
+
+    /**
+     * Set the slots {@code [from, to)}
+     */
+    static void set(long[] bitmap, int from, int to) {
+        for (int slot = Math.max(from, 0); slot < Math.min(to, SLOTS_PER_DAY); slot++) {
+            bitmap[slot >>> 6] |= 1L << slot;
+        }
+    }
+
+    static boolean get(long[] bitmap, int slot) {
+        return (bitmap[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Slots set in {@code bitmap} and not in {@code removed}
+     */
+    static long[] andNot(long[] bitmap, long[] removed) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = bitmap[i] & ~removed[i];
+        }
+        return result;
+    }
+
+    /**
+     * Runs of consecutive set slots, as {@code [from, to)} pairs
+     */
+    static List<int[]> runs(long[] bitmap) {
+        List<int[]> runs = new ArrayList<>();
+        int slot = 0;
+        while (slot < SLOTS_PER_DAY) {
+            if (!get(bitmap, slot)) {
+                slot++;
+                continue;
+            }
+            int from = slot;
+            while (slot < SLOTS_PER_DAY && get(bitmap, slot)) {
+                slot++;
+            }
+            runs.add(new int[]{from, slot});
+        }
+        return runs;
+    }
+
+    /**
+     * First slot starting at or after the minute
+     */
+    static int slotAtOrAfter(int minuteOfDay) {
+        return (minuteOfDay + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    /**
+     * Slot containing the minute
+     */
+    static int slotOf(int minuteOfDay) {
+        return minuteOfDay / SLOT_MINUTES;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,112 @@
+package art.lapov.vavapi.service.calendar;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Slot bitmaps of one station over a window of days starting at {@code firstDay}.
+ * <p>
+ * Opening hours come from the pricing intervals and are the same every day: a slot is open
+ * when an interval covers it entirely. A slot is booked when a blocking reservation overlaps it.
+ * Booking or releasing a reservation recomputes the bitmaps of the days it spans only.
+ */
+final class StationCalendar {
+
+    private final LocalDate firstDay;
+    private final long loadedAt;
+    private final long[] open;
+    private final long[][] booked;
+    private final Map<String, Window> blocking = new HashMap<>();
+
+    StationCalendar(LocalDate firstDay, int days, List<LocalTime[]> intervals, long loadedAt) {
+        this.firstDay = firstDay;
+        this.loadedAt = loadedAt;
+        this.open = SlotBitmap.empty();
+        for (LocalTime[] interval : intervals) {
+            int end = interval[1].equals(LocalTime.MIDNIGHT) || interval[1].equals(LocalTime.of(23, 59))
+                    ? SlotBitmap.SLOTS_PER_DAY * SlotBitmap.SLOT_MINUTES
+                    : SlotBitmap.minuteOfDay(interval[1]);
+            SlotBitmap.set(open, SlotBitmap.slotAtOrAfter(SlotBitmap.minuteOfDay(interval[0])),
+                    end / SlotBitmap.SLOT_MINUTES);
+        }
+        this.booked = new long[days][];
+        for (int day = 0; day < days; day++) {
+            booked[day] = SlotBitmap.empty();
+        }
+    }
+
+    LocalDate firstDay() {
+        return firstDay;
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    int days() {
+        return booked.length;
+    }
+
+    /**
+     * Add or move a blocking reservation
+     */
+    synchronized void book(String reservationId, LocalDateTime start, LocalDateTime end) {
+        Window window = new Window(start, end);
+        Window previous = blocking.put(reservationId, window);
+        if (previous != null) {
+            recompute(previous);
+        }
+        recompute(window);
+    }
+
+    /**
+     * Remove a reservation that no longer blocks the station
+     */
+    synchronized void release(String reservationId) {
+        Window previous = blocking.remove(reservationId);
+        if (previous != null) {
+            recompute(previous);
+        }
+    }
+
+    synchronized long[] open() {
+        return open.clone();
+    }
+
+    synchronized long[] booked(int day) {
+        return booked[day].clone();
+    }
+
+    private void recompute(Window changed) {
+        int from = Math.max(dayIndex(changed.start().toLocalDate()), 0);
+        int to = Math.min(dayIndex(changed.end().toLocalDate()), booked.length - 1);
+        for (int day = from; day <= to; day++) {
+            long[] bitmap = SlotBitmap.empty();
+            LocalDateTime dayStart = firstDay.plusDays(day).atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            for (Window window : blocking.values()) {
+                if (window.start().isBefore(dayEnd) && window.end().isAfter(dayStart)) {
+                    int fromSlot = window.start().isAfter(dayStart)
+                            ? SlotBitmap.slotOf(SlotBitmap.minuteOfDay(window.start().toLocalTime())) : 0;
+                    int toSlot = window.end().isBefore(dayEnd)
+                            ? SlotBitmap.slotAtOrAfter(SlotBitmap.minuteOfDay(window.end().toLocalTime()))
+                            : SlotBitmap.SLOTS_PER_DAY;
+                    SlotBitmap.set(bitmap, fromSlot, toSlot);
+                }
+            }
+            booked[day] = bitmap;
+        }
+    }
+
+    private int dayIndex(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(firstDay, date);
+    }
+
+    private record Window(LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,190 @@
+package art.lapov.vavapi.service.calendar;
+
+import art.lapov.vavapi.dto.StationCalendarDTO;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.metrics.Measured;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.AfterCommit;
+import art.lapov.vavapi.service.cache.InvalidationListener;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.utils.UuidUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Availability calendars of the stations, as quarter-hour slot bitmaps cached per station.
+ * <p>
+ * A calendar is loaded on first use (pricing intervals and blocking reservations over the horizon),
+ * then kept up to date by reservation state transitions and dropped when pricing intervals change.
+ * A calendar is also dropped when another node changes the bookings or pricing of its station,
+ * and expires after the TTL in case an invalidation event was missed.
+ * The calendar is a view for clients: booking still checks conflicts against the database.
+ */
+@Service
+public class StationCalendarService implements InvalidationListener {
+
+    static final Set<ReservationStatus> BLOCKING =
+            EnumSet.of(ReservationStatus.ACCEPTED, ReservationStatus.PAID, ReservationStatus.COMPLETED);
+
+    private static final String INTERVALS = "SELECT start_hour, end_hour FROM pricing_interval WHERE station_id = ?";
+    private static final String RESERVATIONS = "SELECT id, start_date, end_date FROM reservation " +
+            "WHERE station_id = ? AND status IN ('ACCEPTED', 'PAID', 'COMPLETED') AND start_date < ? AND end_date > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StationRepository stationRepository;
+    private final int horizonDays;
+    private final long ttlNanos;
+    private final int maxStations;
+    private final Map<String, StationCalendar> calendars = new ConcurrentHashMap<>();
+
+    public StationCalendarService(JdbcTemplate jdbcTemplate,
+                                  StationRepository stationRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.calendar.horizon-days:30}") int horizonDays,
+                                  @Value("${app.calendar.cache-ttl:10m}") Duration ttl,
+                                  @Value("${app.calendar.max-stations:10000}") int maxStations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stationRepository = stationRepository;
+        this.horizonDays = horizonDays;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStations = maxStations;
+        Gauge.builder("vavapi.calendar.cached", calendars, Map::size)
+                .description("Station calendars held in memory")
+                .register(meterRegistry);
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Free and booked slots of the station from today, for {@code days} days (at most the horizon)
+     */
+    @Measured("vavapi.calendar.read")
+    public StationCalendarDTO getCalendar(String stationId, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        StationCalendar calendar = calendar(stationId, now.toLocalDate());
+        int nowSlot = SlotBitmap.slotAtOrAfter(SlotBitmap.minuteOfDay(now.toLocalTime()));
+
+        long[] open = calendar.open();
+        List<StationCalendarDTO.Day> result = new ArrayList<>();
+        for (int day = 0; day < Math.min(days, calendar.days()); day++) {
+            LocalDate date = calendar.firstDay().plusDays(day);
+            long[] booked = calendar.booked(day);
+            long[] free = SlotBitmap.andNot(open, booked);
+            if (day == 0) {
+                // Slots already started cannot be booked any more
+                long[] started = SlotBitmap.empty();
+                SlotBitmap.set(started, 0, nowSlot);
+                free = SlotBitmap.andNot(free, started);
+            }
+            result.add(new StationCalendarDTO.Day(date, ranges(date, free), ranges(date, booked)));
+        }
+        return new StationCalendarDTO(stationId, SlotBitmap.SLOT_MINUTES, result);
+    }
+
+    /**
+     * Apply a reservation state transition to the cached calendar of its station, once the transaction commits
+     */
+    public void update(Reservation reservation) {
+        String stationId = reservation.getStation().getId();
+        String reservationId = reservation.getId();
+        boolean blocking = BLOCKING.contains(reservation.getStatus());
+        LocalDateTime start = reservation.getStartDate();
+        LocalDateTime end = reservation.getEndDate();
+        AfterCommit.run(() -> {
+            StationCalendar calendar = calendars.get(stationId);
+            if (calendar == null) {
+                return;
+            }
+            if (blocking) {
+                calendar.book(reservationId, start, end);
+            } else {
+                calendar.release(reservationId);
+            }
+        });
+    }
+
+    /**
+     * Drop the cached calendar of a station whose opening hours changed, once the transaction commits
+     */
+    public void evict(String stationId) {
+        AfterCommit.run(() -> calendars.remove(stationId));
+    }
+
+    @Override
+    public void invalidated(InvalidationType type, String id) {
+        if (type == InvalidationType.STATION || type == InvalidationType.STATION_BOOKINGS) {
+            calendars.remove(id);
+        }
+    }
+
+    private StationCalendar calendar(String stationId, LocalDate today) {
+        StationCalendar cached = calendars.get(stationId);
+        if (cached != null && cached.firstDay().equals(today) && System.nanoTime() - cached.loadedAt() < ttlNanos) {
+            return cached;
+        }
+        StationCalendar loaded = load(stationId, today);
+        if (calendars.size() >= maxStations) {
+            evictExpired();
+        }
+        calendars.put(stationId, loaded);
+        return loaded;
+    }
+
+    private StationCalendar load(String stationId, LocalDate today) {
+        if (!stationRepository.existsById(stationId)) {
+            throw new ResourceNotFoundException("Station not found with id: " + stationId);
+        }
+        byte[] station = UuidUtil.toBytes(stationId);
+        List<LocalTime[]> intervals = jdbcTemplate.query(INTERVALS,
+                (rs, row) -> new LocalTime[]{rs.getTime(1).toLocalTime(), rs.getTime(2).toLocalTime()}, station);
+        StationCalendar calendar = new StationCalendar(today, horizonDays, intervals, System.nanoTime());
+
+        Timestamp from = Timestamp.valueOf(today.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(today.plusDays(horizonDays).atStartOfDay());
+        jdbcTemplate.query(RESERVATIONS, rs -> {
+            calendar.book(UuidUtil.fromBytes(rs.getBytes(1)),
+                    rs.getTimestamp(2).toLocalDateTime(), rs.getTimestamp(3).toLocalDateTime());
+        }, station, to, from);
+        return calendar;
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        calendars.values().removeIf(calendar -> now - calendar.loadedAt() >= ttlNanos);
+        // Still full: drop arbitrary entries, they are reloaded on demand
+        Iterator<String> keys = calendars.keySet().iterator();
+        while (calendars.size() >= maxStations && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static List<StationCalendarDTO.TimeRange> ranges(LocalDate date, long[] bitmap) {
+        LocalDateTime midnight = date.atStartOfDay();
+        return SlotBitmap.runs(bitmap).stream()
+                .map(run -> new StationCalendarDTO.TimeRange(
+                        midnight.plusMinutes((long) run[0] * SlotBitmap.SLOT_MINUTES),
+                        midnight.plusMinutes((long) run[1] * SlotBitmap.SLOT_MINUTES)))
+                .toList();
+    }
+}
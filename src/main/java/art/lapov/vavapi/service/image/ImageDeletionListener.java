@@ -0,0 +1,15 @@
+package art.lapov.vavapi.service.image;
+
+import art.lapov.vavapi.enums.FileType;
+
+/**
+ * Told about the image files deleted by the {@link art.lapov.vavapi.service.FileService},
+ * e.g. to drop what is cached about them
+ */
+public interface ImageDeletionListener {
+
+    /**
+     * The file was deleted from the folder of its type
+     */
+    void deleted(FileType fileType, String fileName);
+}
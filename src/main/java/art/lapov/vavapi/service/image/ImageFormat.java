@@ -0,0 +1,38 @@
+package art.lapov.vavapi.service.image;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats an upload can be rendered to, in order of preference when serving.
+ * JPEG is always written; the other formats are written when an ImageIO writer is registered for them.
+ */
+public enum ImageFormat {
+    AVIF("avif", "image/avif"),
+    WEBP("webp", "image/webp"),
+    JPEG("jpg", "image/jpeg");
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ImageFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Name of this format's rendition for a stored file name, e.g. {@code abc.jpg -> abc.webp}
+     */
+    public String variantOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot < 0 ? fileName : fileName.substring(0, dot);
+        return base + "." + extension;
+    }
+}
@@ -0,0 +1,47 @@
+package art.lapov.vavapi.service.image;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of an image processing job, kept in memory for polling by the uploader
+ */
+@Getter
+public class ImageJob {
+
+    public enum Status { PENDING, PROCESSING, DONE, FAILED }
+
+    private final String id;
+    private final String userId;
+    private final String fileName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile Status status = Status.PENDING;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    public ImageJob(String id, String userId, String fileName) {
+        this.id = id;
+        this.userId = userId;
+        this.fileName = fileName;
+    }
+
+    void processing() {
+        status = Status.PROCESSING;
+    }
+
+    void done() {
+        status = Status.DONE;
+        finishedAt = LocalDateTime.now();
+    }
+
+    void failed(String error) {
+        this.error = error;
+        status = Status.FAILED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,219 @@
+package art.lapov.vavapi.service.image;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.service.AccountService;
+import art.lapov.vavapi.service.FileService;
+import art.lapov.vavapi.service.LocationService;
+import art.lapov.vavapi.service.StationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates image renditions on a bounded worker pool, off the request thread.
+ * The entity photo is only updated once both renditions are on disk, and the previous images are deleted
+ * only once the update is committed.
+ * Uploads of the same entity are processed one at a time, and an upload submitted before the one already
+ * applied is dropped: the photo follows the submission order, whatever order the workers take them in.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProcessingService {
+
+    private final FileService fileService;
+    private final AccountService accountService;
+    private final LocationService locationService;
+    private final StationService stationService;
+    private final ThreadPoolTaskExecutor imageProcessingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ImageJob> jobs = new ConcurrentHashMap<>();
+    // Striped by entity: an upload replaces the previous images of its entity
+    private final Object[] entityLocks = createLocks(64);
+    // Submission order of the uploads, and per entity with uploads in flight the last one applied
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, EntityUploads> entityUploads = new ConcurrentHashMap<>();
+
+    private Timer processingTimer;
+    private Counter processedCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+    private Counter supersededCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("vavapi.images.queue.size", imageProcessingExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Uploads waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("vavapi.images.active", imageProcessingExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Uploads currently being processed")
+                .register(meterRegistry);
+        processingTimer = Timer.builder("vavapi.images.processing")
+                .description("Time spent generating the renditions of an upload")
+                .register(meterRegistry);
+        processedCounter = Counter.builder("vavapi.images.jobs").tag("outcome", "done")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("vavapi.images.jobs").tag("outcome", "failed")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("vavapi.images.jobs").tag("outcome", "rejected")
+                .register(meterRegistry);
+        supersededCounter = Counter.builder("vavapi.images.jobs").tag("outcome", "superseded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a stored upload for processing, on behalf of its uploader. Fails with 503 when the queue is full.
+     */
+    public ImageJob submit(PendingImage pending) {
+        ImageJob job = new ImageJob(UUID.randomUUID().toString(), pending.userId(), pending.fileName());
+        jobs.put(job.getId(), job);
+        long order = sequence.incrementAndGet();
+        entityUploads.compute(entityKey(pending), (key, uploads) -> uploads == null
+                ? new EntityUploads(1, 0) : uploads.submitted());
+        try {
+            imageProcessingExecutor.execute(() -> process(pending, order, job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            finished(pending);
+            fileService.discardPendingUpload(pending);
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Image processing is busy, please retry later", e);
+        }
+        return job;
+    }
+
+    /**
+     * Get a job of the given user. Jobs without a known uploader are not visible to anyone.
+     */
+    public Optional<ImageJob> findJob(String jobId, String userId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getUserId() != null && job.getUserId().equals(userId));
+    }
+
+    /**
+     * Resume the uploads stored before the last shutdown
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void resumePendingUploads() {
+        try {
+            for (PendingImage pending : fileService.findPendingUploads()) {
+                log.info("Resuming pending image upload {}", pending.fileName());
+                submit(pending);
+            }
+        } catch (IOException | ResponseStatusException e) {
+            log.warn("Could not resume pending image uploads", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    void purgeFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(1);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(limit));
+    }
+
+    private void process(PendingImage pending, long order, ImageJob job) {
+        job.processing();
+        String key = entityKey(pending);
+        try {
+            boolean applied = processingTimer.recordCallable(() -> {
+                synchronized (lockOf(key)) {
+                    if (order < entityUploads.get(key).applied()) {
+                        fileService.discardPendingUpload(pending);
+                        return false;
+                    }
+                    fileService.processPendingUpload(pending);
+                    // Committed when it returns: the entity no longer points at the previous images
+                    updateEntityPhoto(pending.fileType(), pending.entityId(), pending.fileName());
+                    entityUploads.computeIfPresent(key, (k, uploads) -> uploads.applied(order));
+                    fileService.deletePreviousImages(pending);
+                    return true;
+                }
+            });
+            if (applied) {
+                processedCounter.increment();
+                job.done();
+            } else {
+                supersededCounter.increment();
+                job.failed("Replaced by a newer upload");
+            }
+        } catch (Exception e) {
+            log.error("Failed to process image upload {}", pending.fileName(), e);
+            fileService.deleteImage(pending.fileName(), pending.fileType());
+            failedCounter.increment();
+            job.failed(e instanceof IllegalArgumentException ? e.getMessage() : "Image processing failed");
+        } finally {
+            finished(pending);
+        }
+    }
+
+    private void finished(PendingImage pending) {
+        entityUploads.computeIfPresent(entityKey(pending), (key, uploads) -> uploads.finished());
+    }
+
+    private static String entityKey(PendingImage pending) {
+        return pending.fileType().name() + pending.entityId();
+    }
+
+    private Object lockOf(String entityKey) {
+        return entityLocks[Math.floorMod(entityKey.hashCode(), entityLocks.length)];
+    }
+
+    private static Object[] createLocks(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    /**
+     * Uploads of an entity not processed yet, and the sequence of the last one applied.
+     * Dropped once none is in flight: a later upload is always newer than the ones applied.
+     */
+    private record EntityUploads(int inFlight, long applied) {
+
+        EntityUploads submitted() {
+            return new EntityUploads(inFlight + 1, applied);
+        }
+
+        EntityUploads applied(long order) {
+            return new EntityUploads(inFlight, Math.max(applied, order));
+        }
+
+        EntityUploads finished() {
+            return inFlight == 1 ? null : new EntityUploads(inFlight - 1, applied);
+        }
+    }
+
+    private void updateEntityPhoto(FileType fileType, String entityId, String fileName) {
+        switch (fileType) {
+            case AVATAR -> accountService.updateAvatar(entityId, fileName);
+            case LOCATION -> locationService.updatePhoto(entityId, fileName);
+            case STATION -> stationService.updatePhoto(entityId, fileName);
+        }
+    }
+}
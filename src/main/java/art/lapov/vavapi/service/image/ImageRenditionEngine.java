@@ -0,0 +1,159 @@
+package art.lapov.vavapi.service.image;
+
+import org.imgscalr.Scalr;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Produces square renditions of an image in a single decoding pass.
+ * <p>
+ * Only the centered square is decoded, subsampled as much as the largest target allows,
+ * and each smaller rendition is derived from the previous one instead of the original.
+ */
+@Component
+public class ImageRenditionEngine {
+
+    /**
+     * Decode the centered square of {@code source} and resize it to each size.
+     *
+     * @param sizes target sizes in pixels, largest first
+     * @return one RGB image per size, in the same order
+     */
+    public List<BufferedImage> renderSquares(Path source, int... sizes) throws IOException {
+        if (sizes.length == 0) {
+            throw new IllegalArgumentException("At least one rendition size is required");
+        }
+
+        BufferedImage square = decodeSquare(source, sizes[0]);
+
+        List<BufferedImage> renditions = new ArrayList<>(sizes.length);
+        BufferedImage previous = square;
+        for (int size : sizes) {
+            BufferedImage rendition = previous.getWidth() == size
+                    ? previous
+                    : Scalr.resize(previous, Scalr.Method.QUALITY, Scalr.Mode.FIT_EXACT, size, size);
+            renditions.add(rendition);
+            previous = rendition;
+        }
+        return renditions;
+    }
+
+    /**
+     * Whether an encoder is available for the format
+     */
+    public boolean canWrite(ImageFormat format) {
+        return ImageIO.getImageWritersByMIMEType(format.getMediaType().toString()).hasNext();
+    }
+
+    /**
+     * Write a JPEG with an explicit quality (0..1)
+     */
+    public void writeJpeg(BufferedImage image, float quality, Path target) throws IOException {
+        write(image, ImageFormat.JPEG, quality, target);
+    }
+
+    /**
+     * Write a lossy rendition in the given format with an explicit quality (0..1)
+     */
+    public void write(BufferedImage image, ImageFormat format, float quality, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(format.getMediaType().toString());
+        if (!writers.hasNext()) {
+            throw new IOException("No " + format + " writer available");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            String[] types = param.getCompressionTypes();
+            if (types != null && types.length > 1) {
+                // WebP-like encoders offer lossless and lossy modes, only lossy honours the quality
+                param.setCompressionType(lossyType(types));
+            }
+            param.setCompressionQuality(quality);
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+            }
+
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(toRgb(image), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Coarsest subsampling factor keeping at least {@code targetSize} pixels on the cropped side
+     */
+    static int subsamplingFactor(int squareSize, int targetSize) {
+        return Math.max(1, squareSize / targetSize);
+    }
+
+    // Package-private for tests
+    BufferedImage decodeSquare(Path source, int largestSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int size = Math.min(width, height);
+                int factor = subsamplingFactor(size, largestSize);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - size) / 2, (height - size) / 2, size, size));
+                param.setSourceSubsampling(factor, factor, 0, 0);
+
+                return toRgb(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String lossyType(String[] types) {
+        for (String type : types) {
+            if (type.equalsIgnoreCase("lossy")) {
+                return type;
+            }
+        }
+        return types[0];
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        // JPEG has no alpha channel: flatten transparent pixels on white
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+}
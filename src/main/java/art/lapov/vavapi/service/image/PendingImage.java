@@ -0,0 +1,17 @@
+package art.lapov.vavapi.service.image;
+
+import art.lapov.vavapi.enums.FileType;
+
+import java.nio.file.Path;
+
+/**
+ * A raw upload stored on disk, waiting for its renditions to be generated
+ *
+ * @param fileType  target folder of the renditions
+ * @param entityId  id of the user, location or station owning the image
+ * @param userId    id of the uploader, allowed to poll the job; null for uploads stored without it
+ * @param fileName  final file name of the main rendition (also used for the thumbnail)
+ * @param rawFile   location of the untouched upload
+ */
+public record PendingImage(FileType fileType, String entityId, String userId, String fileName, Path rawFile) {
+}
@@ -0,0 +1,160 @@
+package art.lapov.vavapi.service.jobs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Coordination of background jobs between the nodes of a deployment, through leases in the {@code job_lease} table.
+ * <p>
+ * A lease is taken or renewed by a single conditional UPDATE (its owner, or anyone once expired), inserted
+ * on first use; each statement is its own short transaction. Taking over a lease from another node increments
+ * its fencing token, which writes of the job can check so a node that lost its lease cannot write any more.
+ * <p>
+ * Sharded jobs split their work into a fixed number of shards, each with its own lease. Nodes running the job
+ * register with a membership lease and hold an equal part of the shards: a node holding more than its part
+ * releases the extra shards, which the other nodes pick up at their next run.
+ */
+@Slf4j
+@Service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobLeases {
+
+    private static final String RENEW = "UPDATE job_lease SET " +
+            "fencing_token = CASE WHEN owner = ? THEN fencing_token ELSE fencing_token + 1 END, " +
+            "owner = ?, expires_at = ? WHERE name = ? AND (owner = ? OR expires_at <= ?)";
+    private static final String INSERT = "INSERT INTO job_lease (name, owner, expires_at, fencing_token) VALUES (?, ?, ?, 1)";
+    private static final String TOKEN = "SELECT fencing_token FROM job_lease WHERE name = ? AND owner = ?";
+    private static final String RELEASE = "UPDATE job_lease SET expires_at = ? WHERE name = ? AND owner = ? AND fencing_token = ?";
+    private static final String RELEASE_OWNED = "UPDATE job_lease SET expires_at = ? WHERE name = ? AND owner = ?";
+    private static final String RELEASE_ALL = "UPDATE job_lease SET expires_at = ? WHERE owner = ? AND expires_at > ?";
+    private static final String JOB = "SELECT name, owner, expires_at FROM job_lease WHERE name LIKE ?";
+
+    private static final String MEMBERS = "/member/";
+    private static final String SHARDS = "/shard/";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public JobLeases(JdbcTemplate jdbcTemplate, @Value("${app.jobs.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Take or renew the lease for {@code ttl}, empty while another node holds it
+     */
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expiresAt = Timestamp.valueOf(now.plus(ttl));
+        if (jdbcTemplate.update(RENEW, nodeId, nodeId, expiresAt, name, nodeId, Timestamp.valueOf(now)) == 0) {
+            try {
+                jdbcTemplate.update(INSERT, name, nodeId, expiresAt);
+            } catch (DuplicateKeyException e) {
+                return Optional.empty();
+            }
+        }
+        // Read back: the token only changes when another node takes the lease over
+        List<Long> token = jdbcTemplate.queryForList(TOKEN, Long.class, name, nodeId);
+        return token.isEmpty() ? Optional.empty() : Optional.of(new Lease(name, token.get(0)));
+    }
+
+    /**
+     * Let the lease expire now, unless it was taken over meanwhile
+     */
+    public void release(Lease lease) {
+        jdbcTemplate.update(RELEASE, Timestamp.valueOf(LocalDateTime.now()), lease.name(), nodeId, lease.fencingToken());
+    }
+
+    /**
+     * Shards of the job this node runs now: the ones it already holds and free ones, up to its part
+     * of the {@code shards} among the nodes running the job
+     */
+    public List<Shard> acquireShards(String job, int shards, Duration ttl) {
+        tryAcquire(job + MEMBERS + nodeId, ttl);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, String> liveOwners = new HashMap<>();
+        long members = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(JOB, job + "/%")) {
+            String name = (String) row.get("name");
+            if (!((Timestamp) row.get("expires_at")).toLocalDateTime().isAfter(now)) {
+                continue;
+            }
+            if (name.startsWith(job + MEMBERS)) {
+                members++;
+            } else {
+                liveOwners.put(name, (String) row.get("owner"));
+            }
+        }
+        int part = (int) Math.ceilDiv(shards, Math.max(members, 1));
+
+        List<Shard> held = new ArrayList<>();
+        // Keep the shards already held (up to the part), release the others
+        for (int index = 0; index < shards; index++) {
+            String name = job + SHARDS + index;
+            if (!nodeId.equals(liveOwners.get(name))) {
+                continue;
+            }
+            if (held.size() < part) {
+                Optional<Lease> lease = tryAcquire(name, ttl);
+                if (lease.isPresent()) {
+                    held.add(new Shard(index, shards, lease.get()));
+                }
+            } else {
+                jdbcTemplate.update(RELEASE_OWNED, Timestamp.valueOf(now), name, nodeId);
+                log.info("Released {} for rebalancing between {} nodes", name, members);
+            }
+        }
+        // Then free shards, up to the part
+        for (int index = 0; index < shards && held.size() < part; index++) {
+            String name = job + SHARDS + index;
+            if (liveOwners.containsKey(name)) {
+                continue;
+            }
+            Optional<Lease> lease = tryAcquire(name, ttl);
+            if (lease.isPresent()) {
+                held.add(new Shard(index, shards, lease.get()));
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Let the leases of this node expire on shutdown, so other nodes take its work over at their next run
+     */
+    @PreDestroy
+    void releaseAll() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update(RELEASE_ALL, now, nodeId, now);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the job leases of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * A lease held by this node, with the fencing token it was taken with
+     */
+    public record Lease(String name, long fencingToken) {
+    }
+}
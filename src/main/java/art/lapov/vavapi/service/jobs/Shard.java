@@ -0,0 +1,32 @@
+package art.lapov.vavapi.service.jobs;
+
+/**
+ * One of the {@code count} shards of a job, held through its lease.
+ * <p>
+ * Work is assigned to shards by the last four characters of an id (random hex digits of a UUID):
+ * shard {@code index} covers the suffixes in {@code [from, to)}, the first shard starts at the empty string
+ * and the last one has no upper bound, so every id falls in exactly one shard.
+ */
+public record Shard(int index, int count, JobLeases.Lease lease) {
+
+    private static final int SUFFIX_LENGTH = 4;
+    private static final int SUFFIXES = 1 << (4 * SUFFIX_LENGTH);
+
+    /**
+     * Lowest suffix of the shard, inclusive
+     */
+    public String from() {
+        return index == 0 ? "" : bound(index);
+    }
+
+    /**
+     * Highest suffix of the shard, exclusive; null for the last shard
+     */
+    public String to() {
+        return index == count - 1 ? null : bound(index + 1);
+    }
+
+    private String bound(int shard) {
+        return String.format("%0" + SUFFIX_LENGTH + "x", (long) shard * SUFFIXES / count);
+    }
+}
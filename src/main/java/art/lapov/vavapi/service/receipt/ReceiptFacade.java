@@ -6,18 +6,139 @@ import art.lapov.vavapi.model.Reservation;
 import art.lapov.vavapi.model.User;
 import art.lapov.vavapi.service.ReservationService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReceiptFacade {
     private final ReservationService reservationService;
     private final ReservationMapper reservationMapper;
     private final HtmlToPdfReceiptService htmlToPdfReceiptService;
+    private final ThreadPoolTaskExecutor receiptRenderExecutor;
+
+    @Value("${app.receipts.export.max-days:366}")
+    private int maxExportDays;
 
     public byte[] buildReceiptPdf(String reservationId, User me) {
         Reservation r = reservationService.getOwnedOrClientReservation(reservationId, me);
         ReservationDTO dto = reservationMapper.map(r);
         return htmlToPdfReceiptService.generateReceiptPdf(dto);
     }
+
+    /**
+     * Load the reservations to export for a date range (inclusive).
+     * Called on the request thread so validation errors, and a full render pool (503), are returned
+     * before the stream starts.
+     */
+    public List<ReservationDTO> findReceiptsToExport(User me, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date must be before end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxExportDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Export period cannot exceed " + maxExportDays + " days");
+        }
+        if (receiptRenderExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Receipt export is busy, please retry later");
+        }
+        return reservationService.getReceiptReservations(me, from, to);
+    }
+
+    /**
+     * Render receipts in parallel and write them to a ZIP archive as they complete.
+     * At most {@code 2 x pool size} documents are rendered or waiting to be written at any time.
+     * <p>
+     * On a failure the pending renders are cancelled and the archive is left unfinished (no central directory),
+     * so the client gets a broken download rather than a valid archive missing receipts.
+     */
+    public void writeReceiptsZip(List<ReservationDTO> reservations, OutputStream out) throws IOException {
+        CompletionService<RenderedReceipt> completionService =
+                new ExecutorCompletionService<>(receiptRenderExecutor.getThreadPoolExecutor());
+        int window = Math.max(1, receiptRenderExecutor.getMaxPoolSize() * 2);
+        Iterator<ReservationDTO> pending = reservations.iterator();
+        Set<Future<RenderedReceipt>> inFlight = new HashSet<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDFs are already compressed, favour speed over ratio
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < window && pending.hasNext()) {
+                    inFlight.add(submit(completionService, pending.next()));
+                }
+
+                Future<RenderedReceipt> done = take(completionService);
+                inFlight.remove(done);
+                RenderedReceipt receipt = result(done);
+
+                zip.putNextEntry(new ZipEntry("receipt-" + receipt.reservationId() + ".pdf"));
+                zip.write(receipt.pdf());
+                zip.closeEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            inFlight.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        zip.close();
+    }
+
+    private Future<RenderedReceipt> submit(CompletionService<RenderedReceipt> completionService,
+                                           ReservationDTO dto) throws IOException {
+        try {
+            return completionService.submit(() ->
+                    new RenderedReceipt(dto.getId(), htmlToPdfReceiptService.generateReceiptPdf(dto)));
+        } catch (RejectedExecutionException e) {
+            // The response is already committed: abort the download
+            throw new IOException("Receipt render pool full during bulk export", e);
+        }
+    }
+
+    private static Future<RenderedReceipt> take(CompletionService<RenderedReceipt> completionService)
+            throws IOException {
+        try {
+            return completionService.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Receipt export interrupted", e);
+        }
+    }
+
+    private static RenderedReceipt result(Future<RenderedReceipt> done) throws IOException {
+        try {
+            return done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Receipt export interrupted", e);
+        } catch (ExecutionException e) {
+            log.error("Failed to render receipt during bulk export", e.getCause());
+            throw new IOException("Failed to render receipt", e.getCause());
+        }
+    }
+
+    private record RenderedReceipt(String reservationId, byte[] pdf) {
+    }
 }
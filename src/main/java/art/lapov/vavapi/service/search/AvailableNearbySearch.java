@@ -0,0 +1,122 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.dto.AvailableStationDTO;
+import art.lapov.vavapi.mapper.StationMapper;
+import art.lapov.vavapi.metrics.Measured;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.repository.PricingIntervalRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.PricingIntervalService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * "Available near me" in one pipeline: stations free for the period within the radius (one query,
+ * bounding box then exact distance), their pricing intervals (one batched query), a quote per station,
+ * and only the best {@code limit} kept, by distance or by price.
+ */
+@Service
+@AllArgsConstructor
+public class AvailableNearbySearch {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final StationRepository stationRepository;
+    private final PricingIntervalRepository pricingIntervalRepository;
+    private final PricingIntervalService pricingIntervalService;
+    private final StationMapper stationMapper;
+
+    public enum SortBy {
+        DISTANCE, PRICE
+    }
+
+    /**
+     * Stations free and priced for the whole period within {@code radiusKm} of a point, best first
+     */
+    @Transactional(readOnly = true)
+    @Measured("vavapi.stations.available-nearby")
+    public List<AvailableStationDTO> search(double latitude, double longitude, double radiusKm,
+                                            LocalDateTime startDate, LocalDateTime endDate,
+                                            SortBy sortBy, int limit) {
+        if (!startDate.isBefore(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date must be before end date");
+        }
+        if (startDate.isBefore(LocalDateTime.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot make reservations in the past");
+        }
+        if (radiusKm > 30 || radiusKm < 0.01) {
+            radiusKm = 30;
+        }
+
+        double latDelta = radiusKm / 110.574;
+        double lonDelta = radiusKm / (111.320 * Math.cos(Math.toRadians(latitude)));
+        List<Candidate> candidates = new ArrayList<>();
+        for (Station station : stationRepository.findAvailableInBoundingBox(latitude - latDelta, latitude + latDelta,
+                longitude - lonDelta, longitude + lonDelta, startDate, endDate)) {
+            Location location = station.getLocation();
+            // The box also holds its corners
+            double distance = distanceKm(latitude, longitude, location.getLatitude(), location.getLongitude());
+            if (distance <= radiusKm) {
+                candidates.add(new Candidate(station, distance, 0));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<PricingInterval>> intervalsByStation = pricingIntervalRepository
+                .findByStationIdInOrderByStartHour(candidates.stream().map(candidate -> candidate.station().getId()).toList())
+                .stream()
+                .collect(Collectors.groupingBy(interval -> interval.getStation().getId()));
+
+        Comparator<Candidate> order = order(sortBy);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, order.reversed());
+        for (Candidate candidate : candidates) {
+            Integer cost = pricingIntervalService.quote(intervalsByStation.get(candidate.station().getId()), startDate, endDate);
+            if (cost == null) {
+                continue;
+            }
+            best.add(new Candidate(candidate.station(), candidate.distanceKm(), cost));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        return best.stream()
+                .sorted(order)
+                .map(candidate -> new AvailableStationDTO(stationMapper.mapShort(candidate.station()),
+                        Math.round(candidate.distanceKm() * 100.0) / 100.0, candidate.costInCents()))
+                .toList();
+    }
+
+    private static Comparator<Candidate> order(SortBy sortBy) {
+        Comparator<Candidate> byDistance = Comparator.comparingDouble(Candidate::distanceKm);
+        Comparator<Candidate> byPrice = Comparator.comparingInt(Candidate::costInCents);
+        Comparator<Candidate> primary = sortBy == SortBy.PRICE ? byPrice.thenComparing(byDistance) : byDistance.thenComparing(byPrice);
+        return primary.thenComparing(candidate -> candidate.station().getId());
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return EARTH_RADIUS_KM * 2 * Math.asin(Math.sqrt(a));
+    }
+
+    private record Candidate(Station station, double distanceKm, int costInCents) {
+    }
+}
@@ -0,0 +1,492 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.service.AfterCommit;
+import art.lapov.vavapi.service.cache.InvalidationListener;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.utils.UuidUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory faceted index over searchable stations: enabled, not deleted, on a location not deleted.
+ * <p>
+ * Connector type, city and rating bucket (whole stars) are bitsets of document ids; power and
+ * cheapest hourly price are sorted primitive arrays, a range becomes a bitset through binary search.
+ * A search intersects the bitsets, and counts each facet with every other filter applied.
+ * <p>
+ * Writes update the station table, the facets are rebuilt from it when changed, at most every refresh interval.
+ * Stations changed by other nodes are reloaded from the database on their invalidation events,
+ * and a periodic full reload catches up with anything missed.
+ */
+@Slf4j
+@Component
+public class StationSearchIndex implements InvalidationListener {
+
+    static final int RATING_BUCKETS = 6;
+    static final int CITY_FACETS = 20;
+
+    private static final String LOAD = """
+            SELECT s.id, s.connector_type, s.max_power_watt, s.average_rating, l.city,
+                   (SELECT MIN(p.hourly_price_in_cents) FROM pricing_interval p WHERE p.station_id = s.id)
+            FROM station s JOIN location l ON l.id = s.location_id
+            WHERE s.enabled = TRUE AND COALESCE(s.deleted, FALSE) = FALSE AND COALESCE(l.deleted, FALSE) = FALSE
+            """;
+    private static final String LOAD_STATION = LOAD + " AND s.id = ?";
+    private static final String LOCATION_STATIONS = "SELECT id FROM station WHERE location_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Source of truth for the facets, guarded by this
+    private Map<String, Entry> stations = new HashMap<>();
+    private boolean dirty;
+    // Stations written while a reload reads the table, kept over the reloaded rows
+    private Set<String> reloadBacklog;
+    private volatile Facets facets = new Facets(List.of());
+
+    public StationSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reload from the {@code station}, {@code location} and {@code pricing_interval} tables (startup, then periodically)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.stations.search.rebuild-interval:1h}",
+            fixedDelayString = "${app.stations.search.rebuild-interval:1h}")
+    public void reload() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            reloadBacklog = new HashSet<>();
+        }
+
+        Map<String, Entry> loaded = new HashMap<>();
+        jdbcTemplate.query(LOAD, rs -> {
+            Entry entry = entry(rs);
+            loaded.put(entry.id(), entry);
+        });
+
+        synchronized (this) {
+            for (String id : reloadBacklog) {
+                Entry written = stations.get(id);
+                if (written == null) {
+                    loaded.remove(id);
+                } else {
+                    loaded.put(id, written);
+                }
+            }
+            reloadBacklog = null;
+            stations = loaded;
+            dirty = true;
+        }
+        refresh();
+        log.info("Station search index built: {} stations in {} ms", loaded.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuild the facets if stations were written since the last rebuild
+     */
+    @Scheduled(fixedDelayString = "${app.stations.search.refresh-interval:1s}")
+    public void refresh() {
+        List<Entry> entries;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            entries = new ArrayList<>(stations.values());
+        }
+        facets = new Facets(entries);
+    }
+
+    /**
+     * Index a created, updated or deleted station, once the current transaction commits
+     *
+     * @param cheapestPriceInCents lowest hourly price of the station, null without pricing intervals
+     */
+    public void index(Station station, Integer cheapestPriceInCents) {
+        String id = station.getId();
+        boolean searchable = Boolean.TRUE.equals(station.getEnabled())
+                && !Boolean.TRUE.equals(station.getDeleted())
+                && !Boolean.TRUE.equals(station.getLocation().getDeleted());
+        Entry entry = searchable
+                ? new Entry(id, station.getConnectorType(),
+                station.getMaxPowerWatt() == null ? 0 : station.getMaxPowerWatt(),
+                station.getAverageRating() == null ? 0 : station.getAverageRating(),
+                station.getLocation().getCity(), cheapestPriceInCents)
+                : null;
+        AfterCommit.run(() -> write(id, current -> entry));
+    }
+
+    /**
+     * Update the cheapest hourly price of a station after a pricing interval change
+     */
+    public void updatePrice(String stationId, Integer cheapestPriceInCents) {
+        AfterCommit.run(() -> write(stationId, current -> current == null ? null : current.withPrice(cheapestPriceInCents)));
+    }
+
+    /**
+     * Update the average rating of a station after a review
+     */
+    public void updateRating(String stationId, double averageRating) {
+        AfterCommit.run(() -> write(stationId, current -> current == null ? null : current.withRating(averageRating)));
+    }
+
+    /**
+     * Reload the stations of a location whose city or deletion changed, once the current transaction commits
+     */
+    public void reindexLocation(String locationId) {
+        AfterCommit.run(() -> reloadStations(locationStations(locationId)));
+    }
+
+    @Override
+    public void invalidated(InvalidationType type, String id) {
+        switch (type) {
+            case STATION -> reloadStations(List.of(id));
+            case LOCATION -> reloadStations(locationStations(id));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Ids of the matching stations for the requested page, best rated then most powerful first,
+     * with the facet counts of the search
+     */
+    public Result search(Query query, int offset, int limit) {
+        return facets.search(query, offset, limit);
+    }
+
+    /**
+     * Read the stations back from the database, removing the ones no longer searchable
+     */
+    private void reloadStations(List<String> ids) {
+        for (String id : ids) {
+            List<Entry> loaded = jdbcTemplate.query(LOAD_STATION, (rs, row) -> entry(rs), UuidUtil.toBytes(id));
+            Entry entry = loaded.isEmpty() ? null : loaded.get(0);
+            write(id, current -> entry);
+        }
+    }
+
+    private List<String> locationStations(String locationId) {
+        return jdbcTemplate.query(LOCATION_STATIONS, (rs, row) -> UuidUtil.fromBytes(rs.getBytes(1)),
+                UuidUtil.toBytes(locationId));
+    }
+
+    private synchronized void write(String id, UnaryOperator<Entry> update) {
+        Entry current = stations.get(id);
+        Entry updated = update.apply(current);
+        if (updated == null) {
+            if (stations.remove(id) == null) {
+                return;
+            }
+        } else if (updated.equals(current)) {
+            return;
+        } else {
+            stations.put(id, updated);
+        }
+        dirty = true;
+        if (reloadBacklog != null) {
+            reloadBacklog.add(id);
+        }
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        return new Entry(UuidUtil.fromBytes(rs.getBytes(1)), ConnectorType.valueOf(rs.getString(2)),
+                rs.getLong(3), rs.getDouble(4), rs.getString(5), rs.getObject(6, Integer.class));
+    }
+
+    static String normalizeCity(String city) {
+        return UserSearchIndex.normalize(city).trim();
+    }
+
+    /**
+     * Search filters, null or empty when not filtered
+     *
+     * @param connectorTypes any of these connector types
+     * @param city           city of the location, case and accents ignored
+     * @param minPowerWatt   minimum power
+     * @param minRating      minimum average rating
+     * @param minPriceInCents cheapest hourly price at least
+     * @param maxPriceInCents cheapest hourly price at most
+     */
+    public record Query(Set<ConnectorType> connectorTypes, String city, Long minPowerWatt, Double minRating,
+                        Integer minPriceInCents, Integer maxPriceInCents) {
+    }
+
+    /**
+     * Ids of the matching stations for the requested page, the total number of matches and the facet counts:
+     * stations per connector type, per city (most represented first) and per rating bucket (whole stars, 0 to 5)
+     */
+    public record Result(List<String> ids, long total, Map<ConnectorType, Long> connectorTypes,
+                         Map<String, Long> cities, Map<Integer, Long> ratings) {
+    }
+
+    record Entry(String id, ConnectorType connectorType, long maxPowerWatt, double averageRating, String city,
+                 Integer cheapestPriceInCents) {
+
+        Entry withPrice(Integer price) {
+            return new Entry(id, connectorType, maxPowerWatt, averageRating, city, price);
+        }
+
+        Entry withRating(double rating) {
+            return new Entry(id, connectorType, maxPowerWatt, rating, city, cheapestPriceInCents);
+        }
+    }
+
+    /**
+     * Immutable bitsets and sorted arrays over the stations, a document id per station
+     */
+    private static final class Facets {
+        private static final ConnectorType[] CONNECTOR_TYPES = ConnectorType.values();
+
+        private final String[] ids;
+        private final double[] ratings;
+        private final int[] connectorOf;
+        private final int[] cityOf;
+        private final List<String> cityNames = new ArrayList<>();
+        private final BitSet all;
+        private final BitSet[] byConnector = new BitSet[CONNECTOR_TYPES.length];
+        private final Map<String, BitSet> byCity = new HashMap<>();
+        private final BitSet[] byRating = new BitSet[RATING_BUCKETS];
+        // Ascending; stations without pricing interval are not in the price arrays
+        private final long[] powers;
+        private final int[] docsByPower;
+        private final int[] prices;
+        private final int[] docsByPrice;
+        // Result order: rating descending, power descending, id
+        private final int[] docsByRank;
+
+        private Facets(List<Entry> entries) {
+            int size = entries.size();
+            ids = new String[size];
+            ratings = new double[size];
+            connectorOf = new int[size];
+            cityOf = new int[size];
+            all = new BitSet(size);
+            all.set(0, size);
+            Arrays.setAll(byConnector, i -> new BitSet(size));
+            Arrays.setAll(byRating, i -> new BitSet(size));
+            long[] power = new long[size];
+            Map<String, Integer> cityIds = new HashMap<>();
+
+            for (int doc = 0; doc < size; doc++) {
+                Entry entry = entries.get(doc);
+                ids[doc] = entry.id();
+                ratings[doc] = entry.averageRating();
+                power[doc] = entry.maxPowerWatt();
+                connectorOf[doc] = entry.connectorType().ordinal();
+                byConnector[connectorOf[doc]].set(doc);
+                byRating[bucket(entry.averageRating())].set(doc);
+
+                String city = normalizeCity(entry.city());
+                Integer cityId = cityIds.get(city);
+                if (cityId == null) {
+                    cityId = cityNames.size();
+                    cityIds.put(city, cityId);
+                    cityNames.add(entry.city() == null ? "" : entry.city().trim());
+                }
+                cityOf[doc] = cityId;
+                byCity.computeIfAbsent(city, key -> new BitSet(size)).set(doc);
+            }
+
+            docsByPower = IntStream.range(0, size).boxed()
+                    .sorted(Comparator.comparingLong(doc -> power[doc]))
+                    .mapToInt(Integer::intValue).toArray();
+            powers = Arrays.stream(docsByPower).mapToLong(doc -> power[doc]).toArray();
+            docsByPrice = IntStream.range(0, size).boxed()
+                    .filter(doc -> entries.get(doc).cheapestPriceInCents() != null)
+                    .sorted(Comparator.comparingInt(doc -> entries.get(doc).cheapestPriceInCents()))
+                    .mapToInt(Integer::intValue).toArray();
+            prices = Arrays.stream(docsByPrice).map(doc -> entries.get(doc).cheapestPriceInCents()).toArray();
+            docsByRank = IntStream.range(0, size).boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(doc -> -ratings[doc])
+                            .thenComparingLong(doc -> -power[doc])
+                            .thenComparing(doc -> ids[doc]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        Result search(Query query, int offset, int limit) {
+            BitSet connector = connectorFilter(query.connectorTypes());
+            BitSet city = query.city() == null || query.city().isBlank()
+                    ? null : byCity.getOrDefault(normalizeCity(query.city()), new BitSet());
+            BitSet rating = query.minRating() == null ? null : ratingAtLeast(query.minRating());
+            BitSet power = query.minPowerWatt() == null ? null : powerAtLeast(query.minPowerWatt());
+            BitSet price = query.minPriceInCents() == null && query.maxPriceInCents() == null
+                    ? null : priceBetween(query.minPriceInCents(), query.maxPriceInCents());
+
+            // Each facet is counted with the other filters only, so its other values stay selectable
+            BitSet ranges = intersect(all, power, price);
+            BitSet matches = intersect(ranges, connector, city, rating);
+
+            long[] connectorCounts = count(intersect(ranges, city, rating), connectorOf, CONNECTOR_TYPES.length);
+            long[] cityCounts = count(intersect(ranges, connector, rating), cityOf, cityNames.size());
+            long[] ratingCounts = new long[RATING_BUCKETS];
+            BitSet ratingBase = intersect(ranges, connector, city);
+            for (int doc = ratingBase.nextSetBit(0); doc >= 0; doc = ratingBase.nextSetBit(doc + 1)) {
+                ratingCounts[bucket(ratings[doc])]++;
+            }
+
+            return new Result(page(matches, offset, limit), matches.cardinality(),
+                    connectorFacet(connectorCounts), cityFacet(cityCounts), ratingFacet(ratingCounts));
+        }
+
+        private List<String> page(BitSet matches, int offset, int limit) {
+            List<String> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int i = 0; i < docsByRank.length && page.size() < limit; i++) {
+                int doc = docsByRank[i];
+                if (matches.get(doc) && skipped++ >= offset) {
+                    page.add(ids[doc]);
+                }
+            }
+            return page;
+        }
+
+        private BitSet connectorFilter(Set<ConnectorType> connectorTypes) {
+            if (connectorTypes == null || connectorTypes.isEmpty()) {
+                return null;
+            }
+            BitSet union = new BitSet();
+            for (ConnectorType type : connectorTypes) {
+                union.or(byConnector[type.ordinal()]);
+            }
+            return union;
+        }
+
+        private BitSet ratingAtLeast(double minRating) {
+            BitSet result = new BitSet();
+            if (minRating >= RATING_BUCKETS) {
+                return result;
+            }
+            int first = Math.max(bucket(minRating), 0);
+            // The bucket holding the bound is checked station by station
+            BitSet boundary = byRating[first];
+            for (int doc = boundary.nextSetBit(0); doc >= 0; doc = boundary.nextSetBit(doc + 1)) {
+                if (ratings[doc] >= minRating) {
+                    result.set(doc);
+                }
+            }
+            for (int b = first + 1; b < RATING_BUCKETS; b++) {
+                result.or(byRating[b]);
+            }
+            return result;
+        }
+
+        private BitSet powerAtLeast(long minPowerWatt) {
+            BitSet result = new BitSet();
+            for (int i = lowerBound(powers, minPowerWatt); i < powers.length; i++) {
+                result.set(docsByPower[i]);
+            }
+            return result;
+        }
+
+        private BitSet priceBetween(Integer minPriceInCents, Integer maxPriceInCents) {
+            int from = minPriceInCents == null ? 0 : lowerBound(prices, minPriceInCents);
+            int to = maxPriceInCents == null ? prices.length : lowerBound(prices, (long) maxPriceInCents + 1);
+            BitSet result = new BitSet();
+            for (int i = from; i < to; i++) {
+                result.set(docsByPrice[i]);
+            }
+            return result;
+        }
+
+        private Map<ConnectorType, Long> connectorFacet(long[] counts) {
+            Map<ConnectorType, Long> facet = new EnumMap<>(ConnectorType.class);
+            for (ConnectorType type : CONNECTOR_TYPES) {
+                facet.put(type, counts[type.ordinal()]);
+            }
+            return facet;
+        }
+
+        private Map<String, Long> cityFacet(long[] counts) {
+            Map<String, Long> facet = new LinkedHashMap<>();
+            IntStream.range(0, counts.length)
+                    .filter(city -> counts[city] > 0)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(city -> -counts[city]).thenComparing(cityNames::get))
+                    .limit(CITY_FACETS)
+                    .forEach(city -> facet.put(cityNames.get(city), counts[city]));
+            return facet;
+        }
+
+        private static Map<Integer, Long> ratingFacet(long[] counts) {
+            Map<Integer, Long> facet = new LinkedHashMap<>();
+            for (int b = 0; b < RATING_BUCKETS; b++) {
+                facet.put(b, counts[b]);
+            }
+            return facet;
+        }
+
+        private static long[] count(BitSet docs, int[] valueOf, int values) {
+            long[] counts = new long[values];
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                counts[valueOf[doc]]++;
+            }
+            return counts;
+        }
+
+        private static BitSet intersect(BitSet base, BitSet... filters) {
+            BitSet result = (BitSet) base.clone();
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        private static int bucket(double rating) {
+            return Math.min(Math.max((int) Math.floor(rating), 0), RATING_BUCKETS - 1);
+        }
+
+        private static int lowerBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int lowerBound(int[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.service.AfterCommit;
+import art.lapov.vavapi.service.cache.InvalidationListener;
+import art.lapov.vavapi.service.cache.InvalidationType;
+import art.lapov.vavapi.utils.UuidUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over user email, first and last name, replacing {@code LIKE %q%} scans.
+ * <p>
+ * Each user is a document {@code "email\nfirst last"}, normalized (lower case, no accents).
+ * Posting lists of trigrams are sorted document ids: a query intersects the lists of its trigrams,
+ * then checks the candidates with {@code contains}. Queries shorter than a trigram scan the documents.
+ * An updated user gets a new document, the old one is dropped at the next rebuild.
+ * Users changed by other nodes are read back on their invalidation events.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex implements InvalidationListener {
+
+    private static final String LOAD = "SELECT id, email, first_name, last_name FROM app_user";
+    private static final String LOAD_USER = LOAD + " WHERE id = ?";
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Match> MATCH_ORDER = Comparator.comparingInt(Match::rank)
+            .thenComparingInt(Match::length)
+            .thenComparingInt(Match::doc);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Snapshot snapshot = new Snapshot();
+    // Users indexed while a rebuild reads the table, applied to the rebuilt snapshot
+    private List<String[]> rebuildBacklog;
+
+    public UserSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rebuild from the {@code app_user} table (startup, then periodically)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.users.search.rebuild-interval:1h}",
+            fixedDelayString = "${app.users.search.rebuild-interval:1h}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuildBacklog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot rebuilt = new Snapshot();
+        jdbcTemplate.query(LOAD, rs -> {
+            String id = UuidUtil.fromBytes(rs.getBytes(1));
+            rebuilt.add(id, document(rs.getString(2), rs.getString(3), rs.getString(4)));
+        });
+
+        lock.writeLock().lock();
+        try {
+            for (String[] user : rebuildBacklog) {
+                rebuilt.put(user[0], user[1]);
+            }
+            rebuildBacklog = null;
+            snapshot = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User search index built: {} users, {} trigrams in {} ms", rebuilt.ids.size(),
+                rebuilt.postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Index a created or updated user, once the current transaction commits
+     */
+    public void index(User user) {
+        String id = user.getId();
+        String document = document(user.getEmail(), user.getFirstName(), user.getLastName());
+        AfterCommit.run(() -> put(id, document));
+    }
+
+    @Override
+    public void invalidated(InvalidationType type, String id) {
+        if (type == InvalidationType.USER) {
+            jdbcTemplate.query(LOAD_USER, rs -> {
+                put(id, document(rs.getString(2), rs.getString(3), rs.getString(4)));
+            }, UuidUtil.toBytes(id));
+        }
+    }
+
+    /**
+     * Ids of the users matching the query, best matches first:
+     * exact email, email prefix, name prefix, then anywhere
+     */
+    public Result search(String query, int offset, int limit) {
+        String normalized = normalize(query).trim();
+        if (normalized.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Snapshot current = snapshot;
+            // Only the requested page is ranked: keep the best offset + limit matches in a max-heap
+            int wanted = offset + limit;
+            PriorityQueue<Match> best = new PriorityQueue<>(wanted + 1, MATCH_ORDER.reversed());
+            long total = 0;
+            BitSet candidates = current.candidates(normalized);
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                String document = current.documents.get(doc);
+                int rank = rank(document, normalized);
+                if (rank < 0) {
+                    continue;
+                }
+                total++;
+                Match match = new Match(doc, rank, document.length());
+                if (best.size() < wanted) {
+                    best.add(match);
+                } else if (wanted > 0 && MATCH_ORDER.compare(match, best.peek()) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+            List<Match> page = new ArrayList<>(best);
+            page.sort(MATCH_ORDER);
+            List<String> ids = page.stream()
+                    .skip(offset)
+                    .map(match -> current.ids.get(match.doc()))
+                    .toList();
+            return new Result(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(String id, String document) {
+        lock.writeLock().lock();
+        try {
+            snapshot.put(id, document);
+            if (rebuildBacklog != null) {
+                rebuildBacklog.add(new String[]{id, document});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int rank(String document, String query) {
+        int index = document.indexOf(query);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return document.startsWith(query + '\n') ? 0 : 1;
+        }
+        char before = document.charAt(index - 1);
+        return before == '\n' || before == ' ' ? 2 : 3;
+    }
+
+    static String document(String email, String firstName, String lastName) {
+        return normalize(email) + '\n' + normalize(firstName) + ' ' + normalize(lastName);
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(CharSequence text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Ids of the matching users for the requested page, and the total number of matches
+     */
+    public record Result(List<String> ids, long total) {
+    }
+
+    private record Match(int doc, int rank, int length) {
+    }
+
+    /**
+     * Documents and posting lists; documents are only appended, so posting lists stay sorted
+     */
+    private static class Snapshot {
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> documents = new ArrayList<>();
+        private final Map<String, Integer> docById = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private final BitSet live = new BitSet();
+
+        void add(String id, String document) {
+            int doc = ids.size();
+            ids.add(id);
+            documents.add(document);
+            docById.put(id, doc);
+            live.set(doc);
+            for (int i = 0; i + 3 <= document.length(); i++) {
+                postings.computeIfAbsent(trigram(document, i), key -> new Postings()).add(doc);
+            }
+        }
+
+        void put(String id, String document) {
+            Integer previous = docById.get(id);
+            if (previous != null) {
+                if (documents.get(previous).equals(document)) {
+                    return;
+                }
+                live.clear(previous);
+            }
+            add(id, document);
+        }
+
+        /**
+         * Live documents containing every trigram of the query (all live documents for short queries).
+         * Read only, under the read lock.
+         */
+        BitSet candidates(String query) {
+            if (query.length() < 3) {
+                return live;
+            }
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                Postings list = postings.get(trigram(query, i));
+                if (list == null) {
+                    return new BitSet();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int[] result = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+            int size = result.length;
+            for (int l = 1; l < lists.size() && size > 0; l++) {
+                size = Postings.intersect(result, size, lists.get(l));
+            }
+            BitSet candidates = new BitSet();
+            for (int i = 0; i < size; i++) {
+                if (live.get(result[i])) {
+                    candidates.set(result[i]);
+                }
+            }
+            return candidates;
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            // A document repeating a trigram adds it once
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        /**
+         * Keep in {@code result} the documents also in {@code other}, both sorted
+         *
+         * @return the new size of {@code result}
+         */
+        static int intersect(int[] result, int size, Postings other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; ) {
+                if (result[i] < other.docs[j]) {
+                    i++;
+                } else if (result[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    result[kept++] = result[i];
+                    i++;
+                    j++;
+                }
+            }
+            return kept;
+        }
+    }
+}
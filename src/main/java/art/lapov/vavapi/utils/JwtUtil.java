@@ -28,7 +28,17 @@ public class JwtUtil {
      * @return The generated JWT
      */
     public String generateToken(UserDetails user) {
-        return generateToken(user, Instant.now().plus(30, ChronoUnit.MINUTES));
+        return generateToken(user.getUsername());
+    }
+
+    /**
+     * Generates a JWT for the given user identifier, without loading the user
+     * Default expiration time is 30 minutes
+     * @param username The user identifier (email)
+     * @return The generated JWT
+     */
+    public String generateToken(String username) {
+        return generateToken(username, Instant.now().plus(30, ChronoUnit.MINUTES));
     }
 
     /**
@@ -39,9 +49,19 @@ public class JwtUtil {
      * @return The generated JWT
      */
     public String generateToken(UserDetails user, Instant expiration) {
+        return generateToken(user.getUsername(), expiration);
+    }
 
+    /**
+     * Generates a JWT for the given user identifier
+     *
+     * @param username The user identifier (email)
+     * @param expiration The token expiration time
+     * @return The generated JWT
+     */
+    public String generateToken(String username, Instant expiration) {
         return JWT.create()
-                .withSubject(user.getUsername())
+                .withSubject(username)
                 .withExpiresAt(expiration)
                 .sign(keyManager.getAlgorithm());
     }
@@ -0,0 +1,70 @@
+package art.lapov.vavapi.utils;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity ids: time-ordered UUIDs (version 7), stored as 16 bytes and exposed as canonical strings.
+ */
+public final class UuidUtil {
+
+    public static final int BYTES = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Millisecond timestamp shifted left by 12 bits, plus a counter for the ids generated within the same millisecond
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidUtil() {
+    }
+
+    /**
+     * A new time-ordered id, increasing within this JVM
+     */
+    public static String timeOrdered() {
+        long now = System.currentTimeMillis() << 12;
+        // More than 4096 ids in a millisecond borrow from the next one
+        long state = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        return timeOrdered(state >>> 12, state & 0xFFF, RANDOM.nextLong()).toString();
+    }
+
+    /**
+     * A version 7 UUID: 48 bits of Unix milliseconds, 12 bits of sequence, 62 random bits
+     */
+    public static UUID timeOrdered(long epochMillis, long sequence, long random) {
+        long msb = (epochMillis << 16) | 0x7000L | (sequence & 0xFFFL);
+        long lsb = (random & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Binary form of a canonical UUID string, in its textual byte order
+     *
+     * @throws IllegalArgumentException if the string is not a UUID
+     */
+    public static byte[] toBytes(String id) {
+        if (id.length() != 36) {
+            throw new IllegalArgumentException("Not a UUID: " + id);
+        }
+        return toBytes(UUID.fromString(id));
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Canonical string of a binary UUID
+     */
+    public static String fromBytes(byte[] bytes) {
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Not a UUID: " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
@@ -0,0 +1,80 @@
+-- Converts the UUID ids stored as VARCHAR(255) to BINARY(16), with their foreign keys (MySQL 8).
+--
+-- Run once, application stopped and database backed up:
+--   mysql vavapi < binary-uuid-ids.sql
+-- Existing ids keep their value (UUID_TO_BIN in textual byte order, as written by the application);
+-- new rows get time-ordered ids. The foreign keys are dropped during the conversion and created again
+-- by Hibernate (ddl-auto=update) at the next start; their indexes are kept.
+-- Stops at the first column holding an id that is not a UUID, left as VARBINARY text to be fixed.
+
+DELIMITER //
+
+CREATE PROCEDURE drop_uuid_foreign_keys()
+BEGIN
+    DECLARE done BOOLEAN DEFAULT FALSE;
+    DECLARE fk_table VARCHAR(64);
+    DECLARE fk_name VARCHAR(64);
+    DECLARE fks CURSOR FOR
+        SELECT TABLE_NAME, CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+        WHERE CONSTRAINT_SCHEMA = DATABASE()
+          AND REFERENCED_TABLE_NAME IN ('app_user', 'location', 'station', 'payment', 'reservation');
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
+
+    OPEN fks;
+    drop_loop: LOOP
+        FETCH fks INTO fk_table, fk_name;
+        IF done THEN
+            LEAVE drop_loop;
+        END IF;
+        SET @ddl = CONCAT('ALTER TABLE `', fk_table, '` DROP FOREIGN KEY `', fk_name, '`');
+        PREPARE statement FROM @ddl;
+        EXECUTE statement;
+        DEALLOCATE PREPARE statement;
+    END LOOP;
+    CLOSE fks;
+END //
+
+CREATE PROCEDURE to_binary_uuid(IN table_name VARCHAR(64), IN column_name VARCHAR(64), IN nullable BOOLEAN)
+BEGIN
+    -- Text to bytes first, so that the 16-byte values fit while the column is converted
+    SET @ddl = CONCAT('ALTER TABLE `', table_name, '` MODIFY `', column_name, '` VARBINARY(36)');
+    PREPARE statement FROM @ddl;
+    EXECUTE statement;
+    DEALLOCATE PREPARE statement;
+
+    SET @dml = CONCAT('UPDATE `', table_name, '` SET `', column_name, '` = UUID_TO_BIN(`', column_name, '`) ',
+                      'WHERE `', column_name, '` IS NOT NULL');
+    PREPARE statement FROM @dml;
+    EXECUTE statement;
+    DEALLOCATE PREPARE statement;
+
+    SET @ddl = CONCAT('ALTER TABLE `', table_name, '` MODIFY `', column_name, '` BINARY(16)',
+                      IF(nullable, ' NULL', ' NOT NULL'));
+    PREPARE statement FROM @ddl;
+    EXECUTE statement;
+    DEALLOCATE PREPARE statement;
+END //
+
+DELIMITER ;
+
+CALL drop_uuid_foreign_keys();
+
+CALL to_binary_uuid('app_user', 'id', FALSE);
+CALL to_binary_uuid('location', 'id', FALSE);
+CALL to_binary_uuid('location', 'owner_id', TRUE);
+CALL to_binary_uuid('station', 'id', FALSE);
+CALL to_binary_uuid('station', 'location_id', TRUE);
+CALL to_binary_uuid('pricing_interval', 'id', FALSE);
+CALL to_binary_uuid('pricing_interval', 'station_id', TRUE);
+CALL to_binary_uuid('payment', 'id', FALSE);
+CALL to_binary_uuid('reservation', 'id', FALSE);
+CALL to_binary_uuid('reservation', 'client_id', TRUE);
+CALL to_binary_uuid('reservation', 'station_id', TRUE);
+CALL to_binary_uuid('reservation', 'payment_id', TRUE);
+CALL to_binary_uuid('review', 'id', FALSE);
+CALL to_binary_uuid('review', 'author_id', TRUE);
+CALL to_binary_uuid('review', 'reservation_id', TRUE);
+CALL to_binary_uuid('refresh_token', 'user_id', TRUE);
+
+DROP PROCEDURE drop_uuid_foreign_keys;
+DROP PROCEDURE to_binary_uuid;
@@ -0,0 +1,46 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.service.image.ImageFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageFormatResourceResolverTest {
+
+    @Test
+    void acceptedAlternatives_WebpAccepted() {
+        assertEquals(List.of(ImageFormat.WEBP), alternatives("image/webp,image/*;q=0.8", "avatars/a.jpg"));
+    }
+
+    @Test
+    void acceptedAlternatives_MostCompactFirst() {
+        assertEquals(List.of(ImageFormat.AVIF, ImageFormat.WEBP),
+                alternatives("image/webp,image/avif,image/jpeg", "avatars/a.jpg"));
+    }
+
+    @Test
+    void acceptedAlternatives_FallsBackToJpeg() {
+        // Wildcards and refused formats do not count as accepting a format
+        assertEquals(List.of(), alternatives("image/*,*/*;q=0.8", "avatars/a.jpg"));
+        assertEquals(List.of(), alternatives("image/webp;q=0", "avatars/a.jpg"));
+        assertEquals(List.of(), alternatives("not a media type", "avatars/a.jpg"));
+        assertEquals(List.of(), alternatives(null, "avatars/a.jpg"));
+    }
+
+    @Test
+    void acceptedAlternatives_OnlyForJpegPaths() {
+        assertEquals(List.of(), alternatives("image/webp", "avatars/a.png"));
+        assertEquals(List.of(), ImageFormatResourceResolver.acceptedAlternatives(null, "avatars/a.jpg"));
+    }
+
+    private static List<ImageFormat> alternatives(String accept, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + path);
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        return ImageFormatResourceResolver.acceptedAlternatives(request, path);
+    }
+}
@@ -0,0 +1,58 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordEncoderTest {
+
+    private final AppConfig config = new AppConfig();
+
+    @Test
+    void matches_AcceptsLegacyHashWithoutPrefix() {
+        PasswordEncoder encoder = config.passwordEncoder(4);
+        String legacy = new BCryptPasswordEncoder(4).encode("11111111");
+
+        assertTrue(encoder.matches("11111111", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.encode("11111111").startsWith("{bcrypt}$2a$04$"));
+    }
+
+    @Test
+    void authenticate_RehashesWhenStrengthIsRaised() {
+        User user = user(config.passwordEncoder(4).encode("11111111"));
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        when(passwordService.updatePassword(any(), anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        authenticate(user, config.passwordEncoder(4), passwordService);
+        verify(passwordService, never()).updatePassword(any(), anyString());
+
+        authenticate(user, config.passwordEncoder(5), passwordService);
+        verify(passwordService).updatePassword(eq(user), startsWith("{bcrypt}$2a$05$"));
+    }
+
+    private static void authenticate(User user, PasswordEncoder encoder, UserDetailsPasswordService passwordService) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(email -> user);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
+        provider.authenticate(new UsernamePasswordAuthenticationToken(user.getEmail(), "11111111"));
+    }
+
+    private static User user(String hash) {
+        User user = new User();
+        user.setEmail("user@test.com");
+        user.setPassword(hash);
+        user.setRole("ROLE_USER");
+        user.setValidated(true);
+        return user;
+    }
+}
@@ -0,0 +1,144 @@
+package art.lapov.vavapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routing;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        routing = new ReplicaRoutingDataSource(primary.getDataSource(), replica.getDataSource());
+        monitor = new ReplicaLagMonitor(routing, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.execute("DROP TABLE node");
+            database.execute("DROP TABLE replica_heartbeat");
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsTheReplicaOnceItsHeartbeatIsRecent() {
+        assertEquals("primary", readOnly.execute(status -> node()));
+
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void readWriteTransactionAndNoTransaction_UseThePrimary() {
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void laggingReplica_ReadsThePrimary() {
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+
+        replicateHeartbeat(LocalDateTime.now().minusMinutes(1));
+        monitor.check();
+
+        assertFalse(routing.isReplicaUsable());
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void unreachableReplica_ReadsThePrimary() {
+        ReplicaRoutingDataSource down = new ReplicaRoutingDataSource(primary.getDataSource(),
+                new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE"));
+        down.setReplicaUsable(true);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(down);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+
+        assertEquals("primary", transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class)));
+        assertFalse(down.isReplicaUsable());
+    }
+
+    @Test
+    void write_PinsTheClientToThePrimaryForTheStickyWindow() throws Exception {
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+        ReplicaStickinessFilter filter = new ReplicaStickinessFilter(Duration.ofMinutes(1), false);
+        List<String> reads = new ArrayList<>();
+
+        MockHttpServletResponse writing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), writing, (request, response) -> {
+            reads.add(readOnly.execute(status -> node()));
+            readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+            reads.add(readOnly.execute(status -> node()));
+        });
+        Cookie cookie = writing.getCookie(ReplicaStickinessFilter.COOKIE);
+        assertNotNull(cookie);
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest();
+        sameClient.setCookies(cookie);
+        filter.doFilter(sameClient, new MockHttpServletResponse(),
+                (request, response) -> reads.add(readOnly.execute(status -> node())));
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> reads.add(readOnly.execute(status -> node())));
+
+        assertEquals(List.of("replica", "primary", "primary", "replica"), reads);
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void replicateHeartbeat(LocalDateTime beatAt) {
+        replica.update("DELETE FROM replica_heartbeat");
+        replica.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", Timestamp.valueOf(beatAt));
+    }
+
+    private static JdbcTemplate database(String name) {
+        JdbcTemplate database = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        database.execute("CREATE TABLE node (name VARCHAR(255))");
+        database.update("INSERT INTO node (name) VALUES (?)", name);
+        database.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(6))");
+        return database;
+    }
+}
@@ -0,0 +1,144 @@
+package art.lapov.vavapi.config;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.service.FileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class StaticResourceConfigTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 1};
+    private static final byte[] WEBP = {'R', 'I', 'F', 'F', 2};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileService fileService;
+
+    @Value("${app.upload.dir}")
+    private String uploadDir;
+
+    private String withWebp;
+    private String jpegOnly;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path dir = Files.createDirectories(Path.of(uploadDir, "stations"));
+        withWebp = "station_" + UUID.randomUUID();
+        jpegOnly = "station_" + UUID.randomUUID();
+        Files.write(dir.resolve(withWebp + ".jpg"), JPEG);
+        Files.write(dir.resolve(withWebp + ".webp"), WEBP);
+        Files.write(dir.resolve(jpegOnly + ".jpg"), JPEG);
+    }
+
+    @Test
+    void upload_AcceptsWebp_ServesTheWebpRendition() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + withWebp + ".jpg").header("Accept", "image/webp,image/*;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(WEBP))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void upload_WithoutWebp_ServesTheJpeg() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + withWebp + ".jpg").header("Accept", "image/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(JPEG))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void upload_AcceptsWebpButNoRendition_FallsBackToJpeg() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + jpegOnly + ".jpg").header("Accept", "image/webp"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(JPEG))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void upload_IsCachedForeverWithAnETagOfTheFile() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + jpegOnly + ".jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(header().string("Cache-Control", containsString("public")))
+                .andExpect(header().string("ETag", etag(jpegOnly + ".jpg")));
+    }
+
+    @Test
+    void upload_NegotiatedRendition_HasItsOwnETag() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + withWebp + ".jpg").header("Accept", "image/webp"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag(withWebp + ".webp")));
+    }
+
+    @Test
+    void upload_MatchingIfNoneMatch_Returns304() throws Exception {
+        mockMvc.perform(get("/uploads/stations/" + jpegOnly + ".jpg")
+                        .header("If-None-Match", etag(jpegOnly + ".jpg")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void upload_RewrittenUnderTheSameName_IsServedAgain() throws Exception {
+        String path = "/uploads/stations/" + jpegOnly + ".jpg";
+        String previous = etag(jpegOnly + ".jpg");
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+
+        Path file = Path.of(uploadDir, "stations", jpegOnly + ".jpg");
+        byte[] rewritten = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 1, 2};
+        Files.write(file, rewritten);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+        mockMvc.perform(get(path).header("If-None-Match", previous))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(previous)))
+                .andExpect(content().bytes(rewritten));
+    }
+
+    @Test
+    void upload_DeletedImage_IsNotServedFromTheCache() throws Exception {
+        String path = "/uploads/stations/" + withWebp + ".jpg";
+        mockMvc.perform(get(path).header("Accept", "image/webp"))
+                .andExpect(content().bytes(WEBP));
+        mockMvc.perform(get(path))
+                .andExpect(content().bytes(JPEG));
+
+        fileService.deleteImage(withWebp + ".jpg", FileType.STATION);
+
+        mockMvc.perform(get(path).header("Accept", "image/webp"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(path))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etag(String fileName) throws Exception {
+        Path file = Path.of(uploadDir, "stations", fileName);
+        return "\"" + Long.toHexString(Files.getLastModifiedTime(file).toMillis())
+                + "-" + Long.toHexString(Files.size(file)) + "\"";
+    }
+}
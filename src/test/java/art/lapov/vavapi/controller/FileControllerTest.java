@@ -0,0 +1,141 @@
+package art.lapov.vavapi.controller;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.service.AccountService;
+import art.lapov.vavapi.service.FileService;
+import art.lapov.vavapi.service.StationService;
+import art.lapov.vavapi.service.image.PendingImage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class FileControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private FileService fileService;
+
+    @MockitoBean
+    private AccountService accountService;
+
+    @MockitoBean
+    private StationService stationService;
+
+    private User owner;
+    private User otherUser;
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        owner = account("user-123");
+        otherUser = account("user-456");
+        file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+    }
+
+    @Test
+    void uploadAvatar_Returns202ThenTheJobCompletes() throws Exception {
+        PendingImage pending = new PendingImage(FileType.AVATAR, "user-123", "user-123", "user-123_a.jpg",
+                Path.of("pending", "user-123_a.jpg.upload"));
+        when(fileService.storePendingUpload(any(), eq(FileType.AVATAR), eq("user-123"), eq("user-123")))
+                .thenReturn(pending);
+
+        MvcResult result = mockMvc.perform(multipart("/api/files/avatar").file(file).with(user(owner)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").exists())
+                .andExpect(jsonPath("$.fileName").value("user-123_a.jpg"))
+                .andReturn();
+        String jobId = jobId(result);
+
+        verify(accountService, timeout(5000)).updateAvatar("user-123", "user-123_a.jpg");
+        assertEquals("DONE", awaitStatus(jobId, "DONE"));
+    }
+
+    @Test
+    void getJobStatus_OtherUser_Returns404() throws Exception {
+        PendingImage pending = new PendingImage(FileType.AVATAR, "user-123", "user-123", "user-123_b.jpg",
+                Path.of("pending", "user-123_b.jpg.upload"));
+        when(fileService.storePendingUpload(any(), eq(FileType.AVATAR), eq("user-123"), eq("user-123")))
+                .thenReturn(pending);
+
+        MvcResult result = mockMvc.perform(multipart("/api/files/avatar").file(file).with(user(owner)))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        mockMvc.perform(get("/api/files/jobs/" + jobId(result)).with(user(otherUser)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getJobStatus_UnknownJob_Returns404() throws Exception {
+        mockMvc.perform(get("/api/files/jobs/unknown").with(user(owner)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void uploadStationPhoto_NotOwner_Returns403() throws Exception {
+        when(stationService.isOwner("station-1", "user-456")).thenReturn(false);
+
+        mockMvc.perform(multipart("/api/files/station/station-1").file(file).with(user(otherUser)))
+                .andExpect(status().isForbidden());
+
+        verify(fileService, never()).storePendingUpload(any(), any(), any(), any());
+    }
+
+    private String jobId(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("jobId").asText();
+    }
+
+    private String awaitStatus(String jobId, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/api/files/jobs/" + jobId).with(user(owner)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.jobId").value(jobId))
+                    .andReturn();
+            String status = objectMapper.readTree(result.getResponse().getContentAsString()).get("status").asText();
+            if (status.equals(expected) || System.currentTimeMillis() > deadline) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static User account(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        user.setRole("ROLE_USER");
+        user.setValidated(true);
+        return user;
+    }
+}
@@ -21,15 +21,22 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -90,7 +97,8 @@ class ReservationControllerTest {
         createDTO = new ReservationCreateDTO(
                 "station-456",
                 LocalDateTime.now().plusDays(1),
-                LocalDateTime.now().plusDays(2)
+                LocalDateTime.now().plusDays(2),
+                null
         );
 
         paymentDetailsDTO = new PaymentDetailsDTO(
@@ -130,7 +138,8 @@ class ReservationControllerTest {
         ReservationCreateDTO invalidDTO = new ReservationCreateDTO(
                 "station-456",
                 now.plusDays(2), // start after end
-                now.plusDays(1)
+                now.plusDays(1),
+                null
         );
 
         when(reservationService.createReservation(any(ReservationCreateDTO.class), any(User.class)))
@@ -502,7 +511,7 @@ class ReservationControllerTest {
                     return midnightDTO;
                 });
 
-        ReservationCreateDTO payload = new ReservationCreateDTO("station-456", start, end);
+        ReservationCreateDTO payload = new ReservationCreateDTO("station-456", start, end, null);
 
         // When / Then
         mockMvc.perform(post("/api/reservations")
@@ -514,6 +523,81 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$.totalCostInCents").value(1000));
     }
 
+    // ============= RECEIPTS EXPORT TESTS =============
+
+    @Test
+    @WithMockUser
+    void exportReceipts_StreamsZipWithOneEntryPerReservation() throws Exception {
+        ReservationDTO paid = new ReservationDTO(
+                "res-paid-1",
+                ReservationStatus.PAID,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(1).plusHours(2),
+                5000,
+                LocalDateTime.now(),
+                LocalDateTime.now(),
+                LocalDateTime.now(),
+                createStationShortDTO(),
+                createUserShortDTO(),
+                createPaymentDTO(),
+                null,
+                null
+        );
+        ReservationDTO completed = new ReservationDTO(
+                "res-paid-2",
+                ReservationStatus.COMPLETED,
+                LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(2).plusHours(1),
+                2500,
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(3),
+                createStationShortDTO(),
+                createUserShortDTO(),
+                createPaymentDTO(),
+                null,
+                null
+        );
+
+        when(reservationService.getReceiptReservations(any(User.class), any(), any()))
+                .thenReturn(Arrays.asList(paid, completed));
+
+        MvcResult started = mockMvc.perform(get("/api/reservations/export/receipts.zip")
+                        .with(user(mockUser))
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] zip = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/zip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals(2, entries.size());
+        assertTrue(entries.contains("receipt-res-paid-1.pdf"));
+        assertTrue(entries.contains("receipt-res-paid-2.pdf"));
+    }
+
+    @Test
+    @WithMockUser
+    void exportReceipts_InvalidRange_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/reservations/export/receipts.zip")
+                        .with(user(mockUser))
+                        .param("from", "2026-12-31")
+                        .param("to", "2026-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(reservationService, never()).getReceiptReservations(any(User.class), any(), any());
+    }
+
     // ============= HELPER METHODS =============
 
     private StationShortDTO createStationShortDTO() {
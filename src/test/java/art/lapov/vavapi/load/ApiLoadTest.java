@@ -0,0 +1,302 @@
+package art.lapov.vavapi.load;
+
+import art.lapov.vavapi.dto.LoginCredentialsDTO;
+import art.lapov.vavapi.dto.PaymentDetailsDTO;
+import art.lapov.vavapi.dto.ReservationCreateDTO;
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.LocationRepository;
+import art.lapov.vavapi.repository.PricingIntervalRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the real REST API over HTTP with concurrent virtual users running the booking scenario:
+ * search → available stations → price → reserve → accept → pay → station reviews.
+ * <p>
+ * Excluded from the default build, run with {@code mvn -Pload-test test}. Sizes are system properties
+ * ({@code load.users}, {@code load.iterations}, {@code load.warmup-iterations}, {@code load.stations});
+ * results are printed and written to {@code target/load-test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // SQL and security debug logging would dominate the measured latencies
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN"
+})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ApiLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final double LATITUDE = 48.8566;
+    private static final double LONGITUDE = 2.3522;
+    private static final int HOURS_PER_DAY = 20;
+
+    private final int users = Integer.getInteger("load.users", 16);
+    private final int iterations = Integer.getInteger("load.iterations", 25);
+    private final int warmupIterations = Integer.getInteger("load.warmup-iterations", 5);
+    private final int stationCount = Integer.getInteger("load.stations", 20);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private PricingIntervalRepository pricingIntervalRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final List<String> stationIds = new ArrayList<>();
+    private String ownerEmail;
+
+    @BeforeEach
+    void setUp() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+
+        User owner = userRepository.save(user("load-owner@test.com"));
+        ownerEmail = owner.getEmail();
+        for (int u = 0; u < users; u++) {
+            userRepository.save(user("load-client-" + u + "@test.com"));
+        }
+
+        Location location = new Location();
+        location.setName("Load test location");
+        location.setAddress("1 rue de Rivoli");
+        location.setCity("Paris");
+        location.setPostalCode(75001);
+        location.setCountry("France");
+        location.setLatitude(LATITUDE);
+        location.setLongitude(LONGITUDE);
+        location.setDeleted(false);
+        location.setOwner(owner);
+        location = locationRepository.save(location);
+
+        for (int s = 0; s < stationCount; s++) {
+            Station station = new Station();
+            station.setMaxPowerWatt(22_000L);
+            station.setConnectorType(ConnectorType.TYPE2);
+            station.setEnabled(true);
+            station.setDeleted(false);
+            station.setLocation(location);
+            station = stationRepository.save(station);
+
+            PricingInterval interval = new PricingInterval();
+            interval.setStation(station);
+            interval.setStartHour(LocalTime.MIDNIGHT);
+            interval.setEndHour(LocalTime.of(23, 59));
+            interval.setHourlyPriceInCents(300);
+            pricingIntervalRepository.save(interval);
+            stationIds.add(station.getId());
+        }
+    }
+
+    @Test
+    void bookingScenario() throws Exception {
+        String ownerToken = login(ownerEmail);
+        List<String> clientTokens = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            clientTokens.add(login("load-client-" + u + "@test.com"));
+        }
+
+        run(clientTokens, ownerToken, warmupIterations);
+        recorder.reset();
+
+        long started = System.nanoTime();
+        run(clientTokens, ownerToken, iterations);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        recorder.report(elapsed, Path.of("target", "load-test"));
+        assertEquals(0, recorder.totalErrors(), "Requests failed during the load test, see target/load-test");
+    }
+
+    private void run(List<String> clientTokens, String ownerToken, int iterationsPerUser) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String clientToken : clientTokens) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < iterationsPerUser; i++) {
+                        bookOnce(clientToken, ownerToken);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * One booking, each virtual user takes a distinct station/hour slot so reservations never conflict
+     */
+    private void bookOnce(String clientToken, String ownerToken) throws IOException, InterruptedException {
+        int slot = nextSlot.getAndIncrement();
+        String stationId = stationIds.get(slot % stationCount);
+        int hourSlot = slot / stationCount;
+        LocalDateTime start = LocalDate.now().plusDays(1 + hourSlot / HOURS_PER_DAY)
+                .atTime(2 + hourSlot % HOURS_PER_DAY, 0);
+        LocalDateTime end = start.plusHours(1);
+
+        JsonNode locations = call("GET /api/locations/search", get(
+                "/api/locations/search?latitude=" + LATITUDE + "&longitude=" + LONGITUDE + "&radius=5", null));
+        if (locations == null || locations.isEmpty()) {
+            return;
+        }
+        String locationId = locations.get(0).get("id").asText();
+
+        if (call("GET /api/stations/location/{id}?period", get(
+                "/api/stations/location/" + locationId + "?startDate=" + start + "&endDate=" + end, null)) == null) {
+            return;
+        }
+        JsonNode quote = call("GET /api/stations/{id}/calculate-price", get(
+                "/api/stations/" + stationId + "/calculate-price?startTime=" + start + "&endTime=" + end, null));
+        if (quote == null) {
+            return;
+        }
+
+        JsonNode reservation = call("POST /api/reservations", send("POST", "/api/reservations", clientToken,
+                new ReservationCreateDTO(stationId, start, end, quote.path("quote_token").asText(null))));
+        if (reservation == null) {
+            return;
+        }
+        String reservationId = reservation.get("id").asText();
+
+        if (call("PUT /api/reservations/{id}/accept",
+                send("PUT", "/api/reservations/" + reservationId + "/accept", ownerToken, null)) == null) {
+            return;
+        }
+        if (call("POST /api/reservations/{id}/pay", send("POST", "/api/reservations/" + reservationId + "/pay",
+                clientToken, new PaymentDetailsDTO("4111111111111111", "12/30", "123", "Load Test"))) == null) {
+            return;
+        }
+
+        call("GET /api/reviews/station/{id}", get("/api/reviews/station/" + stationId, null));
+    }
+
+    /**
+     * Send the request and record its latency
+     *
+     * @return the parsed body, null when the request failed
+     */
+    private JsonNode call(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        boolean success = response.statusCode() / 100 == 2;
+        recorder.record(endpoint, started, success);
+        if (!success) {
+            return null;
+        }
+        return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        JsonNode response = call("POST /api/login",
+                send("POST", "/api/login", null, new LoginCredentialsDTO(email, PASSWORD)));
+        if (response == null) {
+            throw new IllegalStateException("Login failed for " + email);
+        }
+        return response.get("token").asText();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String token, Object body) throws IOException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .method(method, publisher)
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setFirstName("Load");
+        user.setLastName("Test");
+        user.setPhone("0600000000");
+        user.setAddress("1 rue de Rivoli");
+        user.setCity("Paris");
+        user.setCountry("France");
+        user.setPostalCode(75001);
+        user.setRole("ROLE_USER");
+        user.setValidated(true);
+        user.setDeleted(false);
+        return user;
+    }
+}
@@ -0,0 +1,86 @@
+package art.lapov.vavapi.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency and error recording per endpoint, reported as an HdrHistogram percentile table.
+ */
+class LatencyRecorder {
+
+    /**
+     * Latencies are recorded in microseconds, up to one minute with 3 significant digits
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long startNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histograms.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_LATENCY_MICROS, 3))
+                .recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+        if (!success) {
+            errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        }
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    void reset() {
+        histograms.clear();
+        errors.clear();
+    }
+
+    /**
+     * Print the summary table and write it, with one {@code .hgrm} percentile distribution per endpoint, to {@code dir}
+     */
+    void report(Duration elapsed, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(dir.resolve("summary.txt")))) {
+            printSummary(elapsed, System.out);
+            printSummary(elapsed, summary);
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(fileName)))) {
+                // Values are in microseconds, print them in milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private void printSummary(Duration elapsed, PrintStream out) {
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        out.printf("%-45s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        histograms.forEach((endpoint, histogram) -> out.printf("%-45s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                histogram.getTotalCount(),
+                errors.getOrDefault(endpoint, new LongAdder()).sum(),
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+        out.printf("Elapsed %.1f s%n", seconds);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
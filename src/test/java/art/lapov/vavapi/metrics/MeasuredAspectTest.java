@@ -0,0 +1,67 @@
+package art.lapov.vavapi.metrics;
+
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeasuredAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.addAspect(new MeasuredAspect(registry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void measure_Success_RecordsTimerAndResultSize() {
+        service.find(3);
+        service.find(5);
+
+        Timer timer = registry.get("test.find").tag("outcome", Outcome.SUCCESS).timer();
+        assertEquals(2, timer.count());
+        DistributionSummary results = registry.get("test.find.results").summary();
+        assertEquals(2, results.count());
+        assertEquals(8, results.totalAmount());
+    }
+
+    @Test
+    void measure_Exceptions_TaggedByOutcome() {
+        assertThrows(ResponseStatusException.class, () -> service.fail(new ResponseStatusException(HttpStatus.CONFLICT)));
+        assertThrows(ResponseStatusException.class, () -> service.fail(new ResponseStatusException(HttpStatus.BAD_REQUEST)));
+        assertThrows(ResourceNotFoundException.class, () -> service.fail(new ResourceNotFoundException("missing")));
+        assertThrows(IllegalStateException.class, () -> service.fail(new IllegalStateException()));
+
+        assertEquals(1, registry.get("test.fail").tags("outcome", Outcome.CONFLICT, "scope", "unit").timer().count());
+        assertEquals(1, registry.get("test.fail").tag("outcome", Outcome.VALIDATION_ERROR).timer().count());
+        assertEquals(1, registry.get("test.fail").tag("outcome", Outcome.NOT_FOUND).timer().count());
+        assertEquals(1, registry.get("test.fail").tag("outcome", Outcome.ERROR).timer().count());
+    }
+
+    static class SampleService {
+
+        @Measured("test.find")
+        public List<Integer> find(int count) {
+            return java.util.stream.IntStream.range(0, count).boxed().toList();
+        }
+
+        @Measured(value = "test.fail", tags = {"scope", "unit"})
+        public void fail(RuntimeException e) {
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package art.lapov.vavapi.metrics;
+
+import art.lapov.vavapi.dto.PaymentDetailsDTO;
+import art.lapov.vavapi.dto.ReservationCreateDTO;
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.LocationRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Calls the budgeted endpoints against the database with app.sql.query-budget.mode=fail,
+ * so a request issuing more statements than its {@link QueryBudget} fails the build.
+ * Not transactional: every request loads its data like in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryBudgetEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    private User owner;
+    private User client;
+    private Station station;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry.find("vavapi.sql.budget.exceeded").counters().forEach(meterRegistry::remove);
+        owner = userRepository.save(account("owner"));
+        client = userRepository.save(account("client"));
+        // Several locations and stations, so a per-row lazy load shows up as extra statements
+        for (int i = 0; i < 3; i++) {
+            Location location = locationRepository.save(location(owner, "Location " + i));
+            for (int j = 0; j < 2; j++) {
+                station = station(location);
+                PricingInterval interval = new PricingInterval();
+                interval.setHourlyPriceInCents(500);
+                interval.setStartHour(LocalTime.of(6, 0));
+                interval.setEndHour(LocalTime.of(22, 0));
+                interval.setStation(station);
+                station.getPricingIntervals().add(interval);
+                station = stationRepository.save(station);
+            }
+        }
+    }
+
+    @Test
+    void stationList_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/stations").param("size", "20").with(user(client)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isNotEmpty());
+
+        assertNoBudgetExceeded();
+    }
+
+    @Test
+    void stationSearch_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/stations/search")
+                        .param("connectorType", "TYPE2")
+                        .param("city", "Lyon")
+                        .with(user(client)))
+                .andExpect(status().isOk());
+
+        assertNoBudgetExceeded();
+    }
+
+    @Test
+    void reservationCreateAcceptPay_StayWithinBudget() throws Exception {
+        LocalDate day = LocalDate.now().plusDays(3);
+        ReservationCreateDTO create = new ReservationCreateDTO(station.getId(),
+                day.atTime(10, 0), day.atTime(12, 0), null);
+
+        MvcResult created = mockMvc.perform(post("/api/reservations")
+                        .with(user(client))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String reservationId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        mockMvc.perform(put("/api/reservations/" + reservationId + "/accept").with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+
+        PaymentDetailsDTO payment = new PaymentDetailsDTO("4111111111111111", "12/30", "123", "Jane Client");
+        mockMvc.perform(post("/api/reservations/" + reservationId + "/pay")
+                        .with(user(client))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAID"));
+
+        assertNoBudgetExceeded();
+    }
+
+    private void assertNoBudgetExceeded() {
+        assertTrue(meterRegistry.find("vavapi.sql.budget.exceeded").counters().isEmpty(),
+                "an endpoint exceeded its query budget");
+    }
+
+    private static User account(String name) {
+        User user = new User();
+        user.setRole("ROLE_USER");
+        user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("password123");
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setPhone("0600000000");
+        user.setAddress("1 rue de la Paix");
+        user.setCity("Lyon");
+        user.setCountry("France");
+        user.setPostalCode(69000);
+        user.setValidated(true);
+        user.setDeleted(false);
+        return user;
+    }
+
+    private static Location location(User owner, String name) {
+        Location location = new Location();
+        location.setName(name);
+        location.setAddress("2 place Bellecour");
+        location.setCity("Lyon");
+        location.setPostalCode(69002);
+        location.setCountry("France");
+        location.setLatitude(45.757);
+        location.setLongitude(4.832);
+        location.setDeleted(false);
+        location.setOwner(owner);
+        return location;
+    }
+
+    private static Station station(Location location) {
+        Station station = new Station();
+        station.setConnectorType(ConnectorType.TYPE2);
+        station.setMaxPowerWatt(22000L);
+        station.setEnabled(true);
+        station.setDeleted(false);
+        station.setLocation(location);
+        return station;
+    }
+}
@@ -0,0 +1,64 @@
+package art.lapov.vavapi.metrics;
+
+import art.lapov.vavapi.exception.QueryBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetStatementInspectorTest {
+
+    @AfterEach
+    void tearDown() {
+        QueryBudgetContext.close();
+    }
+
+    @Test
+    void inspect_FailModeRefusesStatementOverBudget() {
+        QueryBudgetStatementInspector inspector = new QueryBudgetStatementInspector(QueryBudgetMode.FAIL);
+        QueryBudgetContext context = QueryBudgetContext.open();
+        context.start("GET /api/reservations/owner-history", 2);
+
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertEquals("select 2", inspector.inspect("select 2"));
+        QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class,
+                () -> inspector.inspect("select 3"));
+        assertTrue(e.getMessage().contains("GET /api/reservations/owner-history"));
+        assertTrue(context.isExceeded());
+    }
+
+    @Test
+    void inspect_WarnModeKeepsCounting() {
+        QueryBudgetStatementInspector inspector = new QueryBudgetStatementInspector(QueryBudgetMode.WARN);
+        QueryBudgetContext context = QueryBudgetContext.open();
+        context.start("GET /api/stations", 1);
+
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+
+        assertEquals(3, context.getCount());
+        assertTrue(context.isExceeded());
+    }
+
+    @Test
+    void inspect_IgnoresStatementsBeforeBudgetIsApplied() {
+        QueryBudgetStatementInspector inspector = new QueryBudgetStatementInspector(QueryBudgetMode.FAIL);
+        QueryBudgetContext context = QueryBudgetContext.open();
+
+        inspector.inspect("select * from app_user where email = ?");
+        context.start("GET /api/reviews/my", 1);
+        inspector.inspect("select * from review where author_id = ?");
+
+        assertEquals(1, context.getCount());
+        assertFalse(context.isExceeded());
+    }
+
+    @Test
+    void inspect_OutsideRequestIsNotCounted() {
+        QueryBudgetStatementInspector inspector = new QueryBudgetStatementInspector(QueryBudgetMode.FAIL);
+
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertNull(QueryBudgetContext.current());
+    }
+}
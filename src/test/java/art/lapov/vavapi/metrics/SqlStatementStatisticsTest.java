@@ -0,0 +1,81 @@
+package art.lapov.vavapi.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementStatisticsTest {
+
+    private SimpleMeterRegistry registry;
+    private SqlStatementStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        statistics = new SqlStatementStatistics(Duration.ofSeconds(1), 2, registry);
+    }
+
+    @Test
+    void normalize_ReplacesLiteralsAndCollapsesInLists() {
+        assertEquals("select * from station s1_0 where s1_0.id in (?) and s1_0.name=? limit ?",
+                statistics.normalize("select *\n  from station s1_0 where s1_0.id in (?, ?,?) "
+                        + "and s1_0.name='O''Brien' limit 10"));
+    }
+
+    @Test
+    void afterQuery_AggregatesByNormalizedStatement() {
+        execute("select * from review where rating = 4");
+        execute("select * from review where rating = 5");
+        execute("delete from review where id = ?");
+
+        List<SqlStatementStatistics.StatementSnapshot> top = statistics.top(10);
+        assertEquals(3, statistics.totalCount());
+        assertEquals(2, statistics.distinctCount());
+        assertEquals(2, top.stream()
+                .filter(s -> s.statement().equals("select * from review where rating = ?"))
+                .findFirst().orElseThrow().count());
+        assertEquals(2, registry.get("vavapi.sql.statements").tag("type", "select").timer().count());
+    }
+
+    @Test
+    void afterQuery_AggregatesBeyondMaxStatements() {
+        execute("select 1 from location");
+        execute("select 1 from station");
+        execute("select 1 from review");
+
+        assertEquals(3, statistics.distinctCount());
+        assertTrue(statistics.top(10).stream()
+                .anyMatch(s -> s.statement().equals(SqlStatementStatistics.OTHER_STATEMENTS)));
+    }
+
+    @Test
+    void afterQuery_CountsStatementsOfCurrentRequest() {
+        SqlRequestContext context = SqlRequestContext.open("GET /api/reviews/station/1");
+        try {
+            execute("select * from app_user where id = 'a'");
+            execute("select * from app_user where id = 'b'");
+        } finally {
+            SqlRequestContext.close();
+        }
+        execute("select * from app_user where id = 'c'");
+
+        assertEquals(2, context.getTotal());
+        assertEquals(2, context.getCounts().get("select * from app_user where id = ?"));
+        assertNull(SqlRequestContext.current());
+    }
+
+    private void execute(String sql) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setSuccess(true);
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        statistics.beforeQuery(execInfo, queries);
+        statistics.afterQuery(execInfo, queries);
+    }
+}
@@ -0,0 +1,91 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.service.image.ImageRenditionEngine;
+import art.lapov.vavapi.service.image.PendingImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FileServiceTest {
+
+    private FileService fileService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        fileService = new FileService(mock(ImageRenditionEngine.class), List.of());
+        ReflectionTestUtils.setField(fileService, "uploadDir", dir.resolve("uploads").toString());
+        ReflectionTestUtils.setField(fileService, "pendingDir", dir.resolve("pending").toString());
+    }
+
+    @Test
+    void findPendingUploads_KeepsTheUploader() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        PendingImage stored = fileService.storePendingUpload(file, FileType.STATION, "station-1", "user-1");
+
+        List<PendingImage> pending = fileService.findPendingUploads();
+
+        assertEquals(List.of(stored), pending);
+        assertEquals("user-1", pending.get(0).userId());
+        assertEquals("station-1", pending.get(0).entityId());
+    }
+
+    @Test
+    void findPendingUploads_WithoutUploader_HasNoOwner() throws Exception {
+        Path pendingDir = Files.createDirectories(dir.resolve("pending"));
+        Files.write(pendingDir.resolve("AVATAR__user-1_abc.jpg.upload"), new byte[]{1});
+
+        List<PendingImage> pending = fileService.findPendingUploads();
+
+        assertEquals(1, pending.size());
+        assertNull(pending.get(0).userId());
+        assertEquals("user-1", pending.get(0).entityId());
+        assertEquals("user-1_abc.jpg", pending.get(0).fileName());
+    }
+
+    @Test
+    void findPendingUploads_InUploadOrder() throws Exception {
+        Path pendingDir = Files.createDirectories(dir.resolve("pending"));
+        Path newer = Files.write(pendingDir.resolve("STATION__user-1__station-1_a.jpg.upload"), new byte[]{1});
+        Path older = Files.write(pendingDir.resolve("STATION__user-1__station-1_b.jpg.upload"), new byte[]{1});
+        Files.setLastModifiedTime(older, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(2_000_000));
+
+        List<PendingImage> pending = fileService.findPendingUploads();
+
+        assertEquals(List.of("station-1_b.jpg", "station-1_a.jpg"), pending.stream().map(PendingImage::fileName).toList());
+    }
+
+    @Test
+    void deletePreviousImages_KeepsTheUploadAndTheOtherEntities() throws Exception {
+        Path stations = Files.createDirectories(dir.resolve("uploads").resolve("stations"));
+        for (String name : List.of("station-1_old.jpg", "mini_station-1_old.webp", "station-1_new.jpg",
+                "mini_station-1_new.jpg", "station-2_other.jpg")) {
+            Files.write(stations.resolve(name), new byte[]{1});
+        }
+
+        fileService.deletePreviousImages(new PendingImage(FileType.STATION, "station-1", "user-1",
+                "station-1_new.jpg", dir.resolve("pending").resolve("raw")));
+
+        try (Stream<Path> files = Files.list(stations)) {
+            assertEquals(Set.of("station-1_new.jpg", "mini_station-1_new.jpg", "station-2_other.jpg"),
+                    files.map(path -> path.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+}
@@ -6,6 +6,9 @@ import art.lapov.vavapi.model.PricingInterval;
 import art.lapov.vavapi.model.Station;
 import art.lapov.vavapi.repository.PricingIntervalRepository;
 import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.calendar.StationCalendarService;
+import art.lapov.vavapi.service.search.StationSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
@@ -34,11 +38,25 @@ class PricingIntervalServiceTest {
     @Mock
     private StationRepository stationRepository;
 
+    @Mock
+    private StationSearchIndex stationSearchIndex;
+
+    @Mock
+    private StationCalendarService stationCalendarService;
+
+    @Mock
+    private QuoteTokenService quoteTokenService;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private PricingIntervalService pricingIntervalService;
 
     private String stationId = "station-123";
     private Station station;
+    // Reservations must not start in the past
+    private final LocalDate day = LocalDate.now().plusDays(7);
 
     @BeforeEach
     void setUp() {
@@ -55,17 +73,19 @@ class PricingIntervalServiceTest {
                 2000 // 20€
         );
 
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 14, 0); // 4 часа
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.atTime(14, 0); // 4 часа
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
                 .thenReturn(List.of(interval));
+        when(quoteTokenService.issue(eq(stationId), eq(start), eq(end), eq(8000), anyLong())).thenReturn("quote");
 
         // When
         CostCalculationDTO result = pricingIntervalService.calculateCost(stationId, start, end);
 
         // Then
+        assertEquals("quote", result.getQuoteToken());
         assertEquals(8000, result.getTotalCostInCents()); // 4 hours * 20€ = 80€
         assertEquals(4.0, result.getDurationHours());
     }
@@ -84,12 +104,13 @@ class PricingIntervalServiceTest {
                 2500
         );
 
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 16, 0); // 6 часов
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.atTime(16, 0); // 6 часов
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
                 .thenReturn(Arrays.asList(morning, evening));
+        when(quoteTokenService.issue(eq(stationId), eq(start), eq(end), eq(13000), anyLong())).thenReturn("quote");
 
         // When
         CostCalculationDTO result = pricingIntervalService.calculateCost(stationId, start, end);
@@ -98,6 +119,7 @@ class PricingIntervalServiceTest {
         // 2 hours in the morning (10:00-12:00) * 15€ = 30€
         // 4 hours in the evening (12:00-16:00) * 25€ = 100€
         assertEquals(13000, result.getTotalCostInCents()); // 130€
+        assertEquals("quote", result.getQuoteToken());
     }
 
     @Test
@@ -109,17 +131,19 @@ class PricingIntervalServiceTest {
                 2000
         );
 
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 22, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 16, 2, 0); // 4 hours after midnight
+        LocalDateTime start = day.atTime(22, 0);
+        LocalDateTime end = day.plusDays(1).atTime(2, 0); // 4 hours after midnight
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
                 .thenReturn(List.of(allDay));
+        when(quoteTokenService.issue(eq(stationId), eq(start), eq(end), eq(8000), anyLong())).thenReturn("quote");
 
         // When
         CostCalculationDTO result = pricingIntervalService.calculateCost(stationId, start, end);
 
         // Then
+        assertEquals("quote", result.getQuoteToken());
         assertEquals(8000, result.getTotalCostInCents()); // 4 hours * 20€
         assertEquals(4.0, result.getDurationHours());
     }
@@ -133,12 +157,13 @@ class PricingIntervalServiceTest {
                 1000
         );
 
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 17, 18, 0); // 2 days and 8 hours
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.plusDays(2).atTime(18, 0); // 2 days and 8 hours
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
                 .thenReturn(List.of(dayInterval));
+        when(quoteTokenService.issue(eq(stationId), eq(start), eq(end), eq(32000), anyLong())).thenReturn("quote");
 
         // When
         CostCalculationDTO result = pricingIntervalService.calculateCost(stationId, start, end);
@@ -148,6 +173,7 @@ class PricingIntervalServiceTest {
         // Day 2: 08:00-20:00 = 12 hours * 10€ = 120€
         // Day 3: 08:00-18:00 = 10 hours * 10€ = 100€
         assertEquals(32000, result.getTotalCostInCents()); // 320€
+        assertEquals("quote", result.getQuoteToken());
     }
 
     @Test
@@ -160,8 +186,8 @@ class PricingIntervalServiceTest {
         );
 
         // Reservation from 08:00 to 20:00.
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 8, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 20, 0);
+        LocalDateTime start = day.atTime(8, 0);
+        LocalDateTime end = day.atTime(20, 0);
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
@@ -178,8 +204,8 @@ class PricingIntervalServiceTest {
     @Test
     void calculateCost_NoIntervals_ThrowsException() {
         // Given
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 12, 0);
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.atTime(12, 0);
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
@@ -194,8 +220,8 @@ class PricingIntervalServiceTest {
     @Test
     void calculateCost_InvalidDates_ThrowsException() {
         // Given: end date earlier than start date
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 14, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 10, 0);
+        LocalDateTime start = day.atTime(14, 0);
+        LocalDateTime end = day.atTime(10, 0);
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
 
@@ -214,17 +240,19 @@ class PricingIntervalServiceTest {
                 1000 // 10€/h
         );
 
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 12, 30);
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.atTime(12, 30);
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.of(station));
         when(pricingIntervalRepository.findByStationIdOrderByStartHour(stationId))
                 .thenReturn(List.of(interval));
+        when(quoteTokenService.issue(eq(stationId), eq(start), eq(end), eq(2500), anyLong())).thenReturn("quote");
 
         // When
         CostCalculationDTO result = pricingIntervalService.calculateCost(stationId, start, end);
 
         // Then
+        assertEquals("quote", result.getQuoteToken());
         assertEquals(2500, result.getTotalCostInCents()); // 2.5 * 10€
         assertEquals(2.5, result.getDurationHours());
     }
@@ -232,8 +260,8 @@ class PricingIntervalServiceTest {
     @Test
     void calculateCost_StationNotFound_ThrowsException() {
         // Given
-        LocalDateTime start = LocalDateTime.of(2026, 6, 15, 10, 0);
-        LocalDateTime end = LocalDateTime.of(2026, 6, 15, 12, 0);
+        LocalDateTime start = day.atTime(10, 0);
+        LocalDateTime end = day.atTime(12, 0);
 
         when(stationRepository.findById(stationId)).thenReturn(Optional.empty());
 
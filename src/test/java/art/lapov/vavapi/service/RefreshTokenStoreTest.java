@@ -0,0 +1,179 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.model.RefreshToken;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.RefreshTokenRepository;
+import art.lapov.vavapi.service.jobs.JobLeases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenStoreTest {
+
+    // User ids are written as binary UUIDs
+    private static final String USER_1 = "019a0b6c-3f2e-7d41-8a5b-6c7d8e9f0a1b";
+    private static final String USER_2 = "019a0b6c-3f2e-7d41-8a5b-6c7d8e9f0a1c";
+
+    private RefreshTokenRepository tokenRepository;
+    private JdbcTemplate jdbcTemplate;
+    private JobLeases jobLeases;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository = mock(RefreshTokenRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        jobLeases = mock(JobLeases.class);
+        store = new RefreshTokenStore(tokenRepository, jdbcTemplate, jobLeases, new SimpleMeterRegistry(),
+                Duration.ofDays(30), Duration.ofHours(1), 2);
+    }
+
+    @Test
+    void consume_IssuedTokenIsValidOnce() {
+        String token = store.issue(USER_1, "user@test.com");
+        store.flush();
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(RefreshTokenStore.hash(token)))).thenReturn(1, 0);
+
+        RefreshTokenStore.Entry entry = store.consume(token).orElseThrow();
+        assertEquals(USER_1, entry.userId());
+        assertEquals("user@test.com", entry.username());
+        assertTrue(store.consume(token).isEmpty());
+    }
+
+    @Test
+    void consume_SameTokenOnTwoNodes_OnlyTheNodeDeletingTheRowWins() {
+        String token = "stored";
+        String hash = RefreshTokenStore.hash(token);
+        when(tokenRepository.findById(hash)).thenReturn(Optional.of(storedToken(hash, LocalDateTime.now().plusDays(1))));
+        // The table is shared: the first delete removes the row, the second finds nothing
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(hash))).thenReturn(1, 0);
+        RefreshTokenStore otherNode = new RefreshTokenStore(tokenRepository, jdbcTemplate, jobLeases,
+                new SimpleMeterRegistry(), Duration.ofDays(30), Duration.ofHours(1), 2);
+
+        assertTrue(store.consume(token).isPresent());
+        assertTrue(otherNode.consume(token).isEmpty());
+    }
+
+    @Test
+    void consume_NotFlushedYet_WritesTheInsertThenDeletes() {
+        String token = store.issue(USER_1, "user@test.com");
+        String hash = RefreshTokenStore.hash(token);
+        // The row exists once the pending insert is written
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(hash))).thenReturn(0, 1);
+
+        assertEquals(USER_1, store.consume(token).orElseThrow().userId());
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE"), eq(hash));
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE"), eq(hash));
+    }
+
+    @Test
+    void consume_UnknownToAnotherNode_IsRejected() {
+        String token = store.issue(USER_1, "user@test.com");
+        when(tokenRepository.findById(anyString())).thenReturn(Optional.empty());
+        RefreshTokenStore otherNode = new RefreshTokenStore(tokenRepository, jdbcTemplate, jobLeases,
+                new SimpleMeterRegistry(), Duration.ofDays(30), Duration.ofHours(1), 2);
+
+        // Issued here, not flushed: the other node cannot see it yet
+        assertTrue(otherNode.consume(token).isEmpty());
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), any(Object[].class));
+    }
+
+    @Test
+    void consume_FallsBackToLegacyRowStoredWithRawToken() {
+        String legacyToken = "0b8f7a52-5e55-4a5e-9d0c-3a3f4f1f6a10";
+        when(tokenRepository.findById(RefreshTokenStore.hash(legacyToken))).thenReturn(Optional.empty());
+        when(tokenRepository.findById(legacyToken))
+                .thenReturn(Optional.of(storedToken(legacyToken, LocalDateTime.now().plusDays(1))));
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(legacyToken))).thenReturn(1, 0);
+
+        assertEquals("user-2", store.consume(legacyToken).orElseThrow().userId());
+        assertTrue(store.consume(legacyToken).isEmpty());
+    }
+
+    @Test
+    void consume_RejectsExpiredToken() {
+        String token = "expired";
+        String hash = RefreshTokenStore.hash(token);
+        when(tokenRepository.findById(hash))
+                .thenReturn(Optional.of(storedToken(hash, LocalDateTime.now().minusMinutes(1))));
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(hash))).thenReturn(1);
+
+        assertTrue(store.consume(token).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesHashesInBatches() {
+        String first = store.issue(USER_1, "user@test.com");
+        store.issue(USER_1, "user@test.com");
+        store.issue(USER_1, "user@test.com");
+
+        store.flush();
+
+        // Batch size 2
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertEquals(2, inserts.getAllValues().get(0).size());
+        assertEquals(1, inserts.getAllValues().get(1).size());
+        assertEquals(RefreshTokenStore.hash(first), inserts.getAllValues().get(0).get(0)[0]);
+    }
+
+    @Test
+    void flush_FailedBatch_DropsOnlyTheFailingInserts() {
+        store.issue(USER_1, "user@test.com");
+        store.issue(USER_2, "user@test.com");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenThrow(new QueryTimeoutException("down"));
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("deleted user"))
+                .thenReturn(1);
+
+        store.flush();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), any(Object[].class));
+        reset(jdbcTemplate);
+        store.flush();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void purgeExpired_DeletesByChunks() {
+        when(jobLeases.tryAcquire(anyString(), any())).thenReturn(Optional.of(new JobLeases.Lease("purge", 1)));
+        when(jdbcTemplate.update(startsWith("DELETE"), any(), eq(2))).thenReturn(2, 2, 1);
+
+        store.purgeExpired();
+
+        verify(jdbcTemplate, times(3)).update(startsWith("DELETE"), any(), eq(2));
+    }
+
+    @Test
+    void purgeExpired_LeavesTheTableToTheNodeHoldingTheLease() {
+        when(jobLeases.tryAcquire(anyString(), any())).thenReturn(Optional.empty());
+
+        store.purgeExpired();
+
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), any(), anyInt());
+    }
+
+    private static RefreshToken storedToken(String id, LocalDateTime expiresAt) {
+        User user = new User();
+        user.setId("user-2");
+        user.setEmail("legacy@test.com");
+        return new RefreshToken(id, expiresAt, user);
+    }
+}
@@ -0,0 +1,152 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.LocationRepository;
+import art.lapov.vavapi.repository.ReservationRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accepts overlapping reservations of the same station from two threads at once, against the database:
+ * the overlap check of each acceptance must see the other one
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ReservationAcceptanceConcurrencyTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Test
+    void acceptReservation_ConcurrentOverlaps_OnlyOneIsAccepted() throws Exception {
+        User owner = userRepository.save(account("owner"));
+        User client = userRepository.save(account("client"));
+        Location location = locationRepository.save(location(owner));
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            // Several rounds, so that both updates run before either overlap check at least once without the lock
+            for (int round = 0; round < 10; round++) {
+                Station station = stationRepository.save(station(location));
+                LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+                Reservation first = reservationRepository.save(reservation(station, client, start, start.plusHours(2)));
+                Reservation second = reservationRepository.save(reservation(station, client,
+                        start.plusHours(1), start.plusHours(3)));
+
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Boolean>> results = List.of(
+                        threads.submit(() -> accept(go, first.getId(), owner)),
+                        threads.submit(() -> accept(go, second.getId(), owner)));
+                go.countDown();
+
+                int accepted = 0;
+                for (Future<Boolean> result : results) {
+                    accepted += result.get() ? 1 : 0;
+                }
+                assertEquals(1, accepted, "round " + round);
+                long blocking = reservationRepository.findAllById(List.of(first.getId(), second.getId())).stream()
+                        .filter(reservation -> reservation.getStatus() == ReservationStatus.ACCEPTED)
+                        .count();
+                assertEquals(1, blocking, "round " + round);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private boolean accept(CountDownLatch go, String reservationId, User owner) throws InterruptedException {
+        go.await();
+        try {
+            reservationService.acceptReservation(reservationId, owner);
+            return true;
+        } catch (ResponseStatusException e) {
+            assertTrue(e.getStatusCode().value() == 409, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Reservation reservation(Station station, User client, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setStatus(ReservationStatus.CREATED);
+        reservation.setStartDate(start);
+        reservation.setEndDate(end);
+        reservation.setTotalCostInCents(1000);
+        reservation.setClient(client);
+        reservation.setStation(station);
+        return reservation;
+    }
+
+    private static User account(String name) {
+        User user = new User();
+        user.setRole("ROLE_USER");
+        user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("password123");
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setPhone("0600000000");
+        user.setAddress("1 rue de la Paix");
+        user.setCity("Lyon");
+        user.setCountry("France");
+        user.setPostalCode(69000);
+        user.setValidated(true);
+        user.setDeleted(false);
+        return user;
+    }
+
+    private static Location location(User owner) {
+        Location location = new Location();
+        location.setName("Location");
+        location.setAddress("2 place Bellecour");
+        location.setCity("Lyon");
+        location.setPostalCode(69002);
+        location.setCountry("France");
+        location.setLatitude(45.757);
+        location.setLongitude(4.832);
+        location.setDeleted(false);
+        location.setOwner(owner);
+        return location;
+    }
+
+    private static Station station(Location location) {
+        Station station = new Station();
+        station.setConnectorType(ConnectorType.TYPE2);
+        station.setMaxPowerWatt(22000L);
+        station.setEnabled(true);
+        station.setDeleted(false);
+        station.setLocation(location);
+        return station;
+    }
+}
@@ -0,0 +1,134 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.dto.ReservationCreateDTO;
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.security.KeyManager;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationAdmissionTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private ReservationAdmission admission;
+    private QuoteTokenService quoteTokenService;
+    private Station station;
+    private final User client = new User();
+
+    @BeforeEach
+    void setUp() {
+        StationRepository stationRepository = mock(StationRepository.class);
+        KeyManager keyManager = mock(KeyManager.class);
+        when(keyManager.getAlgorithm()).thenReturn(Algorithm.HMAC256("test-key"));
+        quoteTokenService = new QuoteTokenService(keyManager, Duration.ofMinutes(10));
+        admission = new ReservationAdmission(stationRepository,
+                new PricingIntervalService(null, stationRepository, null, null, null, quoteTokenService, null),
+                quoteTokenService);
+        station = new Station();
+        station.setId("station-1");
+        station.setEnabled(true);
+        station.setPricingIntervals(List.of(interval(8, 12, 100), interval(12, 20, 200)));
+    }
+
+    @Test
+    void admit_PricesTheSnapshotIntervals() {
+        Reservation reservation = admission.admit(new ReservationAdmission.Snapshot(station, 0),
+                request(11, 13), client, NOW);
+
+        assertEquals(ReservationStatus.CREATED, reservation.getStatus());
+        assertEquals(300, reservation.getTotalCostInCents());
+        assertSame(station, reservation.getStation());
+        assertSame(client, reservation.getClient());
+    }
+
+    @Test
+    void admit_TakesTheAmountOfAValidQuote() {
+        station.setPricingVersion(3L);
+        ReservationCreateDTO quoted = request(11, 13, quote(request(11, 13), 250, 3));
+
+        Reservation reservation = admission.admit(new ReservationAdmission.Snapshot(station, 0), quoted, client, NOW);
+
+        assertEquals(250, reservation.getTotalCostInCents());
+    }
+
+    @Test
+    void admit_PricesAgainWhenTheQuoteDoesNotApply() {
+        station.setPricingVersion(3L);
+        // Pricing changed since the quote
+        ReservationCreateDTO stale = request(11, 13, quote(request(11, 13), 250, 2));
+        // Quote of another period
+        ReservationCreateDTO otherPeriod = request(11, 13, quote(request(11, 14), 250, 3));
+        // Not a quote
+        ReservationCreateDTO garbage = request(11, 13, "not-a-token");
+
+        for (ReservationCreateDTO dto : List.of(stale, otherPeriod, garbage)) {
+            Reservation reservation = admission.admit(new ReservationAdmission.Snapshot(station, 0), dto, client, NOW);
+            assertEquals(300, reservation.getTotalCostInCents());
+        }
+    }
+
+    @Test
+    void admit_RejectsBlockedPeriod() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> admission.admit(new ReservationAdmission.Snapshot(station, 1), request(11, 13), client, NOW));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+
+    @Test
+    void admit_RejectsPeriodNotCoveredByPricing() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> admission.admit(new ReservationAdmission.Snapshot(station, 0), request(19, 21), client, NOW));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals("No pricing defined for selected time period", e.getReason());
+    }
+
+    @Test
+    void admit_ValidatesDatesBeforeAvailability() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> admission.admit(new ReservationAdmission.Snapshot(station, 1), request(8, 10), client, NOW.plusDays(1)));
+        assertEquals("Cannot make reservations in the past", e.getReason());
+
+        station.setEnabled(false);
+        e = assertThrows(ResponseStatusException.class,
+                () -> admission.admit(new ReservationAdmission.Snapshot(station, 0), request(11, 13), client, NOW));
+        assertEquals("Station is not available for reservations", e.getReason());
+    }
+
+    private ReservationCreateDTO request(int startHour, int endHour) {
+        return request(startHour, endHour, null);
+    }
+
+    private ReservationCreateDTO request(int startHour, int endHour, String quoteToken) {
+        return new ReservationCreateDTO(station.getId(), NOW.toLocalDate().plusDays(1).atTime(startHour, 0),
+                NOW.toLocalDate().plusDays(1).atTime(endHour, 0), quoteToken);
+    }
+
+    private String quote(ReservationCreateDTO dto, int amount, long pricingVersion) {
+        return quoteTokenService.issue(dto.getStationId(), dto.getStartDate(), dto.getEndDate(), amount, pricingVersion);
+    }
+
+    private static PricingInterval interval(int startHour, int endHour, int hourlyPrice) {
+        PricingInterval interval = new PricingInterval();
+        interval.setStartHour(LocalTime.of(startHour, 0));
+        interval.setEndHour(LocalTime.of(endHour, 0));
+        interval.setHourlyPriceInCents(hourlyPrice);
+        return interval;
+    }
+}
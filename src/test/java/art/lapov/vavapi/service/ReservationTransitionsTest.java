@@ -0,0 +1,127 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.enums.ReservationStatus;
+import art.lapov.vavapi.exception.ResourceNotFoundException;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReservationTransitionsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private ReservationRepository reservationRepository;
+    private EntityManager entityManager;
+    private ReservationTransitions transitions;
+    private User owner;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        entityManager = mock(EntityManager.class);
+        transitions = new ReservationTransitions(reservationRepository, entityManager);
+
+        owner = new User();
+        owner.setId("owner-1");
+        Location location = new Location();
+        location.setOwner(owner);
+        Station station = new Station();
+        station.setLocation(location);
+        reservation = new Reservation();
+        reservation.setId("reservation-1");
+        reservation.setStation(station);
+        reservation.setStatus(ReservationStatus.CREATED);
+        reservation.setEndDate(NOW.plusHours(1));
+    }
+
+    @Test
+    void accept_UpdatesOnceWithoutLoading() {
+        when(reservationRepository.accept("reservation-1", "owner-1", NOW)).thenReturn(1);
+
+        transitions.accept("reservation-1", owner, NOW);
+
+        InOrder inOrder = inOrder(reservationRepository);
+        inOrder.verify(reservationRepository).lockStation("reservation-1");
+        inOrder.verify(reservationRepository).accept("reservation-1", "owner-1", NOW);
+        inOrder.verify(reservationRepository).countBlockingOverlaps("reservation-1");
+        verify(reservationRepository, never()).findGraphById(any());
+    }
+
+    @Test
+    void accept_ConflictsWithAnOverlappingBlockingReservation() {
+        when(reservationRepository.accept("reservation-1", "owner-1", NOW)).thenReturn(1);
+        when(reservationRepository.countBlockingOverlaps("reservation-1")).thenReturn(1L);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> transitions.accept("reservation-1", owner, NOW));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+
+    @Test
+    void accept_ExplainsWhyNoRowMoved() {
+        when(reservationRepository.findGraphById("missing")).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> transitions.accept("missing", owner, NOW));
+
+        when(reservationRepository.findGraphById("reservation-1")).thenReturn(Optional.of(reservation));
+        User other = new User();
+        other.setId("other");
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> transitions.accept("reservation-1", other, NOW));
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+
+        reservation.setStatus(ReservationStatus.PAID);
+        e = assertThrows(ResponseStatusException.class, () -> transitions.accept("reservation-1", owner, NOW));
+        assertEquals("Reservation cannot be accepted in current status: PAID", e.getReason());
+    }
+
+    @Test
+    void complete_ExplainsStatusBeforeEndTime() {
+        when(reservationRepository.findGraphById("reservation-1")).thenReturn(Optional.of(reservation));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> transitions.complete("reservation-1", NOW));
+        assertEquals("Cannot complete reservation with status: CREATED", e.getReason());
+
+        reservation.setStatus(ReservationStatus.PAID);
+        e = assertThrows(ResponseStatusException.class, () -> transitions.complete("reservation-1", NOW));
+        assertEquals("Cannot complete reservation before end time", e.getReason());
+    }
+
+    @Test
+    void move_ComparesWithTheStatusReadAndDetaches() {
+        when(reservationRepository.compareAndSetStatus("reservation-1", ReservationStatus.CREATED,
+                ReservationStatus.CANCELLED)).thenReturn(1);
+
+        transitions.move(reservation, ReservationStatus.CANCELLED);
+
+        assertEquals(ReservationStatus.CANCELLED, reservation.getStatus());
+        verify(entityManager).detach(reservation);
+    }
+
+    @Test
+    void move_LosesAgainstAConcurrentTransition() {
+        when(reservationRepository.compareAndSetStatus(any(), any(), any())).thenReturn(0);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> transitions.move(reservation, ReservationStatus.CANCELLED));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(ReservationStatus.CREATED, reservation.getStatus());
+        verify(entityManager, never()).detach(any());
+    }
+}
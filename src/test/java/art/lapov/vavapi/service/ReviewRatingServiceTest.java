@@ -0,0 +1,81 @@
+package art.lapov.vavapi.service;
+
+import art.lapov.vavapi.metrics.MeasuredAspect;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.Reservation;
+import art.lapov.vavapi.model.Review;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.repository.ReviewRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.repository.UserRepository;
+import art.lapov.vavapi.service.cache.InvalidationBus;
+import art.lapov.vavapi.service.search.StationSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReviewRatingServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private ReviewRepository reviewRepository;
+    private UserRepository userRepository;
+    private StationRepository stationRepository;
+    private ReviewRatingService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        reviewRepository = mock(ReviewRepository.class);
+        userRepository = mock(UserRepository.class);
+        stationRepository = mock(StationRepository.class);
+        RatingService ratingService = measured(new RatingService(reviewRepository, userRepository, stationRepository,
+                mock(StationSearchIndex.class), mock(InvalidationBus.class)));
+        service = measured(new ReviewRatingService(ratingService));
+    }
+
+    @Test
+    void recalculateRatingsForReview_MeasuresStationAndOwnerRecalculations() {
+        User owner = new User();
+        owner.setId("owner-1");
+        Location location = new Location();
+        location.setOwner(owner);
+        Station station = new Station();
+        station.setId("station-1");
+        station.setLocation(location);
+        Reservation reservation = new Reservation();
+        reservation.setStation(station);
+        Review review = new Review();
+        review.setRating(4);
+        review.setReservation(reservation);
+        when(stationRepository.findById("station-1")).thenReturn(Optional.of(station));
+        when(userRepository.findById("owner-1")).thenReturn(Optional.of(owner));
+        when(reviewRepository.getAverageRatingByStationId("station-1")).thenReturn(4.0);
+        when(reviewRepository.findByReservationStationId("station-1")).thenReturn(List.of(review));
+        when(reviewRepository.getAverageRatingByOwnerId("owner-1")).thenReturn(4.0);
+        when(reviewRepository.findByStationOwner("owner-1")).thenReturn(List.of(review));
+
+        service.recalculateRatingsForReview(review);
+
+        assertEquals(1, registry.get("vavapi.ratings.recalculate").tag("scope", "review").timer().count());
+        assertEquals(1, registry.get("vavapi.ratings.recalculate").tag("scope", "station").timer().count());
+        assertEquals(1, registry.get("vavapi.ratings.recalculate").tag("scope", "owner").timer().count());
+        assertEquals(4.0, station.getAverageRating());
+        assertEquals(1, owner.getTotalReviews());
+    }
+
+    private <T> T measured(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MeasuredAspect(registry));
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,124 @@
+package art.lapov.vavapi.service.cache;
+
+import art.lapov.vavapi.service.jobs.JobLeases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<String> received1 = new ArrayList<>();
+    private final List<String> received2 = new ArrayList<>();
+    private InvalidationBus node1;
+    private InvalidationBus node2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:invalidation;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE job_lease (name VARCHAR(255) PRIMARY KEY, owner VARCHAR(255), " +
+                "expires_at TIMESTAMP(6), fencing_token BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE invalidation_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "entity_type VARCHAR(255), entity_id VARCHAR(255), origin VARCHAR(255), created_at TIMESTAMP(6))");
+        node1 = bus("node-1", received1, Duration.ofMinutes(1));
+        node2 = bus("node-2", received2, Duration.ofMinutes(1));
+        node1.poll();
+        node2.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE invalidation_event");
+        jdbcTemplate.execute("DROP TABLE job_lease");
+    }
+
+    @Test
+    void poll_DispatchesTheEventsOfOtherNodesOnce() {
+        node1.publish(InvalidationType.STATION, "s1");
+        node2.publish(InvalidationType.USER, "u1");
+
+        node1.poll();
+        node2.poll();
+        node1.poll();
+        node2.poll();
+
+        assertEquals(List.of("USER u1"), received1);
+        assertEquals(List.of("STATION s1"), received2);
+    }
+
+    @Test
+    void poll_StartsAfterTheEventsPublishedBeforeStartup() {
+        node1.publish(InvalidationType.STATION, "s1");
+        List<String> received = new ArrayList<>();
+        InvalidationBus started = bus("node-3", received, Duration.ofMinutes(1));
+
+        started.poll();
+        node1.publish(InvalidationType.STATION, "s2");
+        started.poll();
+
+        assertEquals(List.of("STATION s2"), received);
+    }
+
+    @Test
+    void poll_DispatchesEventsCommittedAfterALaterOne() {
+        // Id 2 is allocated to a write still in flight while id 3 commits
+        insert(1, "s1");
+        insert(3, "s3");
+        node2.poll();
+
+        insert(2, "s2");
+        node2.poll();
+
+        assertEquals(List.of("STATION s1", "STATION s3", "STATION s2"), received2);
+    }
+
+    @Test
+    void poll_SkipsAMissingIdAfterTheGapTimeout() {
+        List<String> received = new ArrayList<>();
+        InvalidationBus bus = bus("node-3", received, Duration.ZERO);
+        bus.poll();
+        insert(1, "s1");
+        insert(3, "s3");
+
+        bus.poll();
+        insert(4, "s4");
+        bus.poll();
+        // A late id below the cursor is not read any more
+        insert(2, "s2");
+        bus.poll();
+
+        assertEquals(List.of("STATION s1", "STATION s3", "STATION s4"), received);
+    }
+
+    @Test
+    void purgeExpired_DeletesEventsOlderThanTheRetention() {
+        jdbcTemplate.update("INSERT INTO invalidation_event (entity_type, entity_id, origin, created_at) " +
+                "VALUES ('STATION', 'old', 'node-1', ?)", Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+        node1.publish(InvalidationType.STATION, "recent");
+
+        node1.purgeExpired();
+
+        assertEquals(List.of("recent"), jdbcTemplate.queryForList("SELECT entity_id FROM invalidation_event", String.class));
+    }
+
+    private InvalidationBus bus(String nodeId, List<String> received, Duration gapTimeout) {
+        InvalidationListener listener = (type, id) -> received.add(type + " " + id);
+        return new InvalidationBus(jdbcTemplate, new JobLeases(jdbcTemplate, nodeId), List.of(listener),
+                2, gapTimeout, Duration.ofHours(1));
+    }
+
+    private void insert(long id, String stationId) {
+        jdbcTemplate.update("INSERT INTO invalidation_event (id, entity_type, entity_id, origin, created_at) " +
+                "VALUES (?, 'STATION', ?, 'node-1', ?)", id, stationId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
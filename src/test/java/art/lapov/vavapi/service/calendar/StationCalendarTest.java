@@ -0,0 +1,61 @@
+package art.lapov.vavapi.service.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationCalendarTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 2);
+
+    @Test
+    void open_OnlySlotsFullyCoveredByPricingIntervals() {
+        StationCalendar calendar = new StationCalendar(TODAY, 2, List.of(
+                new LocalTime[]{LocalTime.of(8, 10), LocalTime.of(12, 0)},
+                new LocalTime[]{LocalTime.of(18, 0), LocalTime.of(23, 59)}), 0);
+
+        // 08:15-12:00 and 18:00-24:00
+        assertEquals(List.of(List.of(33, 48), List.of(72, 96)), runs(calendar.open()));
+    }
+
+    @Test
+    void book_MarksOverlappedSlotsOfEachDaySpanned() {
+        StationCalendar calendar = new StationCalendar(TODAY, 3, List.of(), 0);
+
+        calendar.book("r1", TODAY.atTime(22, 50), TODAY.plusDays(1).atTime(1, 5));
+
+        assertEquals(List.of(List.of(91, 96)), runs(calendar.booked(0)));
+        assertEquals(List.of(List.of(0, 5)), runs(calendar.booked(1)));
+        assertTrue(runs(calendar.booked(2)).isEmpty());
+    }
+
+    @Test
+    void release_KeepsSlotsSharedWithAnotherReservation() {
+        StationCalendar calendar = new StationCalendar(TODAY, 1, List.of(), 0);
+        calendar.book("r1", TODAY.atTime(10, 0), TODAY.atTime(10, 7));
+        calendar.book("r2", TODAY.atTime(10, 8), TODAY.atTime(11, 0));
+
+        calendar.release("r1");
+
+        assertEquals(List.of(List.of(40, 44)), runs(calendar.booked(0)));
+    }
+
+    @Test
+    void book_MovedReservationFreesItsPreviousSlotsAndIgnoresDaysOutsideTheWindow() {
+        StationCalendar calendar = new StationCalendar(TODAY, 2, List.of(), 0);
+        calendar.book("r1", TODAY.atTime(9, 0), TODAY.atTime(10, 0));
+
+        calendar.book("r1", TODAY.plusDays(1).atTime(9, 0), TODAY.plusDays(5).atTime(10, 0));
+
+        assertTrue(runs(calendar.booked(0)).isEmpty());
+        assertEquals(List.of(List.of(36, 96)), runs(calendar.booked(1)));
+    }
+
+    private static List<List<Integer>> runs(long[] bitmap) {
+        return SlotBitmap.runs(bitmap).stream().map(run -> List.of(run[0], run[1])).toList();
+    }
+}
@@ -0,0 +1,240 @@
+package art.lapov.vavapi.service.image;
+
+import art.lapov.vavapi.enums.FileType;
+import art.lapov.vavapi.service.AccountService;
+import art.lapov.vavapi.service.FileService;
+import art.lapov.vavapi.service.LocationService;
+import art.lapov.vavapi.service.StationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ImageProcessingServiceTest {
+
+    private FileService fileService;
+    private AccountService accountService;
+    private StationService stationService;
+    private ThreadPoolTaskExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageProcessingService service;
+
+    @BeforeEach
+    void setUp() {
+        fileService = mock(FileService.class);
+        accountService = mock(AccountService.class);
+        stationService = mock(StationService.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ImageProcessingService(fileService, accountService, mock(LocationService.class),
+                stationService, executor, meterRegistry);
+        service.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_ProcessesTheUploadThenUpdatesThePhoto() throws Exception {
+        PendingImage pending = pending(FileType.AVATAR, "user-1", "user-1");
+
+        ImageJob job = service.submit(pending);
+        awaitFinished(job);
+
+        assertEquals(ImageJob.Status.DONE, job.getStatus());
+        assertEquals("user-1", job.getUserId());
+        InOrder inOrder = inOrder(fileService, accountService);
+        inOrder.verify(fileService).processPendingUpload(pending);
+        inOrder.verify(accountService).updateAvatar("user-1", pending.fileName());
+        inOrder.verify(fileService).deletePreviousImages(pending);
+        assertEquals(1, meterRegistry.get("vavapi.images.jobs").tag("outcome", "done").counter().count());
+        assertEquals(1, meterRegistry.get("vavapi.images.processing").timer().count());
+    }
+
+    @Test
+    void submit_FailedProcessing_DeletesTheRenditionsAndKeepsThePhoto() throws Exception {
+        PendingImage pending = pending(FileType.STATION, "station-1", "user-1");
+        doThrow(new IllegalArgumentException("Unsupported image format")).when(fileService).processPendingUpload(pending);
+
+        ImageJob job = service.submit(pending);
+        awaitFinished(job);
+
+        assertEquals(ImageJob.Status.FAILED, job.getStatus());
+        assertEquals("Unsupported image format", job.getError());
+        verify(fileService).deleteImage(pending.fileName(), FileType.STATION);
+        verify(stationService, never()).updatePhoto(any(), any());
+        verify(fileService, never()).deletePreviousImages(any());
+        assertEquals(1, meterRegistry.get("vavapi.images.jobs").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void submit_FailedPhotoUpdate_KeepsThePreviousImages() throws Exception {
+        PendingImage pending = pending(FileType.STATION, "station-1", "user-1");
+        doThrow(new IllegalStateException("rolled back")).when(stationService).updatePhoto("station-1", pending.fileName());
+
+        ImageJob job = service.submit(pending);
+        awaitFinished(job);
+
+        assertEquals(ImageJob.Status.FAILED, job.getStatus());
+        verify(fileService, never()).deletePreviousImages(any());
+        verify(fileService).deleteImage(pending.fileName(), FileType.STATION);
+    }
+
+    @Test
+    void submit_OlderUploadTakenLast_IsDropped() throws Exception {
+        // The first task submitted waits until the second one has updated the photo
+        CountDownLatch newerApplied = new CountDownLatch(1);
+        AtomicInteger decorated = new AtomicInteger();
+        ThreadPoolTaskExecutor reordering = new ThreadPoolTaskExecutor();
+        reordering.setCorePoolSize(2);
+        reordering.setTaskDecorator(task -> decorated.getAndIncrement() > 0 ? task : () -> {
+            try {
+                newerApplied.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        reordering.initialize();
+        try {
+            service = new ImageProcessingService(fileService, accountService, mock(LocationService.class),
+                    stationService, reordering, meterRegistry);
+            service.registerMetrics();
+            PendingImage older = pending(FileType.STATION, "station-1", "user-1");
+            PendingImage newer = pending(FileType.STATION, "station-1", "user-1");
+            doAnswer(invocation -> {
+                newerApplied.countDown();
+                return null;
+            }).when(stationService).updatePhoto("station-1", newer.fileName());
+
+            ImageJob olderJob = service.submit(older);
+            ImageJob newerJob = service.submit(newer);
+            awaitFinished(newerJob);
+            awaitFinished(olderJob);
+
+            assertEquals(ImageJob.Status.DONE, newerJob.getStatus());
+            assertEquals(ImageJob.Status.FAILED, olderJob.getStatus());
+            verify(fileService, never()).processPendingUpload(older);
+            verify(fileService).discardPendingUpload(older);
+            verify(stationService, never()).updatePhoto("station-1", older.fileName());
+            assertEquals(1, meterRegistry.get("vavapi.images.jobs").tag("outcome", "superseded").counter().count());
+        } finally {
+            reordering.shutdown();
+        }
+    }
+
+    @Test
+    void submit_FullQueue_DiscardsTheUploadWith503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(fileService).processPendingUpload(any());
+        try {
+            // Two workers and one queued upload
+            for (int i = 0; i < 3; i++) {
+                service.submit(pending(FileType.AVATAR, "user-" + i, "user-" + i));
+            }
+            PendingImage rejected = pending(FileType.AVATAR, "user-9", "user-9");
+
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.submit(rejected));
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+            verify(fileService).discardPendingUpload(rejected);
+            assertEquals(1, meterRegistry.get("vavapi.images.jobs").tag("outcome", "rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void submit_SameEntity_ProcessesOneUploadAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return null;
+        }).when(fileService).processPendingUpload(any());
+
+        ImageJob first = service.submit(pending(FileType.STATION, "station-1", "user-1"));
+        ImageJob second = service.submit(pending(FileType.STATION, "station-1", "user-1"));
+        awaitFinished(first);
+        awaitFinished(second);
+
+        assertEquals(1, maxRunning.get());
+        verify(stationService, times(2)).updatePhoto(eq("station-1"), any());
+    }
+
+    @Test
+    void findJob_OnlyForTheUploader() throws Exception {
+        ImageJob job = service.submit(pending(FileType.AVATAR, "user-1", "user-1"));
+
+        assertTrue(service.findJob(job.getId(), "user-1").isPresent());
+        assertTrue(service.findJob(job.getId(), "user-2").isEmpty());
+        assertTrue(service.findJob("unknown", "user-1").isEmpty());
+    }
+
+    @Test
+    void findJob_WithoutUploader_IsNotVisible() throws Exception {
+        ImageJob job = service.submit(pending(FileType.AVATAR, "user-1", null));
+
+        assertTrue(service.findJob(job.getId(), "user-1").isEmpty());
+        assertTrue(service.findJob(job.getId(), null).isEmpty());
+    }
+
+    @Test
+    void resumePendingUploads_KeepsTheUploader() throws Exception {
+        PendingImage pending = pending(FileType.LOCATION, "location-1", "user-1");
+        when(fileService.findPendingUploads()).thenReturn(List.of(pending));
+
+        service.resumePendingUploads();
+
+        verify(fileService, timeout(2000)).processPendingUpload(pending);
+        ImageJob resumed = service.findJob(findJobId(pending), "user-1").orElseThrow();
+        assertEquals("user-1", resumed.getUserId());
+    }
+
+    private String findJobId(PendingImage pending) {
+        @SuppressWarnings("unchecked")
+        Map<String, ImageJob> jobs = (Map<String, ImageJob>) ReflectionTestUtils.getField(service, "jobs");
+        return jobs.values().stream()
+                .filter(job -> job.getFileName().equals(pending.fileName()))
+                .findFirst().orElseThrow().getId();
+    }
+
+    private static PendingImage pending(FileType fileType, String entityId, String userId) {
+        String fileName = entityId + "_" + UUID.randomUUID() + ".jpg";
+        return new PendingImage(fileType, entityId, userId, fileName, Path.of("pending", fileName + ".upload"));
+    }
+
+    private static void awaitFinished(ImageJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "job did not finish");
+    }
+}
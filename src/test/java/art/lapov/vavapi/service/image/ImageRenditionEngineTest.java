@@ -0,0 +1,160 @@
+package art.lapov.vavapi.service.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ImageRenditionEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageRenditionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ImageRenditionEngine();
+    }
+
+    @Test
+    void subsamplingFactor_KeepsAtLeastTargetSize() {
+        assertEquals(1, ImageRenditionEngine.subsamplingFactor(1000, 1600));
+        // 4000x3000 photo: the 3000px square is decoded at full size
+        assertEquals(1, ImageRenditionEngine.subsamplingFactor(3000, 1600));
+        assertEquals(1, ImageRenditionEngine.subsamplingFactor(3199, 1600));
+        assertEquals(2, ImageRenditionEngine.subsamplingFactor(3200, 1600));
+        assertEquals(2, ImageRenditionEngine.subsamplingFactor(3024, 1500));
+        assertEquals(7, ImageRenditionEngine.subsamplingFactor(12000, 1600));
+    }
+
+    @Test
+    void decodeSquare_NeverBelowLargestTarget() throws IOException {
+        int[][] sizes = {{4000, 3000}, {3500, 3300}, {5000, 4900}, {6400, 4800}};
+        for (int[] size : sizes) {
+            BufferedImage square = engine.decodeSquare(writeSample(size[0], size[1], "jpg"), 1600);
+
+            assertTrue(square.getWidth() >= 1600, size[0] + "x" + size[1] + " decoded at " + square.getWidth());
+            assertEquals(square.getWidth(), square.getHeight());
+        }
+        // Subsampled when the square is at least twice the target
+        assertEquals(1600, engine.decodeSquare(writeSample(6400, 4800, "jpg"), 1600).getWidth());
+    }
+
+    @Test
+    void renderSquares_LandscapePhoto_CropsCenterAndResizes() throws IOException {
+        // Given: 4000x3000 photo, left band red, center green, right band blue
+        Path source = writeSample(4000, 3000, "jpg");
+
+        // When
+        List<BufferedImage> renditions = engine.renderSquares(source, 1600, 300);
+
+        // Then: only the centered 3000x3000 square is kept
+        assertEquals(2, renditions.size());
+        assertSquare(renditions.get(0), 1600);
+        assertSquare(renditions.get(1), 300);
+        assertDominant(renditions.get(0).getRGB(800, 800), Color.GREEN);
+        assertDominant(renditions.get(1).getRGB(5, 150), Color.GREEN);
+        assertDominant(renditions.get(1).getRGB(294, 150), Color.GREEN);
+    }
+
+    @Test
+    void renderSquares_SmallTransparentPng_UpscalesToRgb() throws IOException {
+        // Given: small PNG with alpha channel
+        Path source = writeSample(200, 400, "png");
+
+        // When
+        List<BufferedImage> renditions = engine.renderSquares(source, 1600, 300);
+
+        // Then
+        assertSquare(renditions.get(0), 1600);
+        assertSquare(renditions.get(1), 300);
+        assertFalse(renditions.get(0).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void writeJpeg_LowerQualityProducesSmallerFile() throws IOException {
+        BufferedImage image = engine.renderSquares(writeSample(2000, 2000, "jpg"), 1600).get(0);
+        Path high = tempDir.resolve("high.jpg");
+        Path low = tempDir.resolve("low.jpg");
+
+        engine.writeJpeg(image, 0.95f, high);
+        engine.writeJpeg(image, 0.50f, low);
+
+        assertTrue(Files.size(low) < Files.size(high));
+        assertSquare(ImageIO.read(low.toFile()), 1600);
+    }
+
+    @Test
+    void write_Webp_SmallerThanJpeg() throws IOException {
+        BufferedImage image = engine.renderSquares(writeSample(2000, 2000, "jpg"), 1600).get(0);
+        Path jpeg = tempDir.resolve("image.jpg");
+        Path webp = tempDir.resolve("image.webp");
+
+        // The WebP writer is a native codec, not available on every platform
+        assumeTrue(engine.canWrite(ImageFormat.WEBP), "no native WebP encoder");
+        engine.write(image, ImageFormat.JPEG, 0.85f, jpeg);
+        engine.write(image, ImageFormat.WEBP, 0.85f, webp);
+
+        assertTrue(Files.size(webp) < Files.size(jpeg));
+        byte[] header = Files.readAllBytes(webp);
+        assertEquals("RIFF", new String(header, 0, 4));
+        assertEquals("WEBP", new String(header, 8, 4));
+    }
+
+    @Test
+    void renderSquares_NotAnImage_ThrowsException() throws IOException {
+        Path source = tempDir.resolve("notes.txt");
+        Files.writeString(source, "not an image");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> engine.renderSquares(source, 1600, 300));
+
+        assertEquals("Unsupported image format", exception.getMessage());
+    }
+
+    // ================ HELPER METHODS ================
+
+    private Path writeSample(int width, int height, String format) throws IOException {
+        int type = "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        int band = (width - Math.min(width, height)) / 2;
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, band, height);
+        g.setColor(Color.GREEN);
+        g.fillRect(band, 0, width - 2 * band, height);
+        g.setColor(Color.BLUE);
+        g.fillRect(width - band, 0, band, height);
+        g.dispose();
+
+        Path path = tempDir.resolve("sample-" + width + "x" + height + "." + format);
+        ImageIO.write(image, format, path.toFile());
+        return path;
+    }
+
+    private void assertSquare(BufferedImage image, int size) {
+        assertEquals(size, image.getWidth());
+        assertEquals(size, image.getHeight());
+    }
+
+    private void assertDominant(int rgb, Color expected) {
+        Color actual = new Color(rgb);
+        int[] channels = {actual.getRed(), actual.getGreen(), actual.getBlue()};
+        int[] wanted = {expected.getRed(), expected.getGreen(), expected.getBlue()};
+        for (int i = 0; i < 3; i++) {
+            assertEquals(wanted[i], channels[i], 40, "channel " + i + " of " + actual);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package art.lapov.vavapi.service.jobs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobLeasesTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private JdbcTemplate jdbcTemplate;
+    private JobLeases node1;
+    private JobLeases node2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:job-leases;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE job_lease (name VARCHAR(255) PRIMARY KEY, owner VARCHAR(255), " +
+                "expires_at TIMESTAMP(6), fencing_token BIGINT)");
+        node1 = new JobLeases(jdbcTemplate, "node-1");
+        node2 = new JobLeases(jdbcTemplate, "node-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE job_lease");
+    }
+
+    @Test
+    void tryAcquire_OneHolderAtATime() {
+        JobLeases.Lease lease = node1.tryAcquire("job", TTL).orElseThrow();
+
+        assertTrue(node2.tryAcquire("job", TTL).isEmpty());
+        // Renewal by the holder keeps the fencing token
+        assertEquals(lease, node1.tryAcquire("job", TTL).orElseThrow());
+    }
+
+    @Test
+    void tryAcquire_TakeOverAfterExpiryIncrementsTheFencingToken() {
+        JobLeases.Lease first = node1.tryAcquire("job", Duration.ZERO).orElseThrow();
+
+        JobLeases.Lease second = node2.tryAcquire("job", TTL).orElseThrow();
+
+        assertEquals(first.fencingToken() + 1, second.fencingToken());
+        assertTrue(node1.tryAcquire("job", TTL).isEmpty());
+    }
+
+    @Test
+    void release_LetsAnotherNodeTakeTheLease() {
+        JobLeases.Lease lease = node1.tryAcquire("job", TTL).orElseThrow();
+
+        node1.release(lease);
+
+        Optional<JobLeases.Lease> taken = node2.tryAcquire("job", TTL);
+        assertTrue(taken.isPresent());
+        // A stale release does not free the lease of the new holder
+        node1.release(lease);
+        assertTrue(node1.tryAcquire("job", TTL).isEmpty());
+    }
+
+    @Test
+    void acquireShards_SplitsShardsBetweenNodes() {
+        // Alone, the first node takes every shard
+        assertEquals(4, node1.acquireShards("completion", 4, TTL).size());
+        // The second node registers but finds every shard held
+        assertTrue(node2.acquireShards("completion", 4, TTL).isEmpty());
+
+        // At its next run, the first node keeps its part and releases the rest
+        List<Shard> first = node1.acquireShards("completion", 4, TTL);
+        List<Shard> second = node2.acquireShards("completion", 4, TTL);
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        Set<Integer> indexes = new HashSet<>();
+        first.forEach(shard -> indexes.add(shard.index()));
+        second.forEach(shard -> indexes.add(shard.index()));
+        assertEquals(Set.of(0, 1, 2, 3), indexes);
+    }
+
+    @Test
+    void shard_SuffixRangesCoverEveryId() {
+        JobLeases.Lease lease = new JobLeases.Lease("completion/shard/0", 1);
+        Shard first = new Shard(0, 3, lease);
+        Shard middle = new Shard(1, 3, lease);
+        Shard last = new Shard(2, 3, lease);
+
+        assertEquals("", first.from());
+        assertEquals("5555", first.to());
+        assertEquals("5555", middle.from());
+        assertEquals("aaaa", middle.to());
+        assertEquals("aaaa", last.from());
+        assertNull(last.to());
+    }
+}
@@ -0,0 +1,133 @@
+package art.lapov.vavapi.service.receipt;
+
+import art.lapov.vavapi.dto.ReservationDTO;
+import art.lapov.vavapi.model.User;
+import art.lapov.vavapi.service.ReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReceiptFacadeTest {
+
+    private ReservationService reservationService;
+    private HtmlToPdfReceiptService pdfService;
+    private ThreadPoolTaskExecutor executor;
+    private ReceiptFacade facade;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        pdfService = mock(HtmlToPdfReceiptService.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(3);
+        executor.setMaxPoolSize(3);
+        executor.setQueueCapacity(4);
+        executor.initialize();
+        facade = new ReceiptFacade(reservationService, null, pdfService, executor);
+        ReflectionTestUtils.setField(facade, "maxExportDays", 366);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void writeReceiptsZip_WritesAValidArchive() throws Exception {
+        when(pdfService.generateReceiptPdf(any())).thenReturn(new byte[]{1, 2, 3});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        facade.writeReceiptsZip(List.of(reservation("r1"), reservation("r2"), reservation("r3")), out);
+
+        try (ZipFile zip = new ZipFile(write(out).toFile())) {
+            assertEquals(3, zip.size());
+        }
+    }
+
+    @Test
+    void writeReceiptsZip_RenderFailure_CancelsPendingRendersAndLeavesTheArchiveUnfinished() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(2);
+        when(pdfService.generateReceiptPdf(any())).thenAnswer(invocation -> {
+            ReservationDTO dto = invocation.getArgument(0);
+            if (dto.getId().equals("ok")) {
+                return new byte[]{1};
+            }
+            if (dto.getId().equals("broken")) {
+                throw new IllegalStateException("template error");
+            }
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                cancelled.countDown();
+            }
+            return new byte[0];
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Three render threads: "broken" runs once "ok" is done, while both slow renders are in progress
+        assertThrows(IOException.class, () -> facade.writeReceiptsZip(List.of(reservation("ok"),
+                reservation("slow-1"), reservation("slow-2"), reservation("broken")), out));
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertEquals(2, interrupted.get());
+        assertThrows(ZipException.class, () -> new ZipFile(write(out).toFile()).close());
+    }
+
+    @Test
+    void findReceiptsToExport_FullRenderPool_ServiceUnavailableBeforeStreaming() {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3 + 4; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        try {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () ->
+                    facade.findReceiptsToExport(new User(), LocalDate.now().minusDays(7), LocalDate.now()));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+            verifyNoInteractions(reservationService);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Path write(ByteArrayOutputStream out) throws IOException {
+        return Files.write(dir.resolve("receipts.zip"), out.toByteArray());
+    }
+
+    private static ReservationDTO reservation(String id) {
+        return new ReservationDTO(id, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+}
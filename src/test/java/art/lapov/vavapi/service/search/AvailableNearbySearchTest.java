@@ -0,0 +1,103 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.dto.AvailableStationDTO;
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.mapper.StationMapperImpl;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.PricingInterval;
+import art.lapov.vavapi.model.Station;
+import art.lapov.vavapi.repository.PricingIntervalRepository;
+import art.lapov.vavapi.repository.StationRepository;
+import art.lapov.vavapi.service.PricingIntervalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvailableNearbySearchTest {
+
+    private static final double LAT = 45.76;
+    private static final double LON = 4.84;
+    private static final LocalDateTime START = LocalDate.now().plusDays(1).atTime(10, 0);
+    private static final LocalDateTime END = START.plusHours(2);
+
+    private StationRepository stationRepository;
+    private PricingIntervalRepository pricingIntervalRepository;
+    private AvailableNearbySearch search;
+
+    @BeforeEach
+    void setUp() {
+        stationRepository = mock(StationRepository.class);
+        pricingIntervalRepository = mock(PricingIntervalRepository.class);
+        PricingIntervalService pricingIntervalService = new PricingIntervalService(pricingIntervalRepository,
+                stationRepository, null, null, null, null, null);
+        search = new AvailableNearbySearch(stationRepository, pricingIntervalRepository, pricingIntervalService,
+                new StationMapperImpl());
+
+        Station near = station("near", 0.01);
+        Station middle = station("middle", 0.03);
+        Station far = station("far", 0.05);
+        Station closed = station("closed", 0.02);
+        // Outside the radius, inside the bounding box
+        Station corner = station("corner", 0.12);
+        when(stationRepository.findAvailableInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(START), eq(END)))
+                .thenReturn(List.of(far, near, closed, middle, corner));
+        when(pricingIntervalRepository.findByStationIdInOrderByStartHour(anyCollection())).thenReturn(List.of(
+                interval(near, 6, 22, 500), interval(middle, 6, 22, 200), interval(far, 6, 22, 300),
+                interval(closed, 12, 18, 100), interval(corner, 6, 22, 50)));
+    }
+
+    @Test
+    void search_NearestFirstWithQuotes() {
+        List<AvailableStationDTO> result = search.search(LAT, LON, 10, START, END, AvailableNearbySearch.SortBy.DISTANCE, 10);
+
+        assertEquals(List.of("near", "middle", "far"), result.stream().map(dto -> dto.getStation().getId()).toList());
+        assertEquals(1000, result.get(0).getTotalCostInCents());
+        assertEquals(1.11, result.get(0).getDistanceKm(), 0.01);
+        assertEquals("Lyon", result.get(0).getStation().getLocation().getCity());
+    }
+
+    @Test
+    void search_CheapestFirstKeepsTopK() {
+        List<AvailableStationDTO> result = search.search(LAT, LON, 10, START, END, AvailableNearbySearch.SortBy.PRICE, 2);
+
+        assertEquals(List.of("middle", "far"), result.stream().map(dto -> dto.getStation().getId()).toList());
+        assertEquals(400, result.get(0).getTotalCostInCents());
+    }
+
+    @Test
+    void search_RejectsInvalidPeriod() {
+        assertThrows(ResponseStatusException.class,
+                () -> search.search(LAT, LON, 10, END, START, AvailableNearbySearch.SortBy.DISTANCE, 10));
+    }
+
+    private static Station station(String id, double latitudeOffset) {
+        Location location = new Location();
+        location.setId("location-" + id);
+        location.setCity("Lyon");
+        location.setLatitude(LAT + latitudeOffset);
+        location.setLongitude(LON);
+        Station station = new Station();
+        station.setId(id);
+        station.setConnectorType(ConnectorType.TYPE2);
+        station.setLocation(location);
+        return station;
+    }
+
+    private static PricingInterval interval(Station station, int startHour, int endHour, int hourlyPrice) {
+        PricingInterval interval = new PricingInterval();
+        interval.setStation(station);
+        interval.setStartHour(LocalTime.of(startHour, 0));
+        interval.setEndHour(LocalTime.of(endHour, 0));
+        interval.setHourlyPriceInCents(hourlyPrice);
+        return interval;
+    }
+}
@@ -0,0 +1,108 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.enums.ConnectorType;
+import art.lapov.vavapi.model.Location;
+import art.lapov.vavapi.model.Station;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StationSearchIndexTest {
+
+    private StationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StationSearchIndex(mock(JdbcTemplate.class));
+        index.index(station("1", ConnectorType.TYPE2, 22_000L, 4.5, "Lyon"), 300);
+        index.index(station("2", ConnectorType.CSS, 150_000L, 3.8, "Lyon"), 900);
+        index.index(station("3", ConnectorType.TYPE2, 11_000L, 4.9, "Paris"), 250);
+        index.index(station("4", ConnectorType.TESLA, 250_000L, 2.0, "Saint-Étienne"), null);
+        index.refresh();
+    }
+
+    @Test
+    void search_WithoutFiltersRanksByRatingAndCountsFacets() {
+        StationSearchIndex.Result result = index.search(query(null, null, null, null, null, null), 0, 10);
+
+        assertEquals(List.of("3", "1", "2", "4"), result.ids());
+        assertEquals(4, result.total());
+        assertEquals(2L, result.connectorTypes().get(ConnectorType.TYPE2));
+        assertEquals(0L, result.connectorTypes().get(ConnectorType.GBT));
+        assertEquals(Map.of("Lyon", 2L, "Paris", 1L, "Saint-Étienne", 1L), result.cities());
+        assertEquals(List.of("Lyon", "Paris", "Saint-Étienne"), List.copyOf(result.cities().keySet()));
+        assertEquals(2L, result.ratings().get(4));
+    }
+
+    @Test
+    void search_IntersectsFiltersAndCountsEachFacetWithoutItsOwnFilter() {
+        StationSearchIndex.Result result = index.search(
+                query(EnumSet.of(ConnectorType.TYPE2), "lyon", null, null, null, null), 0, 10);
+
+        assertEquals(List.of("1"), result.ids());
+        // Connector types in Lyon, cities with a TYPE2 connector
+        assertEquals(1L, result.connectorTypes().get(ConnectorType.CSS));
+        assertEquals(Map.of("Lyon", 1L, "Paris", 1L), result.cities());
+    }
+
+    @Test
+    void search_FiltersRangesOfPowerRatingAndPrice() {
+        assertEquals(List.of("2", "4"), index.search(query(null, null, 100_000L, null, null, null), 0, 10).ids());
+        assertEquals(List.of("3", "1"), index.search(query(null, null, null, 4.5, null, null), 0, 10).ids());
+        // The station without pricing interval has no price
+        assertEquals(List.of("3", "1"), index.search(query(null, null, null, null, null, 300), 0, 10).ids());
+        assertEquals(List.of("1", "2"), index.search(query(null, null, null, null, 300, 900), 0, 10).ids());
+        assertEquals(List.of("4"), index.search(query(null, "saint-etienne", null, null, null, null), 0, 10).ids());
+    }
+
+    @Test
+    void search_Pagination() {
+        StationSearchIndex.Result result = index.search(query(null, null, null, null, null, null), 2, 1);
+
+        assertEquals(List.of("2"), result.ids());
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    void writes_AreVisibleAfterRefresh() {
+        index.updatePrice("4", 500);
+        index.updateRating("2", 5.0);
+        Station deleted = station("3", ConnectorType.TYPE2, 11_000L, 4.9, "Paris");
+        deleted.setDeleted(true);
+        index.index(deleted, 250);
+
+        assertEquals(4, index.search(query(null, null, null, null, null, null), 0, 10).total());
+        index.refresh();
+
+        assertEquals(List.of("2", "1", "4"), index.search(query(null, null, null, null, null, null), 0, 10).ids());
+        assertEquals(List.of("1", "4"), index.search(query(null, null, null, null, null, 500), 0, 10).ids());
+    }
+
+    private static StationSearchIndex.Query query(Set<ConnectorType> connectorTypes, String city, Long minPowerWatt,
+                                                  Double minRating, Integer minPrice, Integer maxPrice) {
+        return new StationSearchIndex.Query(connectorTypes, city, minPowerWatt, minRating, minPrice, maxPrice);
+    }
+
+    private static Station station(String id, ConnectorType connectorType, Long maxPowerWatt, double rating, String city) {
+        Location location = new Location();
+        location.setCity(city);
+        location.setDeleted(false);
+        Station station = new Station();
+        station.setId(id);
+        station.setConnectorType(connectorType);
+        station.setMaxPowerWatt(maxPowerWatt);
+        station.setAverageRating(rating);
+        station.setEnabled(true);
+        station.setDeleted(false);
+        station.setLocation(location);
+        return station;
+    }
+}
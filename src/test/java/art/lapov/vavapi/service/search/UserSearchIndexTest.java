@@ -0,0 +1,70 @@
+package art.lapov.vavapi.service.search;
+
+import art.lapov.vavapi.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UserSearchIndexTest {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(mock(JdbcTemplate.class));
+        index.index(user("1", "marc.dupont@mail.com", "Marc", "Dupont"));
+        index.index(user("2", "anne@marc.fr", "Anne", "Martin"));
+        index.index(user("3", "helene@mail.com", "Hélène", "Marchand"));
+        index.index(user("4", "marc@mail.com", "Jean", "Lemarchal"));
+    }
+
+    @Test
+    void search_RanksEmailPrefixThenNamePrefixThenAnywhere() {
+        UserSearchIndex.Result result = index.search("Marc", 0, 10);
+
+        assertEquals(List.of("4", "1", "3", "2"), result.ids());
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    void search_ExactEmailFirst() {
+        assertEquals(List.of("4"), index.search("MARC@mail.com", 0, 10).ids());
+    }
+
+    @Test
+    void search_IgnoresAccentsAndMatchesFullName() {
+        assertEquals(List.of("3"), index.search("helene", 0, 10).ids());
+        assertEquals(List.of("3"), index.search("hélène march", 0, 10).ids());
+    }
+
+    @Test
+    void search_ShortQueryAndPagination() {
+        UserSearchIndex.Result result = index.search("ma", 1, 2);
+
+        assertEquals(4, result.total());
+        assertEquals(2, result.ids().size());
+        assertTrue(index.search("zz", 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    void index_UpdatedUserReplacesPreviousDocument() {
+        index.index(user("2", "anne@marc.fr", "Anne", "Bernard"));
+
+        assertTrue(index.search("martin", 0, 10).ids().isEmpty());
+        assertEquals(List.of("2"), index.search("bernard", 0, 10).ids());
+    }
+
+    private static User user(String id, String email, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
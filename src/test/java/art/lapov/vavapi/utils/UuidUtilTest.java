@@ -0,0 +1,54 @@
+package art.lapov.vavapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidUtilTest {
+
+    @Test
+    void timeOrdered_IsAVersion7UuidIncreasingWithTime() {
+        long before = System.currentTimeMillis();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidUtil.timeOrdered());
+        }
+
+        UUID first = UUID.fromString(ids.get(0));
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        assertTrue(first.getMostSignificantBits() >>> 16 >= before);
+        // Canonical strings of increasing ids sort like their bytes
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+
+    @Test
+    void toBytes_KeepsTheTextualOrder() {
+        String id = "019a0b6c-3f2e-7d41-8a5b-6c7d8e9f0a1b";
+
+        byte[] bytes = UuidUtil.toBytes(id);
+
+        assertEquals("019a0b6c3f2e7d418a5b6c7d8e9f0a1b", HexFormat.of().formatHex(bytes));
+        assertEquals(id, UuidUtil.fromBytes(bytes));
+    }
+
+    @Test
+    void toBytes_RejectsAStringThatIsNotAUuid() {
+        assertThrows(IllegalArgumentException.class, () -> UuidUtil.toBytes("station-1"));
+        assertThrows(IllegalArgumentException.class, () -> UuidUtil.toBytes("1-2-3-4-5"));
+        assertThrows(IllegalArgumentException.class, () -> UuidUtil.fromBytes(new byte[4]));
+    }
+
+    @Test
+    void timeOrdered_StampsTheGivenMillisecond() {
+        UUID id = UuidUtil.timeOrdered(0x0123_4567_89abL, 0xfff, -1);
+
+        assertEquals("01234567-89ab-7fff-bfff-ffffffffffff", id.toString());
+    }
+}